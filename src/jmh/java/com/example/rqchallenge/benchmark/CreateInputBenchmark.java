@@ -0,0 +1,66 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.entity.EmployeeInput;
+import com.example.rqchallenge.util.EmployeeJson;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.json.simple.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.example.rqchallenge.util.Constants.*;
+
+/**
+ * Compares the per-create work of POST / the way createEmployee used to do it (body bound to
+ * a Map, extract* helpers, upstream body built with a json-simple JSONObject) with binding an
+ * EmployeeInput and writing the upstream body with EmployeeJson.writeCreateBody. Bodies use
+ * the keys of the /create route with string numbers, or the Employee keys with numbers.
+ * Run with -prof gc (the default profiler of the jmh task) and compare gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CreateInputBenchmark {
+
+    private static final ObjectReader MAP_READER = EmployeeJson.mapper().readerFor(new TypeReference<Map<String, Object>>() {
+    });
+    private static final ObjectReader INPUT_READER = EmployeeJson.mapper().readerFor(EmployeeInput.class);
+
+    @Param({"name", "employee_name"})
+    public String keys;
+
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        String json = NAME.equals(keys)
+                ? "{\"name\":\"Garrett Winters\",\"salary\":\"170750\",\"age\":\"63\"}"
+                : "{\"id\":null,\"employee_name\":\"Garrett Winters\",\"employee_salary\":170750,\"employee_age\":63,\"profile_image\":null}";
+        body = json.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public byte[] mapAndJsonSimple() throws IOException {
+        Map<String, Object> input = MAP_READER.readValue(body);
+        String name = input.containsKey(NAME) ? String.valueOf(input.get(NAME)) : String.valueOf(input.get(EMPLOYEE_NAME));
+        int age = Integer.parseInt(input.containsKey(AGE) ? String.valueOf(input.get(AGE)) : String.valueOf(input.get(EMPLOYEE_AGE)));
+        int salary = Integer.parseInt(input.containsKey(SALARY) ? String.valueOf(input.get(SALARY)) : String.valueOf(input.get(EMPLOYEE_SALARY)));
+
+        JSONObject jsonObject = new JSONObject();
+        jsonObject.put(NAME, name);
+        jsonObject.put(SALARY, salary);
+        jsonObject.put(AGE, age);
+        return jsonObject.toJSONString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] typedInputAndGenerator() throws IOException {
+        EmployeeInput input = INPUT_READER.readValue(body);
+        return EmployeeJson.writeCreateBody(input.getName(), input.getSalary(), input.getAge());
+    }
+}
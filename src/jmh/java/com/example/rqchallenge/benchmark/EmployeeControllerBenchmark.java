@@ -0,0 +1,68 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.index.SalaryIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks the per-request work of the EmployeeControllerImpl read endpoints over an
+ * in-memory list, i.e. without the upstream call: the regex name search, the top 10
+ * sort and the max salary stream they used to run, next to the SalaryIndex lookups
+ * that replaced the latter two.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class EmployeeControllerBenchmark {
+
+    @Param({"24", "10000", "100000", "1000000"})
+    public int employeeCount;
+
+    @Param({"paul"})
+    public String searchString;
+
+    private List<Employee> employees;
+    private SalaryIndex salaryIndex;
+
+    @Setup
+    public void setUp() {
+        employees = EmployeeFixtures.employees(employeeCount);
+        salaryIndex = SalaryIndex.build(employees);
+    }
+
+    @Benchmark
+    public List<Employee> regexNameSearch() {
+        return employees.stream()
+                .filter(employee -> employee.getEmployeeName()
+                        .matches("(?i).*" + searchString + ".*"))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Employee> topTenSort() {
+        return employees.stream()
+                .sorted(Employee.employeeSalaryDescendingComparator())
+                .limit(10)
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public Integer maxSalaryStream() {
+        return employees.stream()
+                .max(Employee.employeeSalaryAcsendingComparator())
+                .get()
+                .getEmployeeSalary();
+    }
+
+    @Benchmark
+    public List<Employee> topTenSalaryIndex() {
+        return salaryIndex.getTopEarners(10);
+    }
+
+    @Benchmark
+    public int maxSalaryIndex() {
+        return salaryIndex.getHighestSalary();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.util.EmployeeJson;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares decoding an upstream /employees payload the way getAllEmployeesList used to
+ * (String body, JsonNode tree, toString of "data", re-parse with a new ObjectMapper)
+ * with the streaming EmployeeJson.readData. Run with -prof gc (the default profiler of
+ * the jmh task) and compare gc.alloc.rate.norm.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeDecodeBenchmark {
+
+    @Param({"24", "10000", "100000"})
+    public int employeeCount;
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("status", "success");
+        envelope.put("data", EmployeeFixtures.generate(employeeCount));
+        envelope.put("message", "Successfully! All records has been fetched.");
+        payload = EmployeeJson.mapper().writeValueAsBytes(envelope);
+    }
+
+    @Benchmark
+    public List<Employee> treeThenRebind() throws IOException {
+        String body = new String(payload, StandardCharsets.UTF_8);
+        JsonNode jsonNode = new ObjectMapper().readTree(body);
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+        return mapper.readValue(jsonNode.get("data").toString(), new TypeReference<>() {
+        });
+    }
+
+    @Benchmark
+    public List<Employee> streaming() throws IOException {
+        return EmployeeJson.readData(new ByteArrayInputStream(payload));
+    }
+}
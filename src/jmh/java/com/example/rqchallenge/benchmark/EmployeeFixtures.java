@@ -0,0 +1,53 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.util.EmployeeUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * The EmployeeFixtures class generates synthetic employee lists with the same shape
+ * as getMockedEmployeeData, so that benchmarks can run against any number of rows.
+ */
+public class EmployeeFixtures {
+
+    private static final String[] FIRST_NAMES = {
+            "Tiger", "Garrett", "Ashton", "Cedric", "Airi", "Brielle", "Herrod", "Rhona",
+            "Colleen", "Sonya", "Jena", "Quinn", "Charde", "Haley", "Tatyana", "Michael",
+            "Paul", "Gloria", "Bradley", "Dai", "Jenette", "Yuri", "Caesar", "Doris"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Nixon", "Winters", "Cox", "Kelly", "Satou", "Williamson", "Chandler", "Davidson",
+            "Hurst", "Frost", "Gaines", "Flynn", "Marshall", "Kennedy", "Fitzpatrick", "Silva",
+            "Byrd", "Little", "Greer", "Rios", "Caldwell", "Berry", "Vance", "Wilder"
+    };
+
+    public static final int MOCKED_ROWS = 24;
+
+    /**
+     * This method returns the 24 rows of getMockedEmployeeData for MOCKED_ROWS,
+     * and generated rows for any other count.
+     */
+    public static List<Employee> employees(int count) {
+        return count == MOCKED_ROWS ? EmployeeUtil.getMockedEmployeeData() : generate(count);
+    }
+
+    public static List<Employee> generate(int count) {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Employee> employees = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Employee employee = new Employee();
+            employee.setId((long) i + 1);
+            employee.setEmployeeName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)] + " " + Integer.toString(i, 36));
+            employee.setEmployeeSalary(random.nextInt(20_000, 800_000));
+            employee.setEmployeeAge(random.nextInt(19, 67));
+            employee.setProfileImage("");
+            employees.add(employee);
+        }
+        return employees;
+    }
+}
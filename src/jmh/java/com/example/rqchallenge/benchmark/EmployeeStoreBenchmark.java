@@ -0,0 +1,63 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.store.ColumnarEmployeeStore;
+import com.example.rqchallenge.store.EmployeeStore;
+import com.example.rqchallenge.store.ListEmployeeStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the ListEmployeeStore with the ColumnarEmployeeStore on the operations the
+ * endpoints run: an id lookup, a scan of one column and serializing every row.
+ *
+ * The retained heap of both stores is measured by EmployeeStoreFootprint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EmployeeStoreBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int employeeCount;
+
+    @Param({"list", "columnar"})
+    public String storeType;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SplittableRandom random = new SplittableRandom(7);
+    private EmployeeStore store;
+
+    @Setup
+    public void setUp() {
+        store = "list".equals(storeType)
+                ? new ListEmployeeStore(EmployeeFixtures.generate(employeeCount))
+                : ColumnarEmployeeStore.of(EmployeeFixtures.generate(employeeCount));
+        store.findRow(1);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Object findById() {
+        return store.get(store.findRow(random.nextInt(1, employeeCount + 1)));
+    }
+
+    @Benchmark
+    public long sumSalaries() {
+        long sum = 0;
+        for (int row = 0; row < store.size(); row++) {
+            sum += store.getSalary(row);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void serializeAll() throws IOException {
+        mapper.writeValue(OutputStream.nullOutputStream(), store.asList());
+    }
+}
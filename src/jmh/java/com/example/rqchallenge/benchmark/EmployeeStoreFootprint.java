@@ -0,0 +1,75 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.cache.EmployeeSnapshot;
+import com.example.rqchallenge.store.ColumnarEmployeeStore;
+import com.example.rqchallenge.store.EmployeeStore;
+import com.example.rqchallenge.store.ListEmployeeStore;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+
+/**
+ * The EmployeeStoreFootprint prints the heap retained by each EmployeeStore, measured as the
+ * used heap after a full GC with and without the store. Retained sizes are what a snapshot
+ * costs for as long as it is served, allocations while building are reported by the gc
+ * profiler of the benchmarks. The "+ indexes" columns hold a snapshot over the store with
+ * every index it serves built.
+ *
+ * Run with the jmh classpath: java -cp build/libs/rqChallenge-0.0.1-SNAPSHOT-jmh.jar
+ * com.example.rqchallenge.benchmark.EmployeeStoreFootprint 24 10000 1000000
+ */
+public class EmployeeStoreFootprint {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    public static void main(String[] args) {
+        retained(() -> ColumnarEmployeeStore.of(EmployeeFixtures.generate(1_000)));
+
+        System.out.printf("%10s %22s %22s %22s %22s %22s%n", "rows", "List<Employee>", "List + id HashMap", "columnar",
+                "list + indexes", "columnar + indexes");
+        for (String arg : args) {
+            int count = Integer.parseInt(arg);
+            long list = retained(() -> EmployeeFixtures.generate(count));
+            long listWithIds = retained(() -> {
+                EmployeeStore store = new ListEmployeeStore(EmployeeFixtures.generate(count));
+                store.findRow(1);
+                return store;
+            });
+            long columnar = retained(() -> ColumnarEmployeeStore.of(EmployeeFixtures.generate(count)));
+            long listWithIndexes = retained(() -> indexed(new ListEmployeeStore(EmployeeFixtures.generate(count))));
+            long columnarWithIndexes = retained(() -> indexed(ColumnarEmployeeStore.of(EmployeeFixtures.generate(count))));
+            System.out.printf("%10d %15d bytes %15d bytes %15d bytes %15d bytes %15d bytes%n",
+                    count, list, listWithIds, columnar, listWithIndexes, columnarWithIndexes);
+        }
+    }
+
+    private static EmployeeSnapshot indexed(EmployeeStore store) {
+        EmployeeSnapshot snapshot = new EmployeeSnapshot(0, store, System.nanoTime());
+        snapshot.getSalaryIndex();
+        snapshot.getNameSearchIndex();
+        snapshot.getRangeIndex();
+        snapshot.getStats();
+        return snapshot;
+    }
+
+    private static long retained(Factory factory) {
+        long before = usedAfterGc();
+        Object retained = factory.create();
+        long after = usedAfterGc();
+        Reference.reachabilityFence(retained);
+        return after - before;
+    }
+
+    private static long usedAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    @FunctionalInterface
+    private interface Factory {
+        Object create();
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.util.EmployeeJson;
+import com.example.rqchallenge.util.EmployeeUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Benchmarks the parsing helpers of EmployeeUtil: getEmployeeListFromString over a JSON
+ * array of employeeCount rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+public class EmployeeUtilBenchmark {
+
+    @Param({"24", "10000", "100000", "1000000"})
+    public int employeeCount;
+
+    private String employeeArray;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Employee> employees = EmployeeFixtures.employees(employeeCount);
+        employeeArray = EmployeeJson.mapper().writeValueAsString(employees);
+    }
+
+    @Benchmark
+    public List<Employee> getEmployeeListFromString() throws IOException {
+        return EmployeeUtil.getEmployeeListFromString(employeeArray);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.entity.EmployeeField;
+import com.example.rqchallenge.store.ColumnarEmployeeStore;
+import com.example.rqchallenge.util.EmployeeJson;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The ExportFootprint prints the heap held by an export of the whole roster on top of the
+ * snapshot it reads: the NDJSON export to a discarding stream, sampled as the used heap after
+ * a full GC once 1, 2, 4, 8... MB are written, next to the JSON array GET / builds before sending a byte.
+ *
+ * Run with the jmh classpath and a heap large enough for the largest roster:
+ * java -Xmx3g -cp build/libs/rqChallenge-0.0.1-SNAPSHOT-jmh.jar
+ * com.example.rqchallenge.benchmark.ExportFootprint 10000 100000 1000000 5000000
+ */
+public class ExportFootprint {
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+    private static final long FIRST_SAMPLE_BYTES = 1 << 20;
+
+    public static void main(String[] args) throws IOException {
+        Set<EmployeeField> fields = EmployeeField.parse(null);
+        EmployeeJson.writeNdjson(ColumnarEmployeeStore.of(EmployeeFixtures.generate(1_000)).asList(), fields, OutputStream.nullOutputStream());
+
+        System.out.printf("%10s %16s %22s %22s%n", "rows", "exported", "NDJSON export peak", "JSON array");
+        for (String arg : args) {
+            int count = Integer.parseInt(arg);
+            List<Employee> employees = ColumnarEmployeeStore.of(EmployeeFixtures.generate(count)).asList();
+
+            long before = usedAfterGc();
+            SamplingOutputStream outputStream = new SamplingOutputStream(before);
+            EmployeeJson.writeNdjson(employees, fields, outputStream);
+
+            byte[] array = EmployeeJson.mapper().writeValueAsBytes(employees);
+            long arrayRetained = usedAfterGc() - before;
+            Reference.reachabilityFence(array);
+
+            System.out.printf("%10d %10d bytes %16d bytes %16d bytes%n",
+                    count, outputStream.written, outputStream.peak, arrayRetained);
+        }
+    }
+
+    private static long usedAfterGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Discards what is written, sampling the heap held on top of the baseline as it goes.
+     */
+    private static class SamplingOutputStream extends OutputStream {
+
+        private final long baseline;
+        private long written;
+        private long nextSample = FIRST_SAMPLE_BYTES;
+        private long peak;
+
+        SamplingOutputStream(long baseline) {
+            this.baseline = baseline;
+        }
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            written += len;
+            if (written >= nextSample) {
+                nextSample *= 2;
+                peak = Math.max(peak, usedAfterGc() - baseline);
+            }
+        }
+    }
+}
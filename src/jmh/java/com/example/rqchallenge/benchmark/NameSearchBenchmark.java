@@ -0,0 +1,58 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.index.NameSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the regex scan getEmployeesByNameSearch used to run with the NameSearchIndex.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class NameSearchBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int employeeCount;
+
+    @Param({"paul", "nixon 1a", "ox"})
+    public String searchString;
+
+    private List<Employee> employees;
+    private NameSearchIndex index;
+
+    @Setup
+    public void setUp() {
+        employees = EmployeeFixtures.generate(employeeCount);
+        index = NameSearchIndex.build(employees);
+    }
+
+    @Benchmark
+    public List<Employee> regexScan() {
+        return employees.stream()
+                .filter(employee -> employee.getEmployeeName()
+                        .matches("(?i).*" + searchString + ".*"))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Employee> trigramIndex() {
+        return index.search(searchString, 0, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public List<Employee> autocomplete() {
+        return index.autocomplete(searchString, 10);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public NameSearchIndex build() {
+        return NameSearchIndex.build(employees);
+    }
+}
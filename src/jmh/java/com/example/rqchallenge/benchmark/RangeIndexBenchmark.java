@@ -0,0 +1,71 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.index.RangeIndex;
+import com.example.rqchallenge.index.RangeMatches;
+import com.example.rqchallenge.index.SalaryIndex;
+import com.example.rqchallenge.store.ColumnarEmployeeStore;
+import com.example.rqchallenge.store.EmployeeStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Benchmarks /filter queries returning a page of 100 employees and the total, against the
+ * scan of the whole list a client had to do with GET /. The generated salaries are uniform
+ * between 20 000 and 800 000 and the ages between 19 and 66.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RangeIndexBenchmark {
+
+    private static final int PAGE = 100;
+
+    @Param({"10000", "1000000"})
+    public int employeeCount;
+
+    private List<Employee> employees;
+    private RangeIndex rangeIndex;
+
+    @Setup
+    public void setUp() {
+        employees = EmployeeFixtures.employees(employeeCount);
+        EmployeeStore store = ColumnarEmployeeStore.of(employees);
+        rangeIndex = RangeIndex.build(store, SalaryIndex.build(store));
+    }
+
+    /**
+     * About 1% of the rows.
+     */
+    @Benchmark
+    public RangeMatches narrowSalaryBand() {
+        return rangeIndex.filter(400_000, 408_000, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, PAGE);
+    }
+
+    /**
+     * Salary between 100 000 and 300 000 and age under 30, about 6% of the rows.
+     */
+    @Benchmark
+    public RangeMatches salaryAndAge() {
+        return rangeIndex.filter(100_000, 300_000, Integer.MIN_VALUE, 29, 0, PAGE);
+    }
+
+    /**
+     * Both ranges hold half of the rows, about 25% match.
+     */
+    @Benchmark
+    public RangeMatches wideRanges() {
+        return rangeIndex.filter(410_000, Integer.MAX_VALUE, 43, Integer.MAX_VALUE, 0, PAGE);
+    }
+
+    @Benchmark
+    public List<Employee> salaryAndAgeScan() {
+        return employees.stream()
+                .filter(employee -> employee.getEmployeeSalary() >= 100_000 && employee.getEmployeeSalary() <= 300_000
+                        && employee.getEmployeeAge() <= 29)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.rqchallenge.benchmark;
+
+import com.example.rqchallenge.cache.EmployeeSnapshot;
+import com.example.rqchallenge.cache.EmployeeSnapshotCache;
+import com.example.rqchallenge.cache.EmployeeSnapshotFile;
+import com.example.rqchallenge.client.EmployeeClient;
+import com.example.rqchallenge.entity.Employee;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Benchmarks readers of the EmployeeSnapshotCache at 1, 8 and 32 threads while the
+ * snapshot keeps being replaced: the ttl is zero, so every read is a stale hit that
+ * keeps a refresh running, and one writer thread per group applies creates and deletes.
+ *
+ * Reader throughput should grow with the reader threads (up to the cores available)
+ * since readers only read the current snapshot reference.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+public class SnapshotReadBenchmark {
+
+    @Param({"100000"})
+    public int employeeCount;
+
+    private EmployeeSnapshotCache cache;
+    private final AtomicLong createdIds = new AtomicLong();
+
+    @Setup
+    public void setUp() throws IOException {
+        List<Employee> employees = EmployeeFixtures.employees(employeeCount);
+        createdIds.set(employeeCount + 1L);
+        cache = new EmployeeSnapshotCache(new FixedEmployeeClient(employees), new EmployeeSnapshotFile(""),
+                Duration.ZERO, Duration.ofHours(1), "columnar", 1024);
+        cache.getSnapshot();
+    }
+
+    @TearDown
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    @Benchmark
+    @Group("readers1")
+    @GroupThreads(1)
+    public List<Employee> read1() throws IOException {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readers1")
+    @GroupThreads(1)
+    public long write1() {
+        return write();
+    }
+
+    @Benchmark
+    @Group("readers8")
+    @GroupThreads(8)
+    public List<Employee> read8() throws IOException {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readers8")
+    @GroupThreads(1)
+    public long write8() {
+        return write();
+    }
+
+    @Benchmark
+    @Group("readers32")
+    @GroupThreads(32)
+    public List<Employee> read32() throws IOException {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readers32")
+    @GroupThreads(1)
+    public long write32() {
+        return write();
+    }
+
+    private List<Employee> read() throws IOException {
+        EmployeeSnapshot snapshot = cache.getSnapshot();
+        snapshot.findById(ThreadLocalRandom.current().nextLong(1, employeeCount + 1L));
+        return snapshot.getSalaryIndex().getTopEarners(10);
+    }
+
+    private long write() {
+        long id = createdIds.getAndIncrement();
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setEmployeeName("Created Employee " + id);
+        employee.setEmployeeSalary((int) (id % 800_000));
+        cache.applyCreated(employee);
+        cache.applyDeleted(id);
+        return id;
+    }
+
+    /**
+     * Answers every upstream read with the same list, without any I/O.
+     */
+    private static class FixedEmployeeClient implements EmployeeClient {
+
+        private final List<Employee> employees;
+
+        FixedEmployeeClient(List<Employee> employees) {
+            this.employees = employees;
+        }
+
+        @Override
+        public CompletableFuture<List<Employee>> getAllEmployees() {
+            return CompletableFuture.completedFuture(employees);
+        }
+
+        @Override
+        public CompletableFuture<Employee> getEmployeeById(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Employee> createEmployee(String name, int salary, int age) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<String> deleteEmployee(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<String> deleteEmployee(Employee employee) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.rqchallenge.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Point in time view of the counters kept by the EmployeeByIdCache.
+ */
+@Getter
+@AllArgsConstructor
+public class ByIdCacheStats {
+    private long hits;
+    private long negativeHits;
+    private long misses;
+    private long evictions;
+    private int entries;
+    private long estimatedBytes;
+    private long maxBytes;
+}
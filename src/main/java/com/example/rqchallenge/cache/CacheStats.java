@@ -0,0 +1,25 @@
+package com.example.rqchallenge.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Point in time view of the counters kept by the EmployeeSnapshotCache.
+ */
+@Getter
+@AllArgsConstructor
+public class CacheStats {
+    private long hits;
+    private long staleHits;
+    private long misses;
+    private long refreshes;
+    private long refreshFailures;
+    private double averageRefreshMillis;
+    private double maxRefreshMillis;
+    private long deltaRefreshes;
+    private long insertedEmployees;
+    private long updatedEmployees;
+    private long deletedEmployees;
+    private long version;
+    private long ageMillis;
+}
@@ -0,0 +1,298 @@
+package com.example.rqchallenge.cache;
+
+import com.example.rqchallenge.client.EmployeeClient;
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.exceptions.ResourceNotFoundException;
+import com.example.rqchallenge.util.EmployeeUtil;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The EmployeeByIdCache answers getEmployeeById from memory for ids looked up recently,
+ * including ids the upstream reported as missing, so that repeated lookups of the same
+ * id, found or not, cost one upstream round trip per ttl.
+ *
+ * Found employees are kept for ttl, missing ids for negative-ttl. Entries are bounded by an
+ * estimate of the heap they hold rather than by their number, and evicted as a segmented
+ * LRU: new entries start in the probation segment, and move to the protected segment when
+ * read again. Protected entries past PROTECTED_SHARE of the budget go back to probation,
+ * and evictions take the least recently used probation entry first, so a scan of ids read
+ * once does not push out the ids read over and over.
+ *
+ * Every employee list the EmployeeSnapshotCache loads whole prewarms the cache, up to the budget,
+ * and the employees inserted, updated or deleted in a list it applies as a delta are cached.
+ * Employees created and deleted through this service are applied as they succeed. Employees
+ * and misses served from the mocked data while the upstream is down are not cached.
+ */
+@Component
+public class EmployeeByIdCache {
+
+    private static final double PROTECTED_SHARE = 0.8;
+
+    /*
+       Rough heap held per entry: the map node, the Long key, the entry and, for found ids,
+       the Employee; names and image urls are added at a byte per character.
+    */
+    private static final int NEGATIVE_ENTRY_BYTES = 120;
+    private static final int EMPLOYEE_ENTRY_BYTES = 200;
+
+    private final EmployeeClient employeeClient;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final long maxBytes;
+    private final long maxProtectedBytes;
+
+    private final LinkedHashMap<Long, Cached> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<Long, Cached> protectedEntries = new LinkedHashMap<>();
+    private long probationBytes;
+    private long protectedBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public EmployeeByIdCache(EmployeeClient employeeClient,
+                             EmployeeSnapshotCache employeeSnapshotCache,
+                             @Value("${employee.by-id-cache.ttl:60s}") Duration ttl,
+                             @Value("${employee.by-id-cache.negative-ttl:10s}") Duration negativeTtl,
+                             @Value("${employee.by-id-cache.max-size:8MB}") DataSize maxSize) {
+        this.employeeClient = employeeClient;
+        this.ttlNanos = ttl.toNanos();
+        this.negativeTtlNanos = negativeTtl.toNanos();
+        this.maxBytes = maxSize.toBytes();
+        this.maxProtectedBytes = (long) (maxBytes * PROTECTED_SHARE);
+        employeeSnapshotCache.addLoadListener(snapshot -> prewarm(snapshot.getEmployees(), snapshot.getLoadedAtNanos()));
+        employeeSnapshotCache.addDeltaListener(this::applyDelta);
+    }
+
+    /**
+     * This method returns the employee with the given id, from the cache when it holds a live
+     * entry for it, otherwise from the upstream. A missing employee fails the future with a
+     * ResourceNotFoundException either way.
+     */
+    public CompletableFuture<Employee> getEmployee(String id) {
+        long key;
+        try {
+            key = Long.parseLong(id);
+        } catch (NumberFormatException e) {
+            return employeeClient.getEmployeeById(id);
+        }
+
+        Cached entry = lookup(key, System.nanoTime());
+        if (entry != null) {
+            if (entry.employee != null) {
+                hits.increment();
+                return CompletableFuture.completedFuture(entry.employee);
+            }
+            negativeHits.increment();
+            return CompletableFuture.failedFuture(
+                    new ResourceNotFoundException(String.format("No entity found with id : %s", id)));
+        }
+
+        misses.increment();
+        long requestedAt = System.nanoTime();
+        return employeeClient.getEmployeeById(id)
+                .whenComplete((employee, error) -> {
+                    if (error == null) {
+                        if (employee != null && !EmployeeUtil.isMockedEmployee(employee)) {
+                            put(key, employee, requestedAt);
+                        }
+                        return;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause()
+                            : error;
+                    if (cause instanceof ResourceNotFoundException && ((ResourceNotFoundException) cause).isConfirmed()) {
+                        put(key, null, requestedAt);
+                    }
+                });
+    }
+
+    /**
+     * This method caches an employee created in the upstream.
+     */
+    public void applyCreated(Employee employee) {
+        if (employee.getId() != null) {
+            put(employee.getId(), employee, System.nanoTime());
+        }
+    }
+
+    /**
+     * This method caches the id of an employee deleted in the upstream as missing.
+     */
+    public void applyDeleted(long id) {
+        put(id, null, System.nanoTime());
+    }
+
+    /**
+     * This method caches the employees a refresh found inserted or updated, and the ids it
+     * found deleted as missing, dated when the list was fetched. Entries cached since then
+     * are kept.
+     */
+    public void applyDelta(EmployeeDelta delta) {
+        long loadedAtNanos = delta.getLoadedAtNanos();
+        for (Employee employee : delta.getInserted()) {
+            put(employee.getId(), employee, loadedAtNanos);
+        }
+        for (Employee employee : delta.getUpdated()) {
+            put(employee.getId(), employee, loadedAtNanos);
+        }
+        for (Long id : delta.getDeleted()) {
+            put(id, null, loadedAtNanos);
+        }
+    }
+
+    /**
+     * This method caches the employees of a list fetched from the upstream, in list order,
+     * until the budget is used, without evicting anything.
+     *
+     * @param employees     employees fetched
+     * @param loadedAtNanos System.nanoTime() when they were fetched
+     */
+    public void prewarm(List<Employee> employees, long loadedAtNanos) {
+        for (Employee employee : employees) {
+            Long id = employee.getId();
+            if (id == null) {
+                continue;
+            }
+            synchronized (this) {
+                if (probationBytes + protectedBytes + bytesOf(employee) > maxBytes
+                        && !probation.containsKey(id) && !protectedEntries.containsKey(id)) {
+                    return;
+                }
+            }
+            put(id, employee, loadedAtNanos);
+        }
+    }
+
+    public synchronized ByIdCacheStats getStats() {
+        return new ByIdCacheStats(hits.sum(), negativeHits.sum(), misses.sum(), evictions.sum(),
+                probation.size() + protectedEntries.size(), probationBytes + protectedBytes, maxBytes);
+    }
+
+    /*
+       A live probation entry read again is promoted, a live protected entry moves to the
+       most recently used end. Expired entries are dropped as they are found.
+    */
+    private synchronized Cached lookup(long id, long nowNanos) {
+        Cached entry = protectedEntries.remove(id);
+        if (entry != null) {
+            if (nowNanos - entry.expiresAtNanos >= 0) {
+                protectedBytes -= entry.bytes;
+                return null;
+            }
+            protectedEntries.put(id, entry);
+            return entry;
+        }
+
+        entry = probation.remove(id);
+        if (entry == null) {
+            return null;
+        }
+        probationBytes -= entry.bytes;
+        if (nowNanos - entry.expiresAtNanos >= 0) {
+            return null;
+        }
+        protectedEntries.put(id, entry);
+        protectedBytes += entry.bytes;
+        demoteProtected();
+        return entry;
+    }
+
+    /*
+       An entry is only replaced by a newer one: an upstream answer read before a delete
+       applied meanwhile, or a list fetched before it, does not bring the employee back.
+    */
+    private synchronized void put(long id, Employee employee, long cachedAtNanos) {
+        Cached entry = new Cached(employee, cachedAtNanos,
+                cachedAtNanos + (employee == null ? negativeTtlNanos : ttlNanos), bytesOf(employee));
+        Cached current = protectedEntries.containsKey(id) ? protectedEntries.get(id) : probation.get(id);
+        if (entry.bytes > maxBytes || (current != null && current.cachedAtNanos - cachedAtNanos > 0)) {
+            return;
+        }
+
+        Cached previous = protectedEntries.remove(id);
+        if (previous != null) {
+            protectedBytes -= previous.bytes;
+            protectedEntries.put(id, entry);
+            protectedBytes += entry.bytes;
+            demoteProtected();
+        } else {
+            previous = probation.remove(id);
+            if (previous != null) {
+                probationBytes -= previous.bytes;
+            }
+            probation.put(id, entry);
+            probationBytes += entry.bytes;
+        }
+        evict();
+    }
+
+    private void demoteProtected() {
+        Iterator<Map.Entry<Long, Cached>> iterator = protectedEntries.entrySet().iterator();
+        while (protectedBytes > maxProtectedBytes && iterator.hasNext()) {
+            Map.Entry<Long, Cached> eldest = iterator.next();
+            iterator.remove();
+            protectedBytes -= eldest.getValue().bytes;
+            probation.put(eldest.getKey(), eldest.getValue());
+            probationBytes += eldest.getValue().bytes;
+        }
+    }
+
+    private void evict() {
+        evictFrom(probation.entrySet().iterator(), true);
+        evictFrom(protectedEntries.entrySet().iterator(), false);
+    }
+
+    private void evictFrom(Iterator<Map.Entry<Long, Cached>> iterator, boolean fromProbation) {
+        while (probationBytes + protectedBytes > maxBytes && iterator.hasNext()) {
+            Cached eldest = iterator.next().getValue();
+            iterator.remove();
+            if (fromProbation) {
+                probationBytes -= eldest.bytes;
+            } else {
+                protectedBytes -= eldest.bytes;
+            }
+            evictions.increment();
+        }
+    }
+
+    private static int bytesOf(Employee employee) {
+        if (employee == null) {
+            return NEGATIVE_ENTRY_BYTES;
+        }
+        return EMPLOYEE_ENTRY_BYTES + length(employee.getEmployeeName()) + length(employee.getProfileImage());
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * A cached employee, or a missing id when employee is null.
+     */
+    private static class Cached {
+        private final Employee employee;
+        private final long cachedAtNanos;
+        private final long expiresAtNanos;
+        private final int bytes;
+
+        Cached(Employee employee, long cachedAtNanos, long expiresAtNanos, int bytes) {
+            this.employee = employee;
+            this.cachedAtNanos = cachedAtNanos;
+            this.expiresAtNanos = expiresAtNanos;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.rqchallenge.cache;
+
+import com.example.rqchallenge.entity.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * The employees inserted, updated and deleted between a snapshot and an employee list
+ * fetched from the upstream afterwards, as found by EmployeeSnapshot.diff.
+ */
+@Getter
+@AllArgsConstructor
+public class EmployeeDelta {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private final List<Employee> inserted;
+    private final List<Employee> updated;
+    private final List<Long> deleted;
+    /**
+     * System.nanoTime() when the list was fetched.
+     */
+    private final long loadedAtNanos;
+
+    public int size() {
+        return inserted.size() + updated.size() + deleted.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * This method returns a 64-bit FNV-1a hash of the fields of an employee other than its id,
+     * equal for employees holding the same name, salary, age and profile image.
+     */
+    public static long fieldHash(Employee employee) {
+        long hash = FNV_OFFSET;
+        hash = mix(hash, employee.getEmployeeName());
+        hash = mix(hash, employee.getEmployeeSalary());
+        hash = mix(hash, employee.getEmployeeAge());
+        return mix(hash, employee.getProfileImage());
+    }
+
+    /*
+       A null string and an empty one hash differently: the length is mixed in first, -1 for null.
+    */
+    private static long mix(long hash, String value) {
+        if (value == null) {
+            return mix(hash, -1);
+        }
+        hash = mix(hash, value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            hash = (hash ^ (c & 0xFF)) * FNV_PRIME;
+            hash = (hash ^ (c >>> 8)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * FNV_PRIME;
+        }
+        return hash;
+    }
+}
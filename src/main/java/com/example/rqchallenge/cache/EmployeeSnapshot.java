@@ -0,0 +1,407 @@
+package com.example.rqchallenge.cache;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.index.NameSearchIndex;
+import com.example.rqchallenge.index.RangeIndex;
+import com.example.rqchallenge.index.SalaryIndex;
+import com.example.rqchallenge.stats.EmployeeStats;
+import com.example.rqchallenge.store.EmployeeStore;
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The EmployeeSnapshot is an immutable copy of the employee list as it was
+ * fetched from the upstream, tagged with a version and the time it was loaded.
+ *
+ * Indexes and stats derived from the store are built lazily, at most once per snapshot.
+ *
+ * Employees created or deleted through this service since the fetch are applied with
+ * withCreated and withDeleted, which return a new snapshot sharing the store and the
+ * built indexes, and only copying the changes made so far, so each costs O(k) for k changes,
+ * k being bounded by employee.cache.max-changes. A list fetched again is compared to the
+ * snapshot with diff, and applied with withDelta in a single copy for the whole delta.
+ */
+@Getter
+public class EmployeeSnapshot {
+
+    private static final int[] NO_ROWS = new int[0];
+
+    private final long version;
+    private final EmployeeStore store;
+    private final long loadedAtNanos;
+
+    @Getter(AccessLevel.NONE)
+    private final List<Employee> added;
+    @Getter(AccessLevel.NONE)
+    private final int[] removedRows;
+
+    @Getter(AccessLevel.NONE)
+    private final Lazy<SalaryIndex> salaryIndex;
+    @Getter(AccessLevel.NONE)
+    private final Lazy<NameSearchIndex> nameSearchIndex;
+    @Getter(AccessLevel.NONE)
+    private final Lazy<RangeIndex> rangeIndex;
+    @Getter(AccessLevel.NONE)
+    private final Lazy<EmployeeStats> stats;
+    @Getter(AccessLevel.NONE)
+    private final Lazy<long[]> rowHashes;
+
+    public EmployeeSnapshot(long version, EmployeeStore store, long loadedAtNanos) {
+        this.version = version;
+        this.store = store;
+        this.loadedAtNanos = loadedAtNanos;
+        this.added = Collections.emptyList();
+        this.removedRows = NO_ROWS;
+        this.salaryIndex = new Lazy<>(() -> SalaryIndex.build(store));
+        this.nameSearchIndex = new Lazy<>(() -> NameSearchIndex.build(store));
+        this.rangeIndex = new Lazy<>(() -> RangeIndex.build(store, getSalaryIndex()));
+        this.stats = new Lazy<>(() -> EmployeeStats.build(store));
+        this.rowHashes = new Lazy<>(() -> hashRows(store));
+    }
+
+    private EmployeeSnapshot(long version, EmployeeSnapshot parent, long loadedAtNanos, List<Employee> added, int[] removedRows,
+                             SalaryIndex salaryIndex, NameSearchIndex nameSearchIndex, RangeIndex rangeIndex,
+                             EmployeeStats stats) {
+        this.version = version;
+        this.store = parent.store;
+        this.loadedAtNanos = loadedAtNanos;
+        this.added = added;
+        this.removedRows = removedRows;
+        this.salaryIndex = Lazy.of(salaryIndex);
+        this.nameSearchIndex = Lazy.of(nameSearchIndex);
+        this.rangeIndex = Lazy.of(rangeIndex);
+        this.stats = Lazy.of(stats);
+        this.rowHashes = parent.rowHashes;
+    }
+
+    /**
+     * This method returns the employees of the store, without the deleted ones, followed by the created ones.
+     */
+    public List<Employee> getEmployees() {
+        if (getChangeCount() == 0) {
+            return store.asList();
+        }
+        return new AbstractList<>() {
+            private final int baseSize = store.size() - removedRows.length;
+
+            @Override
+            public Employee get(int index) {
+                if (index < 0 || index >= size()) {
+                    throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+                }
+                return index < baseSize ? store.get(baseRow(index)) : added.get(index - baseSize);
+            }
+
+            @Override
+            public int size() {
+                return baseSize + added.size();
+            }
+        };
+    }
+
+    /**
+     * This method returns the employee with the given id, or null when the snapshot has none.
+     */
+    public Employee findById(long id) {
+        for (Employee employee : added) {
+            if (employee.getId() == id) {
+                return employee;
+            }
+        }
+        int row = store.findRow(id);
+        return row < 0 || Arrays.binarySearch(removedRows, row) >= 0 ? null : store.get(row);
+    }
+
+    /**
+     * This method returns the position of the employee with the given id in getEmployees, or -1 when the snapshot has none.
+     */
+    public int positionOf(long id) {
+        for (int i = 0; i < added.size(); i++) {
+            if (added.get(i).getId() == id) {
+                return store.size() - removedRows.length + i;
+            }
+        }
+        int row = store.findRow(id);
+        if (row < 0) {
+            return -1;
+        }
+        int position = Arrays.binarySearch(removedRows, row);
+        return position >= 0 ? -1 : row + position + 1;
+    }
+
+    /**
+     * This method returns a snapshot that also holds the given employee, or this
+     * snapshot when it already holds an employee with the same id.
+     *
+     * @param employee   created employee, with its id
+     * @param newVersion version of the returned snapshot
+     */
+    public EmployeeSnapshot withCreated(Employee employee, long newVersion) {
+        if (findById(employee.getId()) != null) {
+            return this;
+        }
+        List<Employee> nextAdded = new ArrayList<>(added.size() + 1);
+        nextAdded.addAll(added);
+        nextAdded.add(employee);
+        return new EmployeeSnapshot(newVersion, this, loadedAtNanos, Collections.unmodifiableList(nextAdded), removedRows,
+                getSalaryIndex().insert(employee), getNameSearchIndex().insert(employee), getRangeIndex().insert(employee),
+                getStats().withAdded(employee.getEmployeeSalary(), employee.getEmployeeAge()));
+    }
+
+    /**
+     * This method returns a snapshot without the employee with the given id, or this
+     * snapshot when it has no such employee.
+     *
+     * @param id         id of the deleted employee
+     * @param newVersion version of the returned snapshot
+     */
+    public EmployeeSnapshot withDeleted(long id, long newVersion) {
+        for (int i = 0; i < added.size(); i++) {
+            Employee employee = added.get(i);
+            if (employee.getId() == id) {
+                List<Employee> nextAdded = new ArrayList<>(added);
+                nextAdded.remove(i);
+                return new EmployeeSnapshot(newVersion, this, loadedAtNanos, Collections.unmodifiableList(nextAdded), removedRows,
+                        getSalaryIndex().removeInserted(employee), getNameSearchIndex().removeInserted(employee),
+                        getRangeIndex().removeInserted(employee),
+                        getStats().withRemoved(employee.getEmployeeSalary(), employee.getEmployeeAge()));
+            }
+        }
+
+        int row = store.findRow(id);
+        int position = row < 0 ? 0 : Arrays.binarySearch(removedRows, row);
+        if (row < 0 || position >= 0) {
+            return this;
+        }
+        int at = -position - 1;
+        int[] nextRemoved = new int[removedRows.length + 1];
+        System.arraycopy(removedRows, 0, nextRemoved, 0, at);
+        nextRemoved[at] = row;
+        System.arraycopy(removedRows, at, nextRemoved, at + 1, removedRows.length - at);
+        return new EmployeeSnapshot(newVersion, this, loadedAtNanos, added, nextRemoved,
+                getSalaryIndex().removeRow(row), getNameSearchIndex().removeRow(row), getRangeIndex().removeRow(row),
+                getStats().withRemoved(store.getSalary(row), store.getAge(row)));
+    }
+
+    /**
+     * This method returns the same snapshot under another version.
+     */
+    public EmployeeSnapshot withVersion(long newVersion) {
+        return new EmployeeSnapshot(newVersion, this, loadedAtNanos, added, removedRows, getSalaryIndex(), getNameSearchIndex(),
+                getRangeIndex(), getStats());
+    }
+
+    /**
+     * This method returns the same snapshot, under the same version, dated as loaded at the given time.
+     * It is used when a list fetched again holds no change.
+     */
+    public EmployeeSnapshot withLoadedAt(long newLoadedAtNanos) {
+        return new EmployeeSnapshot(version, this, newLoadedAtNanos, added, removedRows, getSalaryIndex(), getNameSearchIndex(),
+                getRangeIndex(), getStats());
+    }
+
+    /**
+     * This method compares the snapshot with a list fetched from the upstream afterwards, by id and by
+     * EmployeeDelta.fieldHash. It returns null when the list can not be diffed (an employee without an id,
+     * an id listed twice) or when it holds more than maxChanges changes.
+     *
+     * @param fetched       employees fetched
+     * @param skippedIds    ids left as they are in the snapshot, whatever the list holds
+     * @param maxChanges    largest delta returned
+     * @param loadedAtNanos System.nanoTime() when the list was fetched
+     */
+    public EmployeeDelta diff(List<Employee> fetched, Set<Long> skippedIds, int maxChanges, long loadedAtNanos) {
+        if (maxChanges < 0) {
+            return null;
+        }
+        long[] hashes = rowHashes.get();
+        BitSet seenRows = new BitSet(store.size());
+        for (int row : removedRows) {
+            seenRows.set(row);
+        }
+        Map<Long, Employee> addedById = new HashMap<>();
+        for (Employee employee : added) {
+            addedById.put(employee.getId(), employee);
+        }
+        Set<Long> seenIds = new HashSet<>();
+
+        List<Employee> inserted = new ArrayList<>();
+        List<Employee> updated = new ArrayList<>();
+        for (Employee employee : fetched) {
+            Long id = employee.getId();
+            if (id == null) {
+                return null;
+            }
+            Employee addedEmployee = addedById.get(id);
+            int row = addedEmployee == null ? store.findRow(id) : -1;
+            boolean live = row >= 0 && Arrays.binarySearch(removedRows, row) < 0;
+
+            if (live) {
+                if (seenRows.get(row)) {
+                    return null;
+                }
+                seenRows.set(row);
+            } else if (!seenIds.add(id)) {
+                return null;
+            }
+            if (skippedIds.contains(id)) {
+                continue;
+            }
+
+            if (addedEmployee != null) {
+                if (EmployeeDelta.fieldHash(addedEmployee) != EmployeeDelta.fieldHash(employee)) {
+                    updated.add(employee);
+                }
+            } else if (!live) {
+                inserted.add(employee);
+            } else if (hashes[row] != EmployeeDelta.fieldHash(employee)) {
+                updated.add(employee);
+            }
+            if (inserted.size() + updated.size() > maxChanges) {
+                return null;
+            }
+        }
+
+        List<Long> deleted = new ArrayList<>();
+        for (int row = seenRows.nextClearBit(0); row < store.size(); row = seenRows.nextClearBit(row + 1)) {
+            Long id = store.get(row).getId();
+            if (id == null || store.findRow(id) != row) {
+                return null;
+            }
+            if (!skippedIds.contains(id)) {
+                deleted.add(id);
+            }
+        }
+        for (Employee employee : added) {
+            if (!seenIds.contains(employee.getId()) && !skippedIds.contains(employee.getId())) {
+                deleted.add(employee.getId());
+            }
+        }
+        if (inserted.size() + updated.size() + deleted.size() > maxChanges) {
+            return null;
+        }
+        return new EmployeeDelta(inserted, updated, deleted, loadedAtNanos);
+    }
+
+    /**
+     * This method returns a snapshot with the changes of the delta applied, dated as loaded when the
+     * delta was fetched. Updated employees are removed and added again, so they move to the end of the list.
+     *
+     * The changes are gathered in one pass and the changed arrays copied once, where applying them one
+     * by one with withDeleted and withCreated would copy them once per change.
+     *
+     * @param delta      changes found by diff on this snapshot
+     * @param newVersion version of the returned snapshot
+     */
+    public EmployeeSnapshot withDelta(EmployeeDelta delta, long newVersion) {
+        Map<Long, Employee> addedById = new HashMap<>();
+        for (Employee employee : added) {
+            addedById.put(employee.getId(), employee);
+        }
+        List<Long> removedIds = new ArrayList<>(delta.getDeleted());
+        List<Employee> created = new ArrayList<>(delta.getUpdated().size() + delta.getInserted().size());
+        for (Employee employee : delta.getUpdated()) {
+            removedIds.add(employee.getId());
+            created.add(employee);
+        }
+        created.addAll(delta.getInserted());
+
+        EmployeeStats nextStats = getStats();
+        Set<Employee> removedEmployees = Collections.newSetFromMap(new IdentityHashMap<>());
+        BitSet deletedRows = new BitSet();
+        for (Long id : removedIds) {
+            Employee employee = addedById.get(id);
+            int row = employee == null ? store.findRow(id) : -1;
+            if (employee != null && removedEmployees.add(employee)) {
+                nextStats = nextStats.withRemoved(employee.getEmployeeSalary(), employee.getEmployeeAge());
+            } else if (row >= 0 && Arrays.binarySearch(removedRows, row) < 0 && !deletedRows.get(row)) {
+                deletedRows.set(row);
+                nextStats = nextStats.withRemoved(store.getSalary(row), store.getAge(row));
+            }
+        }
+        for (Employee employee : created) {
+            nextStats = nextStats.withAdded(employee.getEmployeeSalary(), employee.getEmployeeAge());
+        }
+
+        List<Employee> nextAdded = new ArrayList<>(added.size() - removedEmployees.size() + created.size());
+        for (Employee employee : added) {
+            if (!removedEmployees.contains(employee)) {
+                nextAdded.add(employee);
+            }
+        }
+        nextAdded.addAll(created);
+        int[] rows = deletedRows.stream().toArray();
+        int[] nextRemoved = Arrays.copyOf(removedRows, removedRows.length + rows.length);
+        System.arraycopy(rows, 0, nextRemoved, removedRows.length, rows.length);
+        Arrays.sort(nextRemoved);
+
+        return new EmployeeSnapshot(newVersion, this, delta.getLoadedAtNanos(), Collections.unmodifiableList(nextAdded), nextRemoved,
+                getSalaryIndex().apply(rows, removedEmployees, created), getNameSearchIndex().apply(rows, removedEmployees, created),
+                getRangeIndex().apply(rows, removedEmployees, created), nextStats);
+    }
+
+    /**
+     * This method returns the number of employees created and deleted since the store was loaded.
+     */
+    public int getChangeCount() {
+        return added.size() + removedRows.length;
+    }
+
+    public SalaryIndex getSalaryIndex() {
+        return salaryIndex.get();
+    }
+
+    public NameSearchIndex getNameSearchIndex() {
+        return nameSearchIndex.get();
+    }
+
+    public RangeIndex getRangeIndex() {
+        return rangeIndex.get();
+    }
+
+    public EmployeeStats getStats() {
+        return stats.get();
+    }
+
+    public long ageNanos(long nowNanos) {
+        return nowNanos - loadedAtNanos;
+    }
+
+    private static long[] hashRows(EmployeeStore store) {
+        long[] hashes = new long[store.size()];
+        for (int row = 0; row < hashes.length; row++) {
+            hashes[row] = EmployeeDelta.fieldHash(store.get(row));
+        }
+        return hashes;
+    }
+
+    /*
+       Maps a position among the rows left to its row in the store: the first removed row
+       r[j] with r[j] - j > index is found by binary search, index + j is then the row.
+    */
+    private int baseRow(int index) {
+        int low = 0;
+        int high = removedRows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (removedRows[mid] - mid > index) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return index + low;
+    }
+}
@@ -0,0 +1,533 @@
+package com.example.rqchallenge.cache;
+
+import com.example.rqchallenge.client.EmployeeClient;
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.monitoring.SnapshotMetrics;
+import com.example.rqchallenge.store.ColumnarEmployeeStore;
+import com.example.rqchallenge.store.EmployeeStore;
+import com.example.rqchallenge.store.ListEmployeeStore;
+import com.example.rqchallenge.util.EmployeeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The EmployeeSnapshotCache keeps the last employee list fetched from the upstream
+ * in memory, so that read endpoints do not make an upstream round trip per request.
+ *
+ * A snapshot younger than the ttl is served as is. An older snapshot is still served
+ * while a background refresh runs (stale-while-revalidate), until it is older than
+ * ttl + max-stale, at which point callers wait for the refresh. Concurrent misses
+ * share a single in-flight upstream fetch.
+ *
+ * Employees are kept in a ColumnarEmployeeStore, or as the decoded list with
+ * employee.store=list.
+ *
+ * Every list fetched from the upstream is also written to the EmployeeSnapshotFile. On startup
+ * the file, if any, is mapped as a stale snapshot: it is served at once while the first refresh
+ * runs, and kept if that refresh fails. A refresh answered with an error, for which EmployeeUtil
+ * returns the mocked data, fails as well when there is a snapshot: the mocked data is only
+ * published while there is none.
+ *
+ * Snapshots are immutable and published through a single AtomicReference: readers take the
+ * current one without locking, and every writer (refresh, create, delete, rebuild) derives the
+ * next version from the one it read and swaps it in with a compare-and-set, starting over from
+ * the newer one when another writer got there first.
+ *
+ * Employees created or deleted through this service are applied to the current snapshot as they
+ * succeed, instead of invalidating it. Changes applied while a refresh is running are replayed
+ * on the list it fetched, which may have been read before them. Once more than max-changes
+ * changes are held, the snapshot is rebuilt with them in the background.
+ *
+ * A refreshed list is first diffed against the current snapshot. When it holds no more changes
+ * than the snapshot has room for (max-changes), only the inserted, updated and deleted employees
+ * are applied to it, and passed on to the delta listeners: the store is kept, indexes are updated
+ * incrementally, and a list without any change keeps the current version. Otherwise the snapshot
+ * is rebuilt from the list, and the load listeners are called.
+ */
+@Component
+public class EmployeeSnapshotCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeSnapshotCache.class);
+
+    private final EmployeeClient employeeClient;
+    private final EmployeeSnapshotFile snapshotFile;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+    private final ExecutorService refreshExecutor;
+    private final Function<List<Employee>, EmployeeStore> storeFactory;
+    private final int maxChanges;
+
+    private final AtomicReference<CompletableFuture<EmployeeSnapshot>> inFlight = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicReference<EmployeeSnapshot> snapshot = new AtomicReference<>();
+    private volatile boolean invalidated;
+
+    private final Queue<Change> journal = new ConcurrentLinkedQueue<>();
+    private volatile boolean journaling;
+    private final AtomicBoolean compacting = new AtomicBoolean();
+    private final List<Consumer<EmployeeSnapshot>> loadListeners = new CopyOnWriteArrayList<>();
+    private final List<Consumer<EmployeeDelta>> deltaListeners = new CopyOnWriteArrayList<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder staleHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder refreshNanosTotal = new LongAdder();
+    private final LongAccumulator refreshNanosMax = new LongAccumulator(Math::max, 0);
+    private final LongAdder deltaRefreshes = new LongAdder();
+    private final LongAdder insertedEmployees = new LongAdder();
+    private final LongAdder updatedEmployees = new LongAdder();
+    private final LongAdder deletedEmployees = new LongAdder();
+
+    public EmployeeSnapshotCache(EmployeeClient employeeClient,
+                                 EmployeeSnapshotFile snapshotFile,
+                                 @Value("${employee.cache.ttl:30s}") Duration ttl,
+                                 @Value("${employee.cache.max-stale:5m}") Duration maxStale,
+                                 @Value("${employee.store:columnar}") String store,
+                                 @Value("${employee.cache.max-changes:1024}") int maxChanges) {
+        this.employeeClient = employeeClient;
+        this.snapshotFile = snapshotFile;
+        this.storeFactory = "list".equalsIgnoreCase(store) ? ListEmployeeStore::new : ColumnarEmployeeStore::of;
+        this.ttlNanos = ttl.toNanos();
+        this.maxStaleNanos = maxStale.toNanos();
+        this.maxChanges = maxChanges;
+        this.refreshExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        restore();
+    }
+
+    public List<Employee> getEmployees() throws IOException {
+        return getSnapshot().getEmployees();
+    }
+
+    /**
+     * This method returns the current snapshot, loading or refreshing it from the upstream when needed.
+     */
+    public EmployeeSnapshot getSnapshot() throws IOException {
+        return getSnapshot(true);
+    }
+
+    /**
+     * This method is getSnapshot for readers in front of the controller, such as the
+     * ResponseBytesCache: with counted false the read is left out of the hit and miss
+     * counters, so that a request going on to the controller is only counted once.
+     */
+    EmployeeSnapshot getSnapshot(boolean counted) throws IOException {
+        EmployeeSnapshot current = snapshot.get();
+        if (current == null || invalidated) {
+            count(misses, counted);
+            return await(refresh(), current);
+        }
+
+        long age = current.ageNanos(System.nanoTime());
+        if (age <= ttlNanos) {
+            count(hits, counted);
+            return current;
+        }
+        if (age <= ttlNanos + maxStaleNanos) {
+            count(staleHits, counted);
+            refresh();
+            return current;
+        }
+        count(misses, counted);
+        return await(refresh(), current);
+    }
+
+    /**
+     * This method returns the last snapshot loaded, whatever its age, without calling the upstream.
+     * It is null until the first load succeeds.
+     */
+    public EmployeeSnapshot getLastSnapshot() {
+        return snapshot.get();
+    }
+
+    /**
+     * This method adds an employee created in the upstream to the current snapshot.
+     * An employee without an id can not be told apart later, the snapshot is invalidated instead.
+     */
+    public void applyCreated(Employee employee) {
+        if (employee.getId() == null) {
+            invalidate();
+            return;
+        }
+        apply(new Change(employee.getId(), employee));
+    }
+
+    /**
+     * This method removes an employee deleted in the upstream from the current snapshot.
+     */
+    public void applyDeleted(long id) {
+        apply(new Change(id, null));
+    }
+
+    /**
+     * This method registers a listener called, on the refresh thread, with every snapshot
+     * rebuilt from a list fetched from the upstream, the changes applied meanwhile included.
+     * Snapshots restored from the file or built from the mocked data are not passed.
+     */
+    public void addLoadListener(Consumer<EmployeeSnapshot> listener) {
+        loadListeners.add(listener);
+    }
+
+    /**
+     * This method registers a listener called, on the refresh thread, with the changes of every
+     * list fetched from the upstream and applied as a delta, when it holds any. Employees created
+     * or deleted through this service while the list was fetched are left out.
+     */
+    public void addDeltaListener(Consumer<EmployeeDelta> listener) {
+        deltaListeners.add(listener);
+    }
+
+    /**
+     * This method starts a refresh from the upstream, unless one is running, and returns it.
+     */
+    public CompletableFuture<EmployeeSnapshot> refreshNow() {
+        return refresh();
+    }
+
+    /**
+     * This method marks the current snapshot as outdated, so that the next read waits
+     * for a fresh copy.
+     */
+    public void invalidate() {
+        invalidated = true;
+    }
+
+    public CacheStats getStats() {
+        EmployeeSnapshot current = snapshot.get();
+        long refreshCount = refreshes.sum();
+        return new CacheStats(
+                hits.sum(),
+                staleHits.sum(),
+                misses.sum(),
+                refreshCount,
+                refreshFailures.sum(),
+                refreshCount == 0 ? 0 : nanosToMillis(refreshNanosTotal.sum()) / refreshCount,
+                nanosToMillis(refreshNanosMax.get()),
+                deltaRefreshes.sum(),
+                insertedEmployees.sum(),
+                updatedEmployees.sum(),
+                deletedEmployees.sum(),
+                current == null ? 0 : current.getVersion(),
+                current == null ? 0 : TimeUnit.NANOSECONDS.toMillis(current.ageNanos(System.nanoTime())));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private CompletableFuture<EmployeeSnapshot> refresh() {
+        while (true) {
+            CompletableFuture<EmployeeSnapshot> running = inFlight.get();
+            if (running != null) {
+                return running;
+            }
+            CompletableFuture<EmployeeSnapshot> next = new CompletableFuture<>();
+            if (inFlight.compareAndSet(null, next)) {
+                load(next);
+                return next;
+            }
+        }
+    }
+
+    /*
+       The change is journaled before it is swapped in: a refresh publishing in between
+       either replays it, or makes the swap fail so that it is applied to the refreshed snapshot.
+       The version is taken after reading the current snapshot, so versions only grow.
+    */
+    private void apply(Change change) {
+        if (journaling) {
+            journal.add(change);
+        }
+        EmployeeSnapshot current;
+        EmployeeSnapshot next;
+        do {
+            current = snapshot.get();
+            if (current == null) {
+                return;
+            }
+            next = change.applyTo(current, versions.incrementAndGet());
+        } while (next != current && !snapshot.compareAndSet(current, next));
+
+        compactIfNeeded(next);
+    }
+
+    private void compactIfNeeded(EmployeeSnapshot current) {
+        if (current.getChangeCount() > maxChanges && compacting.compareAndSet(false, true)) {
+            refreshExecutor.execute(() -> compact(current));
+        }
+    }
+
+    /*
+       The rebuilt snapshot only replaces the one it was built from, if a change came in
+       meanwhile the next change past max-changes starts another rebuild.
+    */
+    private void compact(EmployeeSnapshot source) {
+        try {
+            EmployeeSnapshot compacted = new EmployeeSnapshot(versions.incrementAndGet(),
+                    storeFactory.apply(new ArrayList<>(source.getEmployees())), source.getLoadedAtNanos());
+            compacted.getSalaryIndex();
+            compacted.getNameSearchIndex();
+            compacted.getRangeIndex();
+            compacted.getStats();
+            snapshot.compareAndSet(source, compacted);
+        } finally {
+            compacting.set(false);
+        }
+    }
+
+    /*
+       The invalidated flag is only cleared once a snapshot is published, so that
+       after a failed load the next read still waits for a fresh copy.
+    */
+    private void load(CompletableFuture<EmployeeSnapshot> result) {
+        long start = System.nanoTime();
+        journal.clear();
+        journaling = true;
+
+        employeeClient.getAllEmployees()
+                .thenApplyAsync(this::publish, refreshExecutor)
+                .whenComplete((loaded, error) -> {
+                    inFlight.set(null);
+                    if (error == null) {
+                        long elapsed = System.nanoTime() - start;
+                        refreshes.increment();
+                        refreshNanosTotal.add(elapsed);
+                        refreshNanosMax.accumulate(elapsed);
+                        result.complete(loaded);
+                    } else {
+                        journaling = false;
+                        journal.clear();
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                                ? error.getCause()
+                                : error;
+                        refreshFailures.increment();
+                        LOGGER.warn("Refreshing employee snapshot failed.", cause);
+                        result.completeExceptionally(cause);
+                    }
+                });
+    }
+
+    /*
+       The restored snapshot is dated just past the ttl, so that the first read
+       serves it and starts a refresh. Its indexes are built in the background.
+    */
+    private void restore() {
+        EmployeeStore store = snapshotFile.load();
+        if (store == null) {
+            return;
+        }
+        EmployeeSnapshot restored = new EmployeeSnapshot(versions.incrementAndGet(), store, System.nanoTime() - ttlNanos - 1);
+        snapshot.set(restored);
+        refreshExecutor.execute(() -> {
+            restored.getSalaryIndex();
+            restored.getNameSearchIndex();
+            restored.getRangeIndex();
+            restored.getStats();
+        });
+    }
+
+    private EmployeeSnapshot publish(List<Employee> employeeList) {
+        long start = System.nanoTime();
+        boolean fetched = !EmployeeUtil.isMockedEmployeeData(employeeList);
+        if (!fetched && snapshot.get() != null) {
+            throw mockedDataRefused();
+        }
+        if (fetched) {
+            EmployeeSnapshot updated = publishDelta(employeeList, start);
+            if (updated != null) {
+                return updated;
+            }
+        }
+
+        EmployeeSnapshot loaded = new EmployeeSnapshot(versions.incrementAndGet(), storeFactory.apply(employeeList), start);
+
+        /*
+           Building the indexes here keeps readers on the previous snapshot
+           instead of having the first reader of the new one pay for them.
+        */
+        loaded.getSalaryIndex();
+        loaded.getNameSearchIndex();
+        loaded.getRangeIndex();
+        loaded.getStats();
+
+        if (fetched) {
+            refreshExecutor.execute(() -> snapshotFile.save(loaded.getStore()));
+        }
+
+        /*
+           Replaying is idempotent: a create already in the fetched list and a delete
+           missing from it are skipped, so the journal is replayed whole on every attempt.
+        */
+        EmployeeSnapshot previous;
+        EmployeeSnapshot next;
+        do {
+            previous = snapshot.get();
+            if (!fetched && previous != null) {
+                throw mockedDataRefused();
+            }
+            next = loaded.withVersion(versions.incrementAndGet());
+            for (Change change : journal) {
+                next = change.applyTo(next, versions.incrementAndGet());
+            }
+        } while (!snapshot.compareAndSet(previous, next));
+
+        invalidated = false;
+        journaling = false;
+        journal.clear();
+
+        if (fetched) {
+            EmployeeSnapshot published = next;
+            for (Consumer<EmployeeSnapshot> listener : loadListeners) {
+                refreshExecutor.execute(() -> listener.accept(published));
+            }
+        }
+        SnapshotMetrics.recordPublish(SnapshotMetrics.FULL, System.nanoTime() - start, null);
+        return next;
+    }
+
+    /*
+       The ids journaled since the fetch started are skipped: the current snapshot already holds
+       those changes, and the list may have been read before them. It returns null when the list
+       has to be loaded whole.
+    */
+    private EmployeeSnapshot publishDelta(List<Employee> employeeList, long loadedAtNanos) {
+        EmployeeSnapshot previous;
+        EmployeeSnapshot next;
+        EmployeeDelta delta;
+        do {
+            previous = snapshot.get();
+            if (previous == null) {
+                return null;
+            }
+            Set<Long> journaledIds = new HashSet<>();
+            for (Change change : journal) {
+                journaledIds.add(change.id);
+            }
+            delta = previous.diff(employeeList, journaledIds, maxChanges - previous.getChangeCount(), loadedAtNanos);
+            if (delta == null) {
+                return null;
+            }
+            next = delta.isEmpty()
+                    ? previous.withLoadedAt(loadedAtNanos)
+                    : previous.withDelta(delta, versions.incrementAndGet());
+        } while (!snapshot.compareAndSet(previous, next));
+
+        invalidated = false;
+        journaling = false;
+        journal.clear();
+        compactIfNeeded(next);
+
+        deltaRefreshes.increment();
+        insertedEmployees.add(delta.getInserted().size());
+        updatedEmployees.add(delta.getUpdated().size());
+        deletedEmployees.add(delta.getDeleted().size());
+
+        if (!delta.isEmpty()) {
+            refreshExecutor.execute(() -> snapshotFile.save(new ListEmployeeStore(employeeList)));
+            EmployeeDelta published = delta;
+            for (Consumer<EmployeeDelta> listener : deltaListeners) {
+                refreshExecutor.execute(() -> listener.accept(published));
+            }
+        }
+        SnapshotMetrics.recordPublish(SnapshotMetrics.DELTA, System.nanoTime() - loadedAtNanos, delta);
+        return next;
+    }
+
+    /*
+       The upstream answered with an error and EmployeeUtil fell back to the mocked data:
+       it is only published while there is no snapshot, otherwise the refresh fails.
+    */
+    private static CompletionException mockedDataRefused() {
+        return new CompletionException(new IOException("Upstream answered with an error, keeping the current employee snapshot."));
+    }
+
+    /*
+       Waits for the refresh, falling back to the previous snapshot (if any)
+       when the upstream could not be reached.
+    */
+    private EmployeeSnapshot await(CompletableFuture<EmployeeSnapshot> future, EmployeeSnapshot fallback) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading employees.");
+        } catch (ExecutionException e) {
+            if (fallback != null) {
+                LOGGER.warn("Serving employee snapshot version {} after a failed refresh.", fallback.getVersion());
+                return fallback;
+            }
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void count(LongAdder counter, boolean counted) {
+        if (counted) {
+            counter.increment();
+        }
+    }
+
+    private static double nanosToMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    /**
+     * A create or delete of the employee with the given id, applied to a snapshot to get the next one.
+     */
+    private static class Change {
+        private final long id;
+        private final Employee created;
+
+        /**
+         * @param id      id of the employee
+         * @param created employee created, null for a delete
+         */
+        Change(long id, Employee created) {
+            this.id = id;
+            this.created = created;
+        }
+
+        EmployeeSnapshot applyTo(EmployeeSnapshot snapshot, long version) {
+            return created != null ? snapshot.withCreated(created, version) : snapshot.withDeleted(id, version);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.rqchallenge.cache;
+
+import com.example.rqchallenge.store.EmployeeStore;
+import com.example.rqchallenge.store.MappedEmployeeStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * The EmployeeSnapshotFile persists the last employee list fetched from the upstream to
+ * employee.snapshot.file, and maps it back on startup so that reads can be served before
+ * the upstream answers. An empty employee.snapshot.file disables it.
+ *
+ * Failures are logged and otherwise ignored, the file is only ever a head start.
+ */
+@Component
+public class EmployeeSnapshotFile {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeSnapshotFile.class);
+
+    private final Path path;
+
+    public EmployeeSnapshotFile(@Value("${employee.snapshot.file:}") String file) {
+        this.path = file.isBlank() ? null : Paths.get(file);
+    }
+
+    /**
+     * This method maps the persisted snapshot, it returns null when there is none or it cannot be read.
+     */
+    public EmployeeStore load() {
+        if (path == null || !Files.exists(path)) {
+            return null;
+        }
+        try {
+            MappedEmployeeStore store = MappedEmployeeStore.open(path);
+            LOGGER.info("Mapped {} employees from {}.", store.size(), path);
+            return store;
+        } catch (IOException e) {
+            LOGGER.warn("Ignoring unreadable employee snapshot file {}.", path, e);
+            return null;
+        }
+    }
+
+    public void save(EmployeeStore store) {
+        if (path == null) {
+            return;
+        }
+        try {
+            MappedEmployeeStore.write(store, path);
+        } catch (IOException e) {
+            LOGGER.warn("Writing employee snapshot file {} failed.", path, e);
+        }
+    }
+}
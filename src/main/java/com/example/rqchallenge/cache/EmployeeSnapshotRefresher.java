@@ -0,0 +1,97 @@
+package com.example.rqchallenge.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The EmployeeSnapshotRefresher polls the upstream for the employee list every interval,
+ * give or take a uniformly random jitter, so that reads find a snapshot younger than the
+ * cache ttl instead of starting the refresh themselves. The jitter keeps instances started
+ * together from polling the upstream in step.
+ *
+ * The next poll is scheduled once the previous one completes, failed or not, so polls never
+ * overlap. A poll the upstream answers with an error, a 429 included, fails: the current
+ * snapshot is kept and no listener is called. Lists that changed little are applied to the
+ * snapshot as a delta by the EmployeeSnapshotCache. An interval of zero disables polling.
+ */
+@Component
+public class EmployeeSnapshotRefresher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeSnapshotRefresher.class);
+
+    private final EmployeeSnapshotCache employeeSnapshotCache;
+    private final long intervalNanos;
+    private final long jitterNanos;
+    private final ScheduledExecutorService scheduler;
+
+    public EmployeeSnapshotRefresher(EmployeeSnapshotCache employeeSnapshotCache,
+                                     @Value("${employee.refresh.interval:20s}") Duration interval,
+                                     @Value("${employee.refresh.jitter:5s}") Duration jitter) {
+        if (interval.isNegative() || jitter.isNegative()) {
+            throw new IllegalArgumentException("employee.refresh.interval and jitter must not be negative.");
+        }
+        this.employeeSnapshotCache = employeeSnapshotCache;
+        this.intervalNanos = interval.toNanos();
+        this.jitterNanos = Math.min(jitter.toNanos(), intervalNanos);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "employee-snapshot-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (intervalNanos > 0) {
+            schedule(0);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * This method returns the delay before the next poll: the interval plus a random
+     * offset in [-jitter, +jitter].
+     */
+    long nextDelayNanos() {
+        if (jitterNanos == 0) {
+            return intervalNanos;
+        }
+        return intervalNanos + ThreadLocalRandom.current().nextLong(-jitterNanos, jitterNanos + 1);
+    }
+
+    private void schedule(long delayNanos) {
+        try {
+            scheduler.schedule(this::poll, delayNanos, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shut down.
+        }
+    }
+
+    /*
+       Failures are logged by the EmployeeSnapshotCache, the next poll is scheduled either way.
+    */
+    private void poll() {
+        try {
+            employeeSnapshotCache.refreshNow().whenComplete((snapshot, error) -> schedule(nextDelayNanos()));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Polling the employee list failed.", e);
+            schedule(nextDelayNanos());
+        }
+    }
+}
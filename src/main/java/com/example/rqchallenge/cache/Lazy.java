@@ -0,0 +1,40 @@
+package com.example.rqchallenge.cache;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds a value that is computed on first access and then reused,
+ * used by the EmployeeSnapshot for its derived indexes.
+ */
+class Lazy<T> {
+
+    private final Supplier<T> supplier;
+    private volatile T value;
+
+    Lazy(Supplier<T> supplier) {
+        this.supplier = supplier;
+    }
+
+    /**
+     * Returns a Lazy already holding the value, its readers never synchronize.
+     */
+    static <T> Lazy<T> of(T value) {
+        Lazy<T> lazy = new Lazy<>(() -> value);
+        lazy.value = value;
+        return lazy;
+    }
+
+    T get() {
+        T result = value;
+        if (result == null) {
+            synchronized (this) {
+                result = value;
+                if (result == null) {
+                    result = supplier.get();
+                    value = result;
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.rqchallenge.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The ResponseBytesCache is a servlet filter serving the read endpoints whose response only
+ * depends on the employee list (GET /, /highestSalary and /topTenHighestEarningEmployeeNames,
+ * without parameters) from bytes encoded once per snapshot version.
+ *
+ * The first request after the snapshot changes goes through the controller as usual, its
+ * response body is kept along with a strong ETag (the MD5 of the body). Later requests for
+ * that version are written straight to the servlet output stream, gzipped when the client
+ * accepts it (the gzip variant is compressed once, on first use, and only used when smaller),
+ * and requests whose If-None-Match holds the ETag get a 304 without any body at all.
+ *
+ * Requests are still checked against the EmployeeSnapshotCache, so cached bytes are only
+ * served while their snapshot is the one the controller would read. That read is not counted
+ * in the EmployeeSnapshotCache stats, the ResponseCacheStats count these requests instead.
+ */
+@Component
+public class ResponseBytesCache extends OncePerRequestFilter {
+
+    private static final Set<String> CACHED_PATHS = Set.of("/", "/highestSalary", "/topTenHighestEarningEmployeeNames");
+    private static final String GZIP = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private final EmployeeSnapshotCache employeeSnapshotCache;
+    private final boolean enabled;
+    private final ConcurrentHashMap<String, EncodedResponse> responses = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder gzipped = new LongAdder();
+
+    public ResponseBytesCache(EmployeeSnapshotCache employeeSnapshotCache,
+                              @Value("${employee.response-cache.enabled:true}") boolean enabled) {
+        this.employeeSnapshotCache = employeeSnapshotCache;
+        this.enabled = enabled;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled
+                || !HttpMethod.GET.matches(request.getMethod())
+                || !request.getParameterMap().isEmpty()
+                || !CACHED_PATHS.contains(pathOf(request))
+                || !acceptsJson(request.getHeader(HttpHeaders.ACCEPT));
+    }
+
+    /*
+       The snapshot is read before and after a miss goes through the controller: versions only
+       grow, so when both are the same the body was built from that version.
+    */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long version;
+        try {
+            version = employeeSnapshotCache.getSnapshot(false).getVersion();
+        } catch (IOException e) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String path = pathOf(request);
+        EncodedResponse encoded = responses.get(path);
+        if (encoded != null && encoded.version == version) {
+            hits.increment();
+        } else {
+            misses.increment();
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, wrapper);
+
+            EmployeeSnapshot after = employeeSnapshotCache.getLastSnapshot();
+            if (wrapper.getStatus() != HttpStatus.OK.value() || request.isAsyncStarted()
+                    || after == null || after.getVersion() != version) {
+                wrapper.copyBodyToResponse();
+                return;
+            }
+            encoded = new EncodedResponse(version, wrapper.getContentType(), wrapper.getContentAsByteArray());
+            responses.merge(path, encoded, (current, next) -> next.version > current.version ? next : current);
+            response.reset();
+        }
+        write(request, response, encoded);
+    }
+
+    public ResponseCacheStats getStats() {
+        return new ResponseCacheStats(hits.sum(), misses.sum(), notModified.sum(), gzipped.sum(), responses.size());
+    }
+
+    private void write(HttpServletRequest request, HttpServletResponse response, EncodedResponse encoded) throws IOException {
+        boolean gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING)) && encoded.getGzipBody() != null;
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.ETAG, gzip ? encoded.gzipEtag : encoded.etag);
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), encoded)) {
+            notModified.increment();
+            response.setStatus(HttpStatus.NOT_MODIFIED.value());
+            return;
+        }
+
+        byte[] body = encoded.body;
+        if (gzip) {
+            gzipped.increment();
+            body = encoded.getGzipBody();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, GZIP);
+        }
+        response.setStatus(HttpStatus.OK.value());
+        if (encoded.contentType != null) {
+            response.setContentType(encoded.contentType);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /*
+       Either variant's ETag is accepted: both stand for the same bytes before encoding.
+    */
+    private static boolean matches(String ifNoneMatch, EncodedResponse encoded) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(encoded.etag) || trimmed.equals(encoded.gzipEtag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsJson(String accept) {
+        if (accept == null) {
+            return true;
+        }
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(mediaType -> mediaType.isCompatibleWith(MediaType.APPLICATION_JSON));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        return acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains(GZIP);
+    }
+
+    private static String pathOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.isEmpty() ? "/" : path;
+    }
+
+    /**
+     * The body of one endpoint for one snapshot version, with its ETag and gzip variant.
+     */
+    private static class EncodedResponse {
+        private static final byte[] NOT_SMALLER = new byte[0];
+
+        private final long version;
+        private final String contentType;
+        private final byte[] body;
+        private final String etag;
+        private final String gzipEtag;
+        private volatile byte[] gzipBody;
+
+        EncodedResponse(long version, String contentType, byte[] body) {
+            this.version = version;
+            this.contentType = contentType;
+            this.body = body;
+            String digest = DigestUtils.md5DigestAsHex(body);
+            this.etag = "\"" + digest + "\"";
+            this.gzipEtag = "\"" + digest + GZIP_ETAG_SUFFIX + "\"";
+        }
+
+        /*
+           Compressed at most a few times per version when requests race, null when gzip
+           does not make the body smaller.
+        */
+        byte[] getGzipBody() {
+            byte[] compressed = gzipBody;
+            if (compressed == null) {
+                compressed = gzip(body);
+                if (compressed.length >= body.length) {
+                    compressed = NOT_SMALLER;
+                }
+                gzipBody = compressed;
+            }
+            return compressed == NOT_SMALLER ? null : compressed;
+        }
+
+        private static byte[] gzip(byte[] body) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                gzipStream.write(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return outputStream.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.rqchallenge.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Point in time view of the counters kept by the ResponseBytesCache.
+ */
+@Getter
+@AllArgsConstructor
+public class ResponseCacheStats {
+    private long hits;
+    private long misses;
+    private long notModified;
+    private long gzipped;
+    private int entries;
+}
@@ -0,0 +1,53 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.util.EmployeeUtil;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.example.rqchallenge.client.IOFunction.unchecked;
+
+/**
+ * The AsyncEmployeeClient sends upstream requests with OkHttp's enqueue, so no
+ * caller thread is held while the upstream responds. Responses are read on the
+ * OkHttp dispatcher thread that received them.
+ */
+public class AsyncEmployeeClient implements EmployeeClient {
+
+    private final UpstreamHttpClient upstream;
+
+    public AsyncEmployeeClient(UpstreamHttpClient upstream) {
+        this.upstream = upstream;
+    }
+
+    @Override
+    public CompletableFuture<List<Employee>> getAllEmployees() {
+        return upstream.executeAsync(EmployeeUtil.getAllEmployeesRequest(upstream.getBaseUrl()))
+                .thenApply(unchecked(EmployeeUtil::readEmployeeList));
+    }
+
+    @Override
+    public CompletableFuture<Employee> getEmployeeById(String id) {
+        return upstream.executeAsync(EmployeeUtil.getEmployeeByIdRequest(upstream.getBaseUrl(), id))
+                .thenApply(unchecked(response -> EmployeeUtil.readEmployee(response, id)));
+    }
+
+    @Override
+    public CompletableFuture<Employee> createEmployee(String name, int salary, int age) {
+        return upstream.executeAsync(EmployeeUtil.createEmployeeRequest(upstream.getBaseUrl(), name, salary, age))
+                .thenApply(unchecked(response -> EmployeeUtil.readCreatedEmployee(response, name, salary, age)));
+    }
+
+    @Override
+    public CompletableFuture<String> deleteEmployee(String id) {
+        return getEmployeeById(id).thenCompose(this::deleteEmployee);
+    }
+
+    @Override
+    public CompletableFuture<String> deleteEmployee(Employee employee) {
+        String id = String.valueOf(employee.getId());
+        return upstream.executeAsync(EmployeeUtil.deleteEmployeeRequest(upstream.getBaseUrl(), id))
+                .thenApply(unchecked(response -> EmployeeUtil.readDeletedEmployeeName(response, employee)));
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.util.EmployeeUtil;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * The BlockingEmployeeClient runs the blocking EmployeeUtil calls on the given executor,
+ * which keeps request threads free as long as the executor is cheap to block, e.g. one
+ * virtual thread per task.
+ */
+public class BlockingEmployeeClient implements EmployeeClient {
+
+    private final UpstreamHttpClient upstream;
+    private final ExecutorService executor;
+
+    public BlockingEmployeeClient(UpstreamHttpClient upstream, ExecutorService executor) {
+        this.upstream = upstream;
+        this.executor = executor;
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<List<Employee>> getAllEmployees() {
+        return supply(() -> EmployeeUtil.getAllEmployeesList(upstream));
+    }
+
+    @Override
+    public CompletableFuture<Employee> getEmployeeById(String id) {
+        return supply(() -> EmployeeUtil.getEmployeeById(upstream, id));
+    }
+
+    @Override
+    public CompletableFuture<Employee> createEmployee(String name, int salary, int age) {
+        return supply(() -> EmployeeUtil.createEmployeeRecord(upstream, name, salary, age));
+    }
+
+    @Override
+    public CompletableFuture<String> deleteEmployee(String id) {
+        return supply(() -> EmployeeUtil.deleteEmployee(upstream, id));
+    }
+
+    @Override
+    public CompletableFuture<String> deleteEmployee(Employee employee) {
+        return supply(() -> EmployeeUtil.deleteEmployee(upstream, employee));
+    }
+
+    private <T> CompletableFuture<T> supply(BlockingCall<T> call) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return call.execute();
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @FunctionalInterface
+    private interface BlockingCall<T> {
+        T execute() throws IOException;
+    }
+}
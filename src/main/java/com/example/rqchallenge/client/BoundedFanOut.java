@@ -0,0 +1,93 @@
+package com.example.rqchallenge.client;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The BoundedFanOut runs an asynchronous task per item with at most maxConcurrency
+ * tasks in flight, starting the next item whenever one completes. Results are returned
+ * in item order.
+ *
+ * Tasks are expected to turn their own failures into results; a task that fails
+ * anyway fails the whole fan-out.
+ */
+public class BoundedFanOut<T, R> {
+
+    private final List<T> items;
+    private final Function<T, CompletableFuture<R>> task;
+    private final Object[] results;
+    private final AtomicInteger next = new AtomicInteger();
+    private final AtomicInteger completed = new AtomicInteger();
+    private final CompletableFuture<List<R>> done = new CompletableFuture<>();
+
+    private BoundedFanOut(List<T> items, Function<T, CompletableFuture<R>> task) {
+        this.items = items;
+        this.task = task;
+        this.results = new Object[items.size()];
+    }
+
+    public static <T, R> CompletableFuture<List<R>> map(List<T> items, int maxConcurrency,
+                                                        Function<T, CompletableFuture<R>> task) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException(String.format("maxConcurrency must be positive : %d", maxConcurrency));
+        }
+        BoundedFanOut<T, R> fanOut = new BoundedFanOut<>(items, task);
+        if (items.isEmpty()) {
+            fanOut.done.complete(new ArrayList<>());
+        }
+        for (int i = 0; i < Math.min(maxConcurrency, items.size()); i++) {
+            fanOut.runNext();
+        }
+        return fanOut.done;
+    }
+
+    /*
+       Loops instead of recursing while tasks complete synchronously,
+       so a long batch of already completed futures cannot overflow the stack.
+    */
+    private void runNext() {
+        while (!done.isDone()) {
+            int index = next.getAndIncrement();
+            if (index >= results.length) {
+                return;
+            }
+
+            CompletableFuture<R> future;
+            try {
+                future = task.apply(items.get(index));
+            } catch (RuntimeException e) {
+                done.completeExceptionally(e);
+                return;
+            }
+
+            if (!future.isDone() || future.isCompletedExceptionally()) {
+                future.whenComplete((result, error) -> {
+                    if (record(index, result, error)) {
+                        runNext();
+                    }
+                });
+                return;
+            }
+            if (!record(index, future.getNow(null), null)) {
+                return;
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private boolean record(int index, R result, Throwable error) {
+        if (error != null) {
+            done.completeExceptionally(error);
+            return false;
+        }
+        results[index] = result;
+        if (completed.incrementAndGet() == results.length) {
+            done.complete((List<R>) Arrays.asList(results));
+        }
+        return true;
+    }
+}
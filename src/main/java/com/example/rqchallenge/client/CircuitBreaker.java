@@ -0,0 +1,185 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.util.UpstreamRoute;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CircuitBreaker tracks the health of a single upstream route.
+ *
+ * CLOSED: calls go through and their outcomes fill a window of the last windowSize calls.
+ * Once the window holds minimumCalls outcomes of which failureRateThreshold or more failed,
+ * the breaker opens.
+ * OPEN: calls are rejected without reaching the upstream for openDuration.
+ * HALF_OPEN: a single probe call is let through; its success closes the breaker with an
+ * empty window, its failure opens it again.
+ *
+ * The breaker also keeps the latencies of the last successful calls and derives the timeout
+ * of the next calls from them: timeoutMultiplier times their p99, kept between minTimeout and
+ * maxTimeout. Until enough latencies are known maxTimeout is used.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final int LATENCY_SAMPLES = 256;
+    private static final int MIN_LATENCY_SAMPLES = 20;
+    private static final int TIMEOUT_UPDATE_INTERVAL = 16;
+
+    private final UpstreamRoute route;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final double timeoutMultiplier;
+    private final long minTimeoutMillis;
+    private final long maxTimeoutMillis;
+
+    /*
+       Guarded by this. Calls take the lock a couple of times each, which is
+       nothing next to the round trip they are about to make.
+    */
+    private State state = State.CLOSED;
+    private final boolean[] window;
+    private int windowNext;
+    private int windowCount;
+    private int windowFailures;
+    private long openedAtNanos;
+    private boolean probing;
+    private long rejectedCalls;
+    private long openings;
+
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyNext;
+    private int latencyCount;
+    private long p99Nanos;
+    private volatile long timeoutMillis;
+
+    public CircuitBreaker(UpstreamRoute route, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long openDurationMillis, double timeoutMultiplier, long minTimeoutMillis, long maxTimeoutMillis) {
+        this.route = route;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMillis);
+        this.timeoutMultiplier = timeoutMultiplier;
+        this.minTimeoutMillis = minTimeoutMillis;
+        this.maxTimeoutMillis = maxTimeoutMillis;
+        this.timeoutMillis = maxTimeoutMillis;
+    }
+
+    /**
+     * This method tells whether a call may be made now. Every permitted call
+     * must be followed by exactly one onSuccess, onFailure or onIgnored.
+     */
+    public synchronized boolean tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAtNanos < openNanos) {
+                rejectedCalls++;
+                return false;
+            }
+            state = State.HALF_OPEN;
+            probing = false;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                rejectedCalls++;
+                return false;
+            }
+            probing = true;
+        }
+        return true;
+    }
+
+    public synchronized void onSuccess(long latencyNanos) {
+        recordLatency(latencyNanos);
+        if (state == State.HALF_OPEN) {
+            close();
+        } else if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+        } else if (state == State.CLOSED) {
+            record(true);
+            if (windowCount >= minimumCalls && windowFailures >= failureRateThreshold * windowCount) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * This method ends a call whose outcome says nothing about the route's health, such as a
+     * throttled answer: it is not recorded, and a half-open breaker lets the next call probe.
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public synchronized CircuitBreakerStats getStats() {
+        return new CircuitBreakerStats(
+                route.name(),
+                state.name(),
+                windowCount,
+                windowCount == 0 ? 0 : (double) windowFailures / windowCount,
+                openings,
+                rejectedCalls,
+                p99Nanos / 1_000_000.0,
+                timeoutMillis);
+    }
+
+    private void record(boolean failure) {
+        if (windowCount == window.length) {
+            if (window[windowNext]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowNext] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowNext = (windowNext + 1) % window.length;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtNanos = System.nanoTime();
+        probing = false;
+        openings++;
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        probing = false;
+        windowNext = 0;
+        windowCount = 0;
+        windowFailures = 0;
+    }
+
+    private void recordLatency(long latencyNanos) {
+        latencies[latencyNext] = latencyNanos;
+        latencyNext = (latencyNext + 1) % LATENCY_SAMPLES;
+        latencyCount = Math.min(latencyCount + 1, LATENCY_SAMPLES);
+
+        if (latencyCount >= MIN_LATENCY_SAMPLES && latencyNext % TIMEOUT_UPDATE_INTERVAL == 0) {
+            long[] sorted = Arrays.copyOf(latencies, latencyCount);
+            Arrays.sort(sorted);
+            p99Nanos = sorted[(int) Math.ceil(0.99 * latencyCount) - 1];
+            long adaptive = (long) (TimeUnit.NANOSECONDS.toMillis(p99Nanos) * timeoutMultiplier);
+            timeoutMillis = Math.max(minTimeoutMillis, Math.min(maxTimeoutMillis, adaptive));
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.exceptions.UpstreamUnavailableException;
+import com.example.rqchallenge.monitoring.UpstreamMetrics;
+import com.example.rqchallenge.util.UpstreamRoute;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The CircuitBreakerInterceptor puts a CircuitBreaker in front of every upstream route.
+ *
+ * A call on an open route fails at once with an UpstreamUnavailableException, so callers
+ * fall back to what they have (the cached snapshot) instead of waiting for timeouts.
+ * Permitted calls get the connect and read timeouts the route's breaker derived from its
+ * recent latencies. Connection errors, timeouts and 5xx responses count as failures. Throttled
+ * answers (429, or 503 with a Retry-After) count as neither failures nor successes.
+ */
+public class CircuitBreakerInterceptor implements Interceptor {
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+
+    private final Map<UpstreamRoute, CircuitBreaker> breakers = new EnumMap<>(UpstreamRoute.class);
+
+    /**
+     * @param settings         upstream.circuit-breaker.* settings, shared by the breakers of all routes
+     * @param maxTimeoutMillis upper bound of the adapted timeouts
+     */
+    public CircuitBreakerInterceptor(UpstreamProperties.CircuitBreakerSettings settings, long maxTimeoutMillis) {
+        for (UpstreamRoute route : UpstreamRoute.values()) {
+            breakers.put(route, new CircuitBreaker(route, settings.getWindowSize(), settings.getMinimumCalls(),
+                    settings.getFailureRateThreshold(), settings.getOpenDuration().toMillis(),
+                    settings.getTimeoutMultiplier(), settings.getMinTimeout().toMillis(), maxTimeoutMillis));
+        }
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        UpstreamRoute route = UpstreamMetrics.routeOf(chain.request());
+        CircuitBreaker breaker = breakers.get(route);
+        if (!breaker.tryAcquire()) {
+            throw new UpstreamUnavailableException(String.format("Upstream route %s is unavailable, its circuit is open.", route));
+        }
+
+        int timeoutMillis = (int) breaker.getTimeoutMillis();
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain
+                    .withConnectTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .withReadTimeout(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .proceed(chain.request());
+        } catch (IOException | RuntimeException e) {
+            breaker.onFailure();
+            throw e;
+        }
+
+        if (isThrottled(response)) {
+            breaker.onIgnored();
+        } else if (response.code() >= 500) {
+            breaker.onFailure();
+        } else {
+            breaker.onSuccess(System.nanoTime() - start);
+        }
+        return response;
+    }
+
+    /*
+       Throttled answers are paced and retried by the UpstreamScheduler. Counting them as failures
+       would open the circuit on a burst of 429s the scheduler is meant to absorb.
+    */
+    private static boolean isThrottled(Response response) {
+        return response.code() == TOO_MANY_REQUESTS
+                || (response.code() == SERVICE_UNAVAILABLE && response.header("Retry-After") != null);
+    }
+
+    public List<CircuitBreakerStats> getStats() {
+        List<CircuitBreakerStats> stats = new ArrayList<>(breakers.size());
+        for (CircuitBreaker breaker : breakers.values()) {
+            stats.add(breaker.getStats());
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.rqchallenge.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Point in time view of a CircuitBreaker.
+ */
+@Getter
+@AllArgsConstructor
+public class CircuitBreakerStats {
+    private String route;
+    private String state;
+    private int windowCalls;
+    private double failureRate;
+    private long openings;
+    private long rejectedCalls;
+    private double p99LatencyMillis;
+    private long timeoutMillis;
+}
@@ -0,0 +1,66 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.entity.Employee;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The CoalescingEmployeeClient wraps another EmployeeClient so that concurrent reads of
+ * the same resource (all-employees, employee/{id}) share a single upstream call.
+ *
+ * Coalesced callers receive the same result objects, which must not be modified.
+ * Writes are passed through as is, two identical creates are still two employees.
+ */
+public class CoalescingEmployeeClient implements EmployeeClient {
+
+    private static final String ALL_EMPLOYEES = "all-employees";
+
+    private final EmployeeClient delegate;
+    private final SingleFlight<String, List<Employee>> allEmployees = new SingleFlight<>(ALL_EMPLOYEES);
+    private final SingleFlight<String, Employee> employeesById = new SingleFlight<>("employee/{id}");
+
+    public CoalescingEmployeeClient(EmployeeClient delegate) {
+        this.delegate = delegate;
+    }
+
+    public void shutdown() {
+        if (delegate instanceof BlockingEmployeeClient) {
+            ((BlockingEmployeeClient) delegate).shutdown();
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<Employee>> getAllEmployees() {
+        return allEmployees.execute(ALL_EMPLOYEES, delegate::getAllEmployees);
+    }
+
+    @Override
+    public CompletableFuture<Employee> getEmployeeById(String id) {
+        return employeesById.execute(id, () -> delegate.getEmployeeById(id));
+    }
+
+    @Override
+    public CompletableFuture<Employee> createEmployee(String name, int salary, int age) {
+        return delegate.createEmployee(name, salary, age);
+    }
+
+    /*
+       The lookup of the employee goes through the coalesced getEmployeeById,
+       only the DELETE itself is passed through.
+    */
+    @Override
+    public CompletableFuture<String> deleteEmployee(String id) {
+        return getEmployeeById(id).thenCompose(delegate::deleteEmployee);
+    }
+
+    @Override
+    public CompletableFuture<String> deleteEmployee(Employee employee) {
+        return delegate.deleteEmployee(employee);
+    }
+
+    public List<SingleFlightStats> getStats() {
+        return Arrays.asList(allEmployees.getStats(), employeesById.getStats());
+    }
+}
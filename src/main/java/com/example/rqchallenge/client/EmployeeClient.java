@@ -0,0 +1,36 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.entity.Employee;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The EmployeeClient is the non-blocking API over the employee upstream.
+ *
+ * Failures complete the returned futures exceptionally with the same exceptions
+ * the matching EmployeeUtil methods throw (IOException, ResourceNotFoundException).
+ */
+public interface EmployeeClient {
+
+    CompletableFuture<List<Employee>> getAllEmployees();
+
+    CompletableFuture<Employee> getEmployeeById(String id);
+
+    /**
+     * The returned future completes with the created employee, holding the id given by
+     * the upstream, or with null when the upstream did not create it.
+     */
+    CompletableFuture<Employee> createEmployee(String name, int salary, int age);
+
+    /**
+     * The returned future completes with the name of the deleted employee.
+     */
+    CompletableFuture<String> deleteEmployee(String id);
+
+    /**
+     * This method deletes an employee already known to the caller, without
+     * looking it up first. The returned future completes with its name.
+     */
+    CompletableFuture<String> deleteEmployee(Employee employee);
+}
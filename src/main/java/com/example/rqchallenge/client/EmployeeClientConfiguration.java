@@ -0,0 +1,71 @@
+package com.example.rqchallenge.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The EmployeeClientConfiguration picks the EmployeeClient implementation.
+ *
+ * employee.client.mode=async (default) uses OkHttp's enqueue. employee.client.mode=blocking
+ * runs the blocking calls on an executor, either one virtual thread per call
+ * (employee.client.blocking.executor=virtual, needs a JVM with virtual threads) or a
+ * fixed pool of employee.client.blocking.threads platform threads.
+ *
+ * Either way the client is wrapped in a CoalescingEmployeeClient, so that concurrent
+ * identical reads share one upstream call, and sends its requests with the
+ * UpstreamHttpClient configured by the upstream.* properties.
+ */
+@Configuration
+@EnableConfigurationProperties(UpstreamProperties.class)
+public class EmployeeClientConfiguration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeClientConfiguration.class);
+
+    @Bean
+    public UpstreamHttpClient upstreamHttpClient(UpstreamProperties properties) {
+        return new UpstreamHttpClient(properties);
+    }
+
+    @Bean
+    public CoalescingEmployeeClient employeeClient(UpstreamHttpClient upstream,
+                                         @Value("${employee.client.mode:async}") String mode,
+                                         @Value("${employee.client.blocking.executor:platform}") String executor,
+                                         @Value("${employee.client.blocking.threads:64}") int threads) {
+        if ("blocking".equalsIgnoreCase(mode)) {
+            return new CoalescingEmployeeClient(new BlockingEmployeeClient(upstream, "virtual".equalsIgnoreCase(executor)
+                    ? newVirtualThreadExecutor(threads)
+                    : newPlatformThreadExecutor(threads)));
+        }
+        return new CoalescingEmployeeClient(new AsyncEmployeeClient(upstream));
+    }
+
+    /*
+       Looked up reflectively, the project targets Java 11 where
+       Executors.newVirtualThreadPerTaskExecutor does not exist.
+    */
+    private static ExecutorService newVirtualThreadExecutor(int fallbackThreads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Virtual threads are not available on this JVM, using {} platform threads.", fallbackThreads);
+            return newPlatformThreadExecutor(fallbackThreads);
+        }
+    }
+
+    private static ExecutorService newPlatformThreadExecutor(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "employee-client-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+}
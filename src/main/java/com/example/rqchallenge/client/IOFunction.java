@@ -0,0 +1,25 @@
+package com.example.rqchallenge.client;
+
+import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * A Function that may throw an IOException, so that the EmployeeUtil readers
+ * can be used as CompletableFuture stages.
+ */
+@FunctionalInterface
+interface IOFunction<T, R> {
+
+    R apply(T value) throws IOException;
+
+    static <T, R> Function<T, R> unchecked(IOFunction<T, R> function) {
+        return value -> {
+            try {
+                return function.apply(value);
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        };
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.rqchallenge.client;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * The SingleFlight shares one in-flight asynchronous call between concurrent callers asking
+ * for the same key. The first caller starts the call, callers arriving while it runs attach
+ * to it, and the key is released as soon as the call completes, so that results are never
+ * served past their own call.
+ *
+ * It counts, for its whole key space, how many callers were served, how many upstream calls
+ * were actually made and how long callers waited, to show how many calls were saved.
+ */
+public class SingleFlight<K, V> {
+
+    private final String name;
+    private final ConcurrentMap<K, Flight<V>> flights = new ConcurrentHashMap<>();
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder waitNanosTotal = new LongAdder();
+    private final LongAccumulator waitNanosMax = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator fanInMax = new LongAccumulator(Math::max, 0);
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * This method returns the result of the call running for the key, starting it when none is.
+     * Every caller gets its own dependent future, so cancelling one does not affect the others.
+     *
+     * @param key  key of the requested resource
+     * @param call starts the upstream call, only invoked by the first caller
+     */
+    public CompletableFuture<V> execute(K key, Supplier<CompletableFuture<V>> call) {
+        long start = System.nanoTime();
+        requests.increment();
+
+        Flight<V> flight;
+        while (true) {
+            Flight<V> created = new Flight<>();
+            flight = flights.putIfAbsent(key, created);
+            if (flight == null) {
+                flight = created;
+                start(key, flight, call);
+                break;
+            }
+            if (flight.join()) {
+                break;
+            }
+        }
+
+        return flight.result.whenComplete((value, error) -> {
+            long waited = System.nanoTime() - start;
+            waitNanosTotal.add(waited);
+            waitNanosMax.accumulate(waited);
+        });
+    }
+
+    public SingleFlightStats getStats() {
+        long requestCount = requests.sum();
+        long callCount = calls.sum();
+        return new SingleFlightStats(
+                name,
+                requestCount,
+                callCount,
+                requestCount - callCount,
+                flights.size(),
+                fanInMax.get(),
+                requestCount == 0 ? 0 : nanosToMillis(waitNanosTotal.sum()) / requestCount,
+                nanosToMillis(waitNanosMax.get()));
+    }
+
+    private void start(K key, Flight<V> flight, Supplier<CompletableFuture<V>> call) {
+        calls.increment();
+
+        CompletableFuture<V> upstream;
+        try {
+            upstream = call.get();
+        } catch (RuntimeException e) {
+            upstream = CompletableFuture.failedFuture(e);
+        }
+
+        /*
+           The key is released before the callers are completed, a caller arriving
+           from one of their callbacks starts a new call instead of joining this one.
+        */
+        upstream.whenComplete((value, error) -> {
+            flights.remove(key, flight);
+            fanInMax.accumulate(flight.close());
+            if (error == null) {
+                flight.result.complete(value);
+            } else {
+                flight.result.completeExceptionally(error);
+            }
+        });
+    }
+
+    private static double nanosToMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * One running call and the number of callers attached to it.
+     * A closed flight no longer accepts callers.
+     */
+    private static class Flight<V> {
+        private static final int CLOSED = -1;
+
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final AtomicInteger callers = new AtomicInteger(1);
+
+        boolean join() {
+            while (true) {
+                int current = callers.get();
+                if (current == CLOSED) {
+                    return false;
+                }
+                if (callers.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        int close() {
+            return callers.getAndSet(CLOSED);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.rqchallenge.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Point in time view of the counters kept by a SingleFlight.
+ * coalescedRequests is the number of upstream calls saved.
+ */
+@Getter
+@AllArgsConstructor
+public class SingleFlightStats {
+    private String key;
+    private long requests;
+    private long upstreamCalls;
+    private long coalescedRequests;
+    private int inFlight;
+    private long maxFanIn;
+    private double averageWaitMillis;
+    private double maxWaitMillis;
+}
@@ -0,0 +1,23 @@
+package com.example.rqchallenge.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Point in time view of the connection pool, dispatcher and HTTP cache of the UpstreamHttpClient.
+ * Cache counts are 0 when the cache is disabled.
+ */
+@Getter
+@AllArgsConstructor
+public class UpstreamClientStats {
+    private int connections;
+    private int idleConnections;
+    private int maxIdleConnections;
+    private int runningCalls;
+    private int queuedCalls;
+    private int maxRequests;
+    private int maxRequestsPerHost;
+    private int cacheRequests;
+    private int cacheHits;
+    private int cacheNetworkResponses;
+}
@@ -0,0 +1,179 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.monitoring.UpstreamMetrics;
+import com.example.rqchallenge.util.UpstreamRoute;
+import okhttp3.Cache;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The UpstreamHttpClient sends the requests of the EmployeeClient implementations, with
+ * the connection pool, dispatcher limits, protocols and HTTP cache of the UpstreamProperties.
+ *
+ * Every attempt first waits for its turn in the UpstreamScheduler, which paces the calls under
+ * the upstream's rate limit and sends throttled requests again, on a new call each time.
+ * The circuit breaker runs first, calls it rejects never reach the metrics interceptor.
+ * Cached responses, revalidated with the upstream's ETag or Last-Modified when stale,
+ * are answered below both interceptors, so they count as regular calls.
+ */
+public class UpstreamHttpClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UpstreamHttpClient.class);
+
+    private final String baseUrl;
+    private final int maxIdleConnections;
+    private final CircuitBreakerInterceptor circuitBreakerInterceptor;
+    private final UpstreamScheduler scheduler;
+    private final OkHttpClient okHttpClient;
+
+    public UpstreamHttpClient(UpstreamProperties properties) {
+        this.baseUrl = properties.getBaseUrl();
+        this.maxIdleConnections = properties.getPool().getMaxIdleConnections();
+        this.circuitBreakerInterceptor = new CircuitBreakerInterceptor(properties.getCircuitBreaker(),
+                Math.max(properties.getConnectTimeout().toMillis(), properties.getReadTimeout().toMillis()));
+        this.scheduler = new UpstreamScheduler(properties.getRateLimit(), properties.getRetry());
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(properties.getDispatcher().getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(properties.getDispatcher().getMaxRequestsPerHost());
+
+        OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                .connectTimeout(properties.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(properties.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(maxIdleConnections,
+                        properties.getPool().getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(properties.isHttp2()
+                        ? Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : Collections.singletonList(Protocol.HTTP_1_1))
+                .addInterceptor(circuitBreakerInterceptor)
+                .addInterceptor(UpstreamMetrics.interceptor());
+
+        String cacheDirectory = properties.getCache().getDirectory();
+        if (cacheDirectory != null && !cacheDirectory.isBlank()) {
+            builder.cache(new Cache(new File(cacheDirectory), properties.getCache().getMaxSize().toBytes()));
+        }
+        this.okHttpClient = builder.build();
+        UpstreamMetrics.bindClient(this);
+        UpstreamMetrics.bindScheduler(scheduler);
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public Response execute(Request request) throws IOException {
+        UpstreamRoute route = UpstreamMetrics.routeOf(request);
+        for (int attempt = 1; ; attempt++) {
+            await(scheduler.acquire(route, attempt > 1));
+            Response response = okHttpClient.newCall(request).execute();
+            if (!scheduler.shouldRetry(response, attempt)) {
+                return response;
+            }
+            response.close();
+        }
+    }
+
+    /**
+     * This method sends the request on OkHttp's dispatcher threads instead of the calling thread.
+     * The returned future completes with the response, which the caller has to close.
+     * No thread is held while the request waits for the UpstreamScheduler.
+     */
+    public CompletableFuture<Response> executeAsync(Request request) {
+        CompletableFuture<Response> future = new CompletableFuture<>();
+        sendAsync(request, UpstreamMetrics.routeOf(request), 1, future);
+        return future;
+    }
+
+    private void sendAsync(Request request, UpstreamRoute route, int attempt, CompletableFuture<Response> future) {
+        scheduler.acquire(route, attempt > 1).whenComplete((granted, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+                return;
+            }
+            okHttpClient.newCall(request).enqueue(new Callback() {
+                @Override
+                public void onFailure(Call call, IOException e) {
+                    future.completeExceptionally(e);
+                }
+
+                @Override
+                public void onResponse(Call call, Response response) {
+                    if (scheduler.shouldRetry(response, attempt)) {
+                        response.close();
+                        sendAsync(request, route, attempt + 1, future);
+                    } else {
+                        future.complete(response);
+                    }
+                }
+            });
+        });
+    }
+
+    private static void await(CompletableFuture<Void> turn) throws IOException {
+        try {
+            turn.get();
+        } catch (InterruptedException e) {
+            turn.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to call the upstream.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    public List<CircuitBreakerStats> getCircuitBreakerStats() {
+        return circuitBreakerInterceptor.getStats();
+    }
+
+    public UpstreamSchedulerStats getSchedulerStats() {
+        return scheduler.getStats();
+    }
+
+    public UpstreamClientStats getStats() {
+        ConnectionPool pool = okHttpClient.connectionPool();
+        Dispatcher dispatcher = okHttpClient.dispatcher();
+        Cache cache = okHttpClient.cache();
+        return new UpstreamClientStats(pool.connectionCount(), pool.idleConnectionCount(), maxIdleConnections,
+                dispatcher.runningCallsCount(), dispatcher.queuedCallsCount(),
+                dispatcher.getMaxRequests(), dispatcher.getMaxRequestsPerHost(),
+                cache == null ? 0 : cache.requestCount(),
+                cache == null ? 0 : cache.hitCount(),
+                cache == null ? 0 : cache.networkCount());
+    }
+
+    public void shutdown() {
+        scheduler.shutdown();
+        okHttpClient.dispatcher().executorService().shutdown();
+        okHttpClient.connectionPool().evictAll();
+        Cache cache = okHttpClient.cache();
+        if (cache != null) {
+            try {
+                cache.close();
+            } catch (IOException e) {
+                LOGGER.warn("Failed to close the upstream HTTP cache.", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.rqchallenge.client;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * The UpstreamProperties holds the upstream.* settings of the UpstreamHttpClient.
+ * Defaults are the values the service ran with before they were configurable, except
+ * the dispatcher and pool sizes: OkHttp's 5 requests per host serialized the batches.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "upstream")
+public class UpstreamProperties {
+
+    private String baseUrl = "https://dummy.restapiexample.com/api/v1";
+
+    /**
+     * Upper bounds of the connect and read timeouts the circuit breakers adapt per route.
+     */
+    private Duration connectTimeout = Duration.ofSeconds(15);
+    private Duration readTimeout = Duration.ofSeconds(15);
+
+    /**
+     * Offer HTTP/2 through ALPN on https, falling back to HTTP/1.1 when the upstream declines.
+     */
+    private boolean http2 = true;
+
+    private final Pool pool = new Pool();
+    private final Dispatcher dispatcher = new Dispatcher();
+    private final Cache cache = new Cache();
+    private final CircuitBreakerSettings circuitBreaker = new CircuitBreakerSettings();
+    private final RateLimit rateLimit = new RateLimit();
+    private final Retry retry = new Retry();
+
+    @Getter
+    @Setter
+    public static class Pool {
+        private int maxIdleConnections = 64;
+        private Duration keepAlive = Duration.ofMinutes(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Dispatcher {
+        private int maxRequests = 128;
+        private int maxRequestsPerHost = 64;
+    }
+
+    /**
+     * HTTP cache of upstream GET responses, disabled when the directory is empty.
+     */
+    @Getter
+    @Setter
+    public static class Cache {
+        private String directory = "";
+        private DataSize maxSize = DataSize.ofMegabytes(50);
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreakerSettings {
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 0.5;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private double timeoutMultiplier = 3;
+        private Duration minTimeout = Duration.ofSeconds(1);
+    }
+
+    /**
+     * Token bucket and lanes of the UpstreamScheduler, disabled when requestsPerSecond is 0.
+     */
+    @Getter
+    @Setter
+    public static class RateLimit {
+        private double requestsPerSecond = 10;
+        private double burst = 10;
+        private double minRequestsPerSecond = 1;
+        private Duration recovery = Duration.ofSeconds(30);
+        private int maxQueue = 1000;
+        private Duration maxWait = Duration.ofSeconds(10);
+    }
+
+    /**
+     * Retries of throttled upstream requests.
+     */
+    @Getter
+    @Setter
+    public static class Retry {
+        private int maxAttempts = 3;
+        private Duration baseBackoff = Duration.ofMillis(200);
+        private Duration maxDelay = Duration.ofSeconds(5);
+        private double budgetRatio = 0.2;
+        private double budgetPerSecond = 1;
+    }
+}
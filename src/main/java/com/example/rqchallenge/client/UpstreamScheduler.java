@@ -0,0 +1,433 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.exceptions.UpstreamUnavailableException;
+import com.example.rqchallenge.monitoring.UpstreamMetrics;
+import com.example.rqchallenge.util.UpstreamRoute;
+import okhttp3.Response;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The UpstreamScheduler paces the requests of the UpstreamHttpClient so that the upstream's rate
+ * limiter is not tripped, and decides which throttled requests are sent again.
+ *
+ * Token bucket: a request is sent once it gets a token. Tokens refill at requestsPerSecond, up to
+ * burst. A 429 halves the rate (not below minRequestsPerSecond) and empties the bucket, the rate
+ * then grows back linearly to requestsPerSecond over recovery. The rate is halved at most once per
+ * RATE_CUT_INTERVAL_NANOS, and not by 429s answered while the scheduler is paused, so that the
+ * requests already in flight when the limiter kicks in do not halve it again.
+ *
+ * Lanes: requests waiting for a token queue in one of two lanes, creates and deletes (WRITE) ahead
+ * of reads (READ), which the caches can serve stale meanwhile. Each lane holds at most maxQueue
+ * requests, and a request waits at most maxWait; both fail with an UpstreamUnavailableException.
+ *
+ * Retries: a 429, or a 503 to a GET carrying a Retry-After, pauses every lane for the Retry-After
+ * (or an exponential backoff with full jitter when there is none), capped at maxRetryDelay. The
+ * request is then sent again, through the bucket, unless it made maxAttempts attempts or the
+ * global retry budget is spent. Every first attempt deposits retryBudgetRatio into the budget,
+ * which also refills at retryBudgetPerSecond, starts full and holds at most what
+ * BUDGET_WINDOW_SECONDS of traffic at requestsPerSecond deposits. Other failures are never
+ * retried: the upstream may have processed them.
+ *
+ * A requestsPerSecond of 0 disables the bucket and the lanes, pauses and retries still apply.
+ */
+public class UpstreamScheduler {
+
+    public enum Lane {
+        WRITE, READ
+    }
+
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final double BUDGET_WINDOW_SECONDS = 10;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+    private static final long RATE_CUT_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double maxRate;
+    private final double minRate;
+    private final double burst;
+    private final long recoveryNanos;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final int maxAttempts;
+    private final long baseBackoffNanos;
+    private final long maxRetryDelayNanos;
+    private final double retryBudgetRatio;
+    private final double retryBudgetPerSecond;
+    private final double maxRetryBudget;
+    private final ScheduledExecutorService timer;
+
+    /*
+       Guarded by this. The lock is held for a few arithmetic operations and
+       queue moves per request, futures are completed outside of it.
+    */
+    private double tokens;
+    private long refilledAtNanos;
+    private double throttledRate;
+    private long throttledAtNanos;
+    private boolean throttledOnce;
+    private long pausedUntilNanos;
+    private final EnumMap<Lane, ArrayDeque<Pending>> queues = new EnumMap<>(Lane.class);
+    private int queued;
+    private ScheduledFuture<?> drainTask;
+    private long drainAtNanos;
+    private double retryBudget;
+    private long budgetRefilledAtNanos;
+
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder waitNanosTotal = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder retriesDenied = new LongAdder();
+
+    public UpstreamScheduler(UpstreamProperties.RateLimit rateLimit, UpstreamProperties.Retry retry) {
+        this.maxRate = rateLimit.getRequestsPerSecond();
+        this.minRate = Math.min(rateLimit.getMinRequestsPerSecond(), maxRate);
+        this.burst = Math.max(1, rateLimit.getBurst());
+        this.recoveryNanos = Math.max(1, rateLimit.getRecovery().toNanos());
+        this.maxQueue = rateLimit.getMaxQueue();
+        this.maxWaitNanos = rateLimit.getMaxWait().toNanos();
+        this.maxAttempts = retry.getMaxAttempts();
+        this.baseBackoffNanos = retry.getBaseBackoff().toNanos();
+        this.maxRetryDelayNanos = retry.getMaxDelay().toNanos();
+        this.retryBudgetRatio = retry.getBudgetRatio();
+        this.retryBudgetPerSecond = retry.getBudgetPerSecond();
+        this.maxRetryBudget = Math.max(1, (maxRate * retryBudgetRatio + retryBudgetPerSecond) * BUDGET_WINDOW_SECONDS);
+
+        long now = System.nanoTime();
+        this.tokens = burst;
+        this.refilledAtNanos = now;
+        this.pausedUntilNanos = now;
+        this.retryBudget = maxRetryBudget;
+        this.budgetRefilledAtNanos = now;
+        for (Lane lane : Lane.values()) {
+            queues.put(lane, new ArrayDeque<>());
+        }
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "upstream-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public static Lane laneOf(UpstreamRoute route) {
+        return route == UpstreamRoute.CREATE_EMPLOYEE || route == UpstreamRoute.DELETE_EMPLOYEE ? Lane.WRITE : Lane.READ;
+    }
+
+    /**
+     * This method returns a future completed once the request may be sent. It is completed at once
+     * when nothing is queued and a token is left, and failed with an UpstreamUnavailableException
+     * when the lane is full or the request waited for maxWait.
+     *
+     * @param route route of the request
+     * @param retry whether the request is sent again after being throttled
+     */
+    public CompletableFuture<Void> acquire(UpstreamRoute route, boolean retry) {
+        long now = System.nanoTime();
+        if (!retry) {
+            depositRetryBudget(now);
+        }
+        if (maxRate <= 0) {
+            granted.increment();
+            long pausedNanos;
+            synchronized (this) {
+                pausedNanos = pausedUntilNanos - now;
+            }
+            if (pausedNanos <= 0) {
+                return CompletableFuture.completedFuture(null);
+            }
+            CompletableFuture<Void> resumed = new CompletableFuture<>();
+            timer.schedule(() -> resumed.complete(null), pausedNanos, TimeUnit.NANOSECONDS);
+            return resumed;
+        }
+
+        Lane lane = laneOf(route);
+        Pending pending;
+        synchronized (this) {
+            if (queued == 0 && now >= pausedUntilNanos) {
+                refill(now);
+                if (tokens >= 1) {
+                    tokens -= 1;
+                    granted.increment();
+                    return CompletableFuture.completedFuture(null);
+                }
+            }
+            ArrayDeque<Pending> queue = queues.get(lane);
+            if (queue.size() >= maxQueue) {
+                rejected.increment();
+                UpstreamMetrics.recordSchedulerRejection(lane, "queue_full");
+                return CompletableFuture.failedFuture(new UpstreamUnavailableException(
+                        String.format("Upstream %s queue is full, %d requests are waiting.", lane, queue.size())));
+            }
+            pending = new Pending(lane, now);
+            queue.add(pending);
+            queued++;
+            scheduleDrain(now);
+        }
+        return pending.future;
+    }
+
+    /**
+     * This method tells whether a request answered with the given response should be sent again.
+     * Throttled responses pause every lane either way, for the delay the upstream asked for.
+     *
+     * @param attempt attempts made so far, 1 for the first one
+     */
+    public boolean shouldRetry(Response response, int attempt) {
+        int code = response.code();
+        String retryAfter = response.header("Retry-After");
+        if (code != TOO_MANY_REQUESTS
+                && !(code == SERVICE_UNAVAILABLE && retryAfter != null && "GET".equals(response.request().method()))) {
+            return false;
+        }
+
+        long now = System.nanoTime();
+        long retryAfterNanos = parseRetryAfterNanos(retryAfter, System.currentTimeMillis());
+        long delayNanos = retryAfterNanos >= 0 ? retryAfterNanos : backoffNanos(attempt);
+        UpstreamRoute route = UpstreamMetrics.routeOf(response.request());
+        throttled.increment();
+        onThrottled(now, Math.min(delayNanos, maxRetryDelayNanos), code == TOO_MANY_REQUESTS);
+
+        String outcome;
+        boolean retry = false;
+        if (attempt >= maxAttempts) {
+            outcome = "attempts_exhausted";
+        } else if (delayNanos > maxRetryDelayNanos) {
+            outcome = "delay_too_long";
+        } else if (!withdrawRetryBudget(now)) {
+            outcome = "budget_exhausted";
+        } else {
+            outcome = "retried";
+            retry = true;
+        }
+        if (retry) {
+            retries.increment();
+        } else {
+            retriesDenied.increment();
+        }
+        UpstreamMetrics.recordThrottled(route, outcome);
+        return retry;
+    }
+
+    public UpstreamSchedulerStats getStats() {
+        long now = System.nanoTime();
+        double rate;
+        double available;
+        long pausedFor;
+        int queuedWrites;
+        int queuedReads;
+        double budget;
+        synchronized (this) {
+            refill(now);
+            rate = maxRate <= 0 ? 0 : currentRate(now);
+            available = maxRate <= 0 ? 0 : tokens;
+            pausedFor = Math.max(0, pausedUntilNanos - now);
+            queuedWrites = queues.get(Lane.WRITE).size();
+            queuedReads = queues.get(Lane.READ).size();
+            refillRetryBudget(now);
+            budget = retryBudget;
+        }
+        long waitedCount = waited.sum();
+        return new UpstreamSchedulerStats(rate, available, TimeUnit.NANOSECONDS.toMillis(pausedFor),
+                queuedWrites, queuedReads, granted.sum(), waitedCount,
+                waitedCount == 0 ? 0 : waitNanosTotal.sum() / 1_000_000.0 / waitedCount,
+                rejected.sum(), throttled.sum(), retries.sum(), retriesDenied.sum(), budget);
+    }
+
+    public synchronized int getQueued(Lane lane) {
+        return queues.get(lane).size();
+    }
+
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * This method returns the delay a Retry-After header asks for, given as seconds or as an HTTP
+     * date, or -1 when there is none or it can not be read.
+     */
+    static long parseRetryAfterNanos(String retryAfter, long nowMillis) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        String value = retryAfter.trim();
+        try {
+            long seconds = Long.parseLong(value);
+            return seconds < 0 ? -1 : TimeUnit.SECONDS.toNanos(seconds);
+        } catch (NumberFormatException e) {
+            // An HTTP date then.
+        }
+        try {
+            long at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, at - nowMillis));
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private long backoffNanos(int attempt) {
+        long ceiling = baseBackoffNanos << Math.min(attempt - 1, 20);
+        if (ceiling <= 0 || ceiling > maxRetryDelayNanos) {
+            ceiling = maxRetryDelayNanos;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private synchronized void onThrottled(long now, long pauseNanos, boolean cutRate) {
+        if (cutRate && now >= pausedUntilNanos
+                && (!throttledOnce || now - throttledAtNanos >= RATE_CUT_INTERVAL_NANOS)) {
+            throttledRate = Math.max(minRate, currentRate(now) / 2);
+            throttledAtNanos = now;
+            throttledOnce = true;
+            tokens = 0;
+            refilledAtNanos = now;
+        }
+        pausedUntilNanos = Math.max(pausedUntilNanos, now + pauseNanos);
+    }
+
+    private double currentRate(long now) {
+        if (!throttledOnce) {
+            return maxRate;
+        }
+        double recovered = throttledRate + (maxRate - throttledRate) * (now - throttledAtNanos) / recoveryNanos;
+        return Math.min(maxRate, recovered);
+    }
+
+    /*
+       Tokens do not accumulate while paused: the bucket starts filling when the pause ends.
+    */
+    private void refill(long now) {
+        long from = Math.max(refilledAtNanos, pausedUntilNanos);
+        if (now > from) {
+            tokens = Math.min(burst, tokens + (now - from) * currentRate(now) / NANOS_PER_SECOND);
+        }
+        refilledAtNanos = Math.max(refilledAtNanos, now);
+    }
+
+    /*
+       Wakes up when the next token is due, or when the oldest request of a lane
+       reaches maxWait, whichever comes first.
+    */
+    private void scheduleDrain(long now) {
+        refill(now);
+        long readyAt = Math.max(pausedUntilNanos, now);
+        if (tokens < 1) {
+            readyAt += (long) Math.min(maxWaitNanos, (1 - tokens) / currentRate(readyAt) * NANOS_PER_SECOND);
+        }
+        long wakeAt = readyAt;
+        for (ArrayDeque<Pending> queue : queues.values()) {
+            Pending oldest = queue.peek();
+            if (oldest != null) {
+                wakeAt = Math.min(wakeAt, oldest.queuedAtNanos + maxWaitNanos);
+            }
+        }
+        if (drainTask != null) {
+            if (drainAtNanos <= wakeAt) {
+                return;
+            }
+            drainTask.cancel(false);
+        }
+        drainAtNanos = wakeAt;
+        drainTask = timer.schedule(this::drain, Math.max(0, wakeAt - now), TimeUnit.NANOSECONDS);
+    }
+
+    private void drain() {
+        List<Pending> ready = new ArrayList<>();
+        List<Pending> expired = new ArrayList<>();
+        long now = System.nanoTime();
+        synchronized (this) {
+            drainTask = null;
+            for (ArrayDeque<Pending> queue : queues.values()) {
+                Pending oldest;
+                while ((oldest = queue.peek()) != null
+                        && (oldest.future.isDone() || now - oldest.queuedAtNanos >= maxWaitNanos)) {
+                    queue.poll();
+                    queued--;
+                    expired.add(oldest);
+                }
+            }
+            if (now >= pausedUntilNanos) {
+                refill(now);
+                for (ArrayDeque<Pending> queue : queues.values()) {
+                    while (tokens >= 1 && !queue.isEmpty()) {
+                        Pending next = queue.poll();
+                        queued--;
+                        if (!next.future.isDone()) {
+                            tokens -= 1;
+                            ready.add(next);
+                        }
+                    }
+                }
+            }
+            if (queued > 0) {
+                scheduleDrain(now);
+            }
+        }
+
+        for (Pending pending : expired) {
+            if (!pending.future.isDone()) {
+                rejected.increment();
+                UpstreamMetrics.recordSchedulerRejection(pending.lane, "timeout");
+                pending.future.completeExceptionally(new UpstreamUnavailableException(String.format(
+                        "Upstream %s request waited %d ms without being sent.", pending.lane,
+                        TimeUnit.NANOSECONDS.toMillis(now - pending.queuedAtNanos))));
+            }
+        }
+        for (Pending pending : ready) {
+            long waitNanos = now - pending.queuedAtNanos;
+            granted.increment();
+            waited.increment();
+            waitNanosTotal.add(waitNanos);
+            UpstreamMetrics.recordSchedulerWait(pending.lane, waitNanos);
+            pending.future.complete(null);
+        }
+    }
+
+    private synchronized void depositRetryBudget(long now) {
+        refillRetryBudget(now);
+        retryBudget = Math.min(maxRetryBudget, retryBudget + retryBudgetRatio);
+    }
+
+    private synchronized boolean withdrawRetryBudget(long now) {
+        refillRetryBudget(now);
+        if (retryBudget < 1) {
+            return false;
+        }
+        retryBudget -= 1;
+        return true;
+    }
+
+    private void refillRetryBudget(long now) {
+        retryBudget = Math.min(maxRetryBudget, retryBudget + (now - budgetRefilledAtNanos) * retryBudgetPerSecond / NANOS_PER_SECOND);
+        budgetRefilledAtNanos = now;
+    }
+
+    /**
+     * A request waiting in a lane for a token.
+     */
+    private static class Pending {
+        private final Lane lane;
+        private final long queuedAtNanos;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        Pending(Lane lane, long queuedAtNanos) {
+            this.lane = lane;
+            this.queuedAtNanos = queuedAtNanos;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.rqchallenge.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Point in time view of the token bucket, lanes and retry budget of the UpstreamScheduler.
+ * The rate and tokens are 0 when the bucket is disabled.
+ */
+@Getter
+@AllArgsConstructor
+public class UpstreamSchedulerStats {
+    private double requestsPerSecond;
+    private double availableTokens;
+    private long pausedForMillis;
+    private int queuedWrites;
+    private int queuedReads;
+    private long granted;
+    private long waited;
+    private double averageWaitMillis;
+    private long rejected;
+    private long throttled;
+    private long retries;
+    private long retriesDenied;
+    private double retryBudget;
+}
@@ -1,64 +1,237 @@
 package com.example.rqchallenge.employees;
 
+import com.example.rqchallenge.cache.EmployeeByIdCache;
+import com.example.rqchallenge.cache.EmployeeSnapshot;
+import com.example.rqchallenge.cache.EmployeeSnapshotCache;
+import com.example.rqchallenge.client.BoundedFanOut;
+import com.example.rqchallenge.client.EmployeeClient;
+import com.example.rqchallenge.entity.AgeBandStats;
+import com.example.rqchallenge.entity.BatchItemResult;
+import com.example.rqchallenge.entity.DistributionStats;
 import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.entity.EmployeeInput;
+import com.example.rqchallenge.entity.EmployeeField;
+import com.example.rqchallenge.entity.EmployeeRows;
 import com.example.rqchallenge.entity.ResponseStatus;
-import com.example.rqchallenge.exceptions.ResourceNotFoundException;
-import com.example.rqchallenge.util.EmployeeUtil;
+import com.example.rqchallenge.exceptions.BadRequestException;
+import com.example.rqchallenge.exceptions.UpstreamUnavailableException;
+import com.example.rqchallenge.index.NameSearchIndex;
+import com.example.rqchallenge.index.RangeIndex;
+import com.example.rqchallenge.index.RangeMatches;
+import com.example.rqchallenge.index.SalaryIndex;
+import com.example.rqchallenge.util.EmployeeJson;
+import com.example.rqchallenge.util.PageCursor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.inject.Inject;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.LongToIntFunction;
+import java.util.zip.GZIPOutputStream;
 
 
 /**
  * The EmployeeControllerImpl contains implementation
  * of all rest apis defined in the IEmployeeController.
+ *
+ * List based reads are served from the EmployeeSnapshotCache, endpoints that
+ * need the upstream return futures so no request thread waits on it.
  */
 @Component
 public class EmployeeControllerImpl implements IEmployeeController {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(EmployeeControllerImpl.class);
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final int EXPORT_BUFFER_SIZE = 8192;
+    private static final int MAX_STATS_BUCKETS = 1000;
+    private static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final String INVALID_INPUT = "Invalid age or salary.";
 
+    private final EmployeeSnapshotCache employeeSnapshotCache;
+    private final EmployeeByIdCache employeeByIdCache;
+    private final EmployeeClient employeeClient;
+    private final int batchMaxSize;
+    private final int batchMaxConcurrency;
+
+    @Inject
+    public EmployeeControllerImpl(EmployeeSnapshotCache employeeSnapshotCache,
+                                  EmployeeByIdCache employeeByIdCache,
+                                  EmployeeClient employeeClient,
+                                  @Value("${employee.batch.max-size:5000}") int batchMaxSize,
+                                  @Value("${employee.batch.max-concurrency:8}") int batchMaxConcurrency) {
+        this.employeeSnapshotCache = employeeSnapshotCache;
+        this.employeeByIdCache = employeeByIdCache;
+        this.employeeClient = employeeClient;
+        this.batchMaxSize = batchMaxSize;
+        this.batchMaxConcurrency = batchMaxConcurrency;
+    }
+
+    /**
+     * Without a limit the whole list is returned. With one, the page is a view over the
+     * cached snapshot and the cursor of the next page, if any, is sent in the X-Next-Cursor header.
+     */
+    @Override
+    public ResponseEntity<EmployeeRows> getAllEmployees(Integer limit, String cursor, String fields) throws IOException {
+        checkLimit(limit);
+        Set<EmployeeField> selectedFields = EmployeeField.parse(fields);
+        EmployeeSnapshot snapshot = employeeSnapshotCache.getSnapshot();
+        List<Employee> employeeList = snapshot.getEmployees();
+
+        int from = cursor == null ? 0 : resumePosition(snapshot, PageCursor.decode(cursor));
+        from = Math.min(from, employeeList.size());
+        int to = limit == null ? employeeList.size() : (int) Math.min((long) from + limit, employeeList.size());
+        List<Employee> page = employeeList.subList(from, to);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (to < employeeList.size() && to > from) {
+            headers.set(PageCursor.NEXT_CURSOR_HEADER, new PageCursor(to, page.get(page.size() - 1).getId()).encode());
+        }
+        return new ResponseEntity<>(new EmployeeRows(page, selectedFields), headers, HttpStatus.OK);
+    }
+
+    /**
+     * The export streams the snapshot current when the request came in, as newline delimited
+     * JSON, gzipped when the client accepts it. Rows are written as they are read from the
+     * snapshot, so no list or array of the whole roster is built.
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportEmployees(String fields, String acceptEncoding) throws IOException {
+        Set<EmployeeField> selectedFields = EmployeeField.parse(fields);
+        List<Employee> employeeList = employeeSnapshotCache.getSnapshot().getEmployees();
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ROOT).contains("gzip");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(NDJSON);
+        headers.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        StreamingResponseBody body = outputStream -> {
+            if (gzip) {
+                GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream, EXPORT_BUFFER_SIZE);
+                EmployeeJson.writeNdjson(employeeList, selectedFields, gzipStream);
+                gzipStream.finish();
+            } else {
+                EmployeeJson.writeNdjson(employeeList, selectedFields, outputStream);
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
+    }
+
+    /**
+     * A cursor, when given, replaces the offset: the page starts right after the last match
+     * served when it still matches, otherwise at the position the previous page ended.
+     */
     @Override
-    public ResponseEntity<List<Employee>> getAllEmployees() throws IOException {
-        return new ResponseEntity<>(EmployeeUtil.getAllEmployeesList(), HttpStatus.OK);
+    public ResponseEntity<EmployeeRows> getEmployeesByNameSearch(String searchString, int offset, Integer limit,
+                                                                 String cursor, String fields) throws IOException {
+        if (offset < 0) {
+            throw new BadRequestException("offset and limit must not be negative.");
+        }
+        checkLimit(limit);
+        Set<EmployeeField> selectedFields = EmployeeField.parse(fields);
+        NameSearchIndex nameSearchIndex = employeeSnapshotCache.getSnapshot().getNameSearchIndex();
+        int from = cursor == null ? offset
+                : resumeMatch(PageCursor.decode(cursor), lastId -> nameSearchIndex.matchPosition(searchString, lastId));
+
+        /*
+           One more match than asked for tells whether there is a next page.
+        */
+        List<Employee> employeeList = nameSearchIndex.search(searchString, from, limit == null ? Integer.MAX_VALUE : limit + 1);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (limit != null && employeeList.size() > limit) {
+            employeeList = employeeList.subList(0, limit);
+            if (limit > 0) {
+                headers.set(PageCursor.NEXT_CURSOR_HEADER,
+                        new PageCursor(from + limit, employeeList.get(limit - 1).getId()).encode());
+            }
+        }
+        return new ResponseEntity<>(new EmployeeRows(employeeList, selectedFields), headers, HttpStatus.OK);
     }
 
+    /**
+     * Missing bounds are open. The number of all matches is sent in the X-Total-Count header,
+     * the cursor of the next page, if any, in the X-Next-Cursor header. As for the search, the
+     * next page starts right after the last match served when it is still in the bounds.
+     */
     @Override
-    public ResponseEntity<List<Employee>> getEmployeesByNameSearch(String searchString) throws IOException {
-        List<Employee> employeeList = EmployeeUtil.getAllEmployeesList()
-                .stream()
-                .filter(employee -> employee.getEmployeeName()
-                                            .matches("(?i).*" + searchString + ".*"))
-                .collect(Collectors.toList());
+    public ResponseEntity<EmployeeRows> getEmployeesByRange(Integer minSalary, Integer maxSalary, Integer minAge, Integer maxAge,
+                                                            Integer limit, String cursor, String fields) throws IOException {
+        checkLimit(limit);
+        Set<EmployeeField> selectedFields = EmployeeField.parse(fields);
+        int lowestSalary = minSalary == null ? Integer.MIN_VALUE : minSalary;
+        int highestSalary = maxSalary == null ? Integer.MAX_VALUE : maxSalary;
+        int lowestAge = minAge == null ? Integer.MIN_VALUE : minAge;
+        int highestAge = maxAge == null ? Integer.MAX_VALUE : maxAge;
+        RangeIndex rangeIndex = employeeSnapshotCache.getSnapshot().getRangeIndex();
+        int from = cursor == null ? 0 : resumeMatch(PageCursor.decode(cursor),
+                lastId -> rangeIndex.matchPosition(lowestSalary, highestSalary, lowestAge, highestAge, lastId));
+        int pageSize = limit == null ? Integer.MAX_VALUE : limit;
+
+        RangeMatches matches = rangeIndex.filter(lowestSalary, highestSalary, lowestAge, highestAge, from, pageSize);
+
+        List<Employee> page = matches.getEmployees();
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(TOTAL_COUNT_HEADER, String.valueOf(matches.getTotal()));
+        if (!page.isEmpty() && from + page.size() < matches.getTotal()) {
+            headers.set(PageCursor.NEXT_CURSOR_HEADER,
+                    new PageCursor(from + page.size(), page.get(page.size() - 1).getId()).encode());
+        }
+        return new ResponseEntity<>(new EmployeeRows(page, selectedFields), headers, HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<List<Employee>> getEmployeesByNamePrefix(String prefix, int limit) throws IOException {
+        if (limit < 0) {
+            throw new BadRequestException(String.format("limit must not be negative : %d", limit));
+        }
+        List<Employee> employeeList = employeeSnapshotCache.getSnapshot()
+                .getNameSearchIndex()
+                .autocomplete(prefix, limit);
 
         return new ResponseEntity<>(employeeList, HttpStatus.OK);
     }
 
+    /**
+     * Employees are read through the EmployeeByIdCache. While the upstream circuit is open
+     * the employee is served from the last cached snapshot, if it has one.
+     */
     @Override
-    public ResponseEntity<Employee> getEmployeeById(String id) throws IOException {
-        Employee employee = EmployeeUtil.getEmployeeById(id);
-        return new ResponseEntity<>(employee, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<Employee>> getEmployeeById(String id) {
+        return employeeByIdCache.getEmployee(id)
+                .handle((employee, error) -> {
+                    if (error == null) {
+                        return employee;
+                    }
+                    Employee cached = rootCause(error) instanceof UpstreamUnavailableException ? findCached(id) : null;
+                    if (cached == null) {
+                        throw error instanceof CompletionException ? (CompletionException) error : new CompletionException(error);
+                    }
+                    return cached;
+                })
+                .thenApply(employee -> new ResponseEntity<>(employee, HttpStatus.OK));
     }
 
     @Override
     public ResponseEntity<Integer> getHighestSalaryOfEmployees() throws IOException {
-        List<Employee> employeeList = EmployeeUtil.getAllEmployeesList();
-
-        if (!employeeList.isEmpty()) {
-            Integer highestSalary = EmployeeUtil.getAllEmployeesList()
-                    .stream()
-                    .max(Employee.employeeSalaryAcsendingComparator())
-                    .get()
-                    .getEmployeeSalary();
+        SalaryIndex salaryIndex = employeeSnapshotCache.getSnapshot().getSalaryIndex();
 
-            return new ResponseEntity<>(highestSalary, HttpStatus.OK);
+        if (!salaryIndex.isEmpty()) {
+            return new ResponseEntity<>(salaryIndex.getHighestSalary(), HttpStatus.OK);
         } else {
             LOGGER.error("No employees records found.");
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
@@ -67,29 +240,210 @@ public class EmployeeControllerImpl implements IEmployeeController {
 
     @Override
     public ResponseEntity<List<Employee>> getTopTenHighestEarningEmployeeNames() throws IOException {
-        int limit = 10;
-        List<Employee> employeeList = EmployeeUtil.getAllEmployeesList()
-                .stream()
-                .sorted(Employee.employeeSalaryDescendingComparator())
-                .limit(limit)
-                .collect(Collectors.toList());
+        return getTopHighestEarningEmployeeNames(10);
+    }
+
+    @Override
+    public ResponseEntity<List<Employee>> getTopHighestEarningEmployeeNames(int n) throws IOException {
+        if (n < 0) {
+            throw new BadRequestException(String.format("n must not be negative : %d", n));
+        }
+        List<Employee> employeeList = employeeSnapshotCache.getSnapshot()
+                .getSalaryIndex()
+                .getTopEarners(n);
 
         return new ResponseEntity<>(employeeList, HttpStatus.OK);
     }
 
+    /**
+     * Stats are read from the aggregates kept with the snapshot, min and max salary from the SalaryIndex.
+     */
+    @Override
+    public ResponseEntity<DistributionStats> getSalaryStats(int buckets) throws IOException {
+        checkBuckets(buckets);
+        EmployeeSnapshot snapshot = employeeSnapshotCache.getSnapshot();
+        SalaryIndex salaryIndex = snapshot.getSalaryIndex();
+        int min = salaryIndex.isEmpty() ? 0 : salaryIndex.getLowestSalary();
+        int max = salaryIndex.isEmpty() ? 0 : salaryIndex.getHighestSalary();
+
+        return new ResponseEntity<>(snapshot.getStats().getSalaryStats(buckets, min, max), HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<DistributionStats> getAgeStats(int buckets) throws IOException {
+        checkBuckets(buckets);
+        return new ResponseEntity<>(employeeSnapshotCache.getSnapshot().getStats().getAgeStats(buckets), HttpStatus.OK);
+    }
+
+    @Override
+    public ResponseEntity<List<AgeBandStats>> getSalaryByAgeBandStats(int buckets) throws IOException {
+        checkBuckets(buckets);
+        return new ResponseEntity<>(employeeSnapshotCache.getSnapshot().getStats().getSalaryByAgeBand(buckets), HttpStatus.OK);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<ResponseStatus>> createEmployee(EmployeeInput employeeInput) {
+        if (!employeeInput.isValid()) {
+            throw new BadRequestException(INVALID_INPUT);
+        }
+
+        return employeeClient.createEmployee(employeeInput.getName(), employeeInput.getSalary(), employeeInput.getAge())
+                .thenApply(employee -> {
+                    if (employee == null) {
+                        return new ResponseEntity<>(ResponseStatus.FAILURE, HttpStatus.CREATED);
+                    }
+                    applyCreated(employee);
+                    return new ResponseEntity<>(ResponseStatus.SUCCESS, HttpStatus.CREATED);
+                });
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<String>> deleteEmployeeById(String id) {
+        return employeeByIdCache.getEmployee(id)
+                .thenCompose(employeeClient::deleteEmployee)
+                .thenApply(deletedEmployee -> {
+                    applyDeleted(id);
+                    return new ResponseEntity<>(deletedEmployee, HttpStatus.OK);
+                });
+    }
+
     @Override
-    public ResponseEntity<ResponseStatus> createEmployee(Map<String, Object> employeeInput) throws IOException {
-        String name = EmployeeUtil.extractName(employeeInput);
-        int age = EmployeeUtil.extractAge(employeeInput);
-        int salary = EmployeeUtil.extractSalary(employeeInput);
+    public CompletableFuture<ResponseEntity<List<BatchItemResult>>> createEmployees(List<EmployeeInput> employeeInputs) {
+        checkBatchSize(employeeInputs.size());
 
-        ResponseStatus status = EmployeeUtil.createEmployee(name, salary, age);
-        return new ResponseEntity<>(status, HttpStatus.CREATED);
+        return BoundedFanOut.map(employeeInputs, batchMaxConcurrency, this::createBatchItem)
+                .thenApply(results -> new ResponseEntity<>(results, HttpStatus.CREATED));
     }
 
+    /**
+     * Names of the employees to delete are resolved from the cached snapshot, so each
+     * item costs a single upstream DELETE instead of a GET followed by a DELETE.
+     */
     @Override
-    public ResponseEntity<String> deleteEmployeeById(String id) throws IOException, ResourceNotFoundException {
-        String deletedEmployee = EmployeeUtil.deleteEmployee(id);
-        return new ResponseEntity<>(deletedEmployee, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<List<BatchItemResult>>> deleteEmployeesById(List<String> ids) throws IOException {
+        checkBatchSize(ids.size());
+        EmployeeSnapshot snapshot = employeeSnapshotCache.getSnapshot();
+
+        return BoundedFanOut.map(ids, batchMaxConcurrency, id -> deleteBatchItem(snapshot, id))
+                .thenApply(results -> new ResponseEntity<>(results, HttpStatus.OK));
+    }
+
+    private CompletableFuture<BatchItemResult> createBatchItem(EmployeeInput employeeInput) {
+        String name = employeeInput.getName();
+        if (!employeeInput.isValid()) {
+            return CompletableFuture.completedFuture(BatchItemResult.failure(null, name, INVALID_INPUT));
+        }
+
+        return employeeClient.createEmployee(name, employeeInput.getSalary(), employeeInput.getAge())
+                .handle((employee, error) -> {
+                    if (error != null) {
+                        return BatchItemResult.failure(null, name, rootMessage(error));
+                    }
+                    if (employee == null) {
+                        return new BatchItemResult(null, name, ResponseStatus.FAILURE, null);
+                    }
+                    applyCreated(employee);
+                    return new BatchItemResult(null, name, ResponseStatus.SUCCESS, null);
+                });
+    }
+
+    private CompletableFuture<BatchItemResult> deleteBatchItem(EmployeeSnapshot snapshot, String id) {
+        Employee employee;
+        try {
+            employee = snapshot.findById(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return CompletableFuture.completedFuture(BatchItemResult.failure(id, null, "Invalid id."));
+        }
+        if (employee == null) {
+            return CompletableFuture.completedFuture(
+                    BatchItemResult.failure(id, null, String.format("No entity found with id : %s", id)));
+        }
+
+        return employeeClient.deleteEmployee(employee)
+                .handle((deletedEmployee, error) -> {
+                    if (error != null) {
+                        return BatchItemResult.failure(id, employee.getEmployeeName(), rootMessage(error));
+                    }
+                    employeeSnapshotCache.applyDeleted(employee.getId());
+                    employeeByIdCache.applyDeleted(employee.getId());
+                    return BatchItemResult.success(id, deletedEmployee);
+                });
+    }
+
+    private void checkBuckets(int buckets) {
+        if (buckets < 0 || buckets > MAX_STATS_BUCKETS) {
+            throw new BadRequestException(String.format("buckets must be between 0 and %d : %d", MAX_STATS_BUCKETS, buckets));
+        }
+    }
+
+    private void checkLimit(Integer limit) {
+        if (limit != null && limit < 0) {
+            throw new BadRequestException("offset and limit must not be negative.");
+        }
+    }
+
+    /*
+       Resumes right after the last employee served when it is still there,
+       otherwise at the position the previous page ended.
+    */
+    private static int resumePosition(EmployeeSnapshot snapshot, PageCursor cursor) {
+        if (cursor.getLastId() != null) {
+            int position = snapshot.positionOf(cursor.getLastId());
+            if (position >= 0) {
+                return position + 1;
+            }
+        }
+        return cursor.getPosition();
+    }
+
+    /*
+       Same for the pages of a search or a filter, matchPosition giving the position
+       of the last employee served among the matches, or -1.
+    */
+    private static int resumeMatch(PageCursor cursor, LongToIntFunction matchPosition) {
+        if (cursor.getLastId() != null) {
+            int position = matchPosition.applyAsInt(cursor.getLastId());
+            if (position >= 0) {
+                return position + 1;
+            }
+        }
+        return cursor.getPosition();
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > batchMaxSize) {
+            throw new BadRequestException(String.format("Batch of %d items exceeds the maximum of %d.", size, batchMaxSize));
+        }
+    }
+
+    private void applyCreated(Employee employee) {
+        employeeSnapshotCache.applyCreated(employee);
+        employeeByIdCache.applyCreated(employee);
+    }
+
+    private void applyDeleted(String id) {
+        try {
+            employeeSnapshotCache.applyDeleted(Long.parseLong(id));
+            employeeByIdCache.applyDeleted(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            employeeSnapshotCache.invalidate();
+        }
+    }
+
+    private Employee findCached(String id) {
+        EmployeeSnapshot snapshot = employeeSnapshotCache.getLastSnapshot();
+        try {
+            return snapshot == null ? null : snapshot.findById(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String rootMessage(Throwable error) {
+        return rootCause(error).getMessage();
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
     }
 }
@@ -1,25 +1,55 @@
 package com.example.rqchallenge.employees;
 
+import com.example.rqchallenge.entity.AgeBandStats;
+import com.example.rqchallenge.entity.BatchItemResult;
+import com.example.rqchallenge.entity.DistributionStats;
 import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.entity.EmployeeInput;
+import com.example.rqchallenge.entity.EmployeeRows;
 import com.example.rqchallenge.entity.ResponseStatus;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public interface IEmployeeController {
 
     @GetMapping()
-    ResponseEntity<List<Employee>> getAllEmployees() throws IOException;
+    ResponseEntity<EmployeeRows> getAllEmployees(@RequestParam(required = false) Integer limit,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) String fields) throws IOException;
+
+    @GetMapping("/export")
+    ResponseEntity<StreamingResponseBody> exportEmployees(@RequestParam(required = false) String fields,
+                                                          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) throws IOException;
 
     @GetMapping("/search/{searchString}")
-    ResponseEntity<List<Employee>> getEmployeesByNameSearch(@PathVariable String searchString) throws IOException;
+    ResponseEntity<EmployeeRows> getEmployeesByNameSearch(@PathVariable String searchString,
+                                                          @RequestParam(defaultValue = "0") int offset,
+                                                          @RequestParam(required = false) Integer limit,
+                                                          @RequestParam(required = false) String cursor,
+                                                          @RequestParam(required = false) String fields) throws IOException;
+
+    @GetMapping("/filter")
+    ResponseEntity<EmployeeRows> getEmployeesByRange(@RequestParam(required = false) Integer minSalary,
+                                                     @RequestParam(required = false) Integer maxSalary,
+                                                     @RequestParam(required = false) Integer minAge,
+                                                     @RequestParam(required = false) Integer maxAge,
+                                                     @RequestParam(required = false) Integer limit,
+                                                     @RequestParam(required = false) String cursor,
+                                                     @RequestParam(required = false) String fields) throws IOException;
+
+    @GetMapping("/autocomplete/{prefix}")
+    ResponseEntity<List<Employee>> getEmployeesByNamePrefix(@PathVariable String prefix,
+                                                            @RequestParam(defaultValue = "10") int limit) throws IOException;
 
     @GetMapping("/{id}")
-    ResponseEntity<Employee> getEmployeeById(@PathVariable String id) throws IOException;
+    CompletableFuture<ResponseEntity<Employee>> getEmployeeById(@PathVariable String id);
 
     @GetMapping("/highestSalary")
     ResponseEntity<Integer> getHighestSalaryOfEmployees() throws IOException;
@@ -27,10 +57,28 @@ public interface IEmployeeController {
     @GetMapping("/topTenHighestEarningEmployeeNames")
     ResponseEntity<List<Employee>> getTopTenHighestEarningEmployeeNames() throws IOException;
 
+    @GetMapping("/topHighestEarningEmployeeNames")
+    ResponseEntity<List<Employee>> getTopHighestEarningEmployeeNames(@RequestParam(defaultValue = "10") int n) throws IOException;
+
+    @GetMapping("/stats/salary")
+    ResponseEntity<DistributionStats> getSalaryStats(@RequestParam(defaultValue = "10") int buckets) throws IOException;
+
+    @GetMapping("/stats/age")
+    ResponseEntity<DistributionStats> getAgeStats(@RequestParam(defaultValue = "10") int buckets) throws IOException;
+
+    @GetMapping("/stats/salary-by-age")
+    ResponseEntity<List<AgeBandStats>> getSalaryByAgeBandStats(@RequestParam(defaultValue = "10") int buckets) throws IOException;
+
     @PostMapping()
-    ResponseEntity<ResponseStatus> createEmployee(@RequestBody Map<String, Object> employeeInput) throws IOException;
+    CompletableFuture<ResponseEntity<ResponseStatus>> createEmployee(@RequestBody EmployeeInput employeeInput);
 
     @DeleteMapping("/{id}")
-    ResponseEntity<String> deleteEmployeeById(@PathVariable String id) throws IOException;
+    CompletableFuture<ResponseEntity<String>> deleteEmployeeById(@PathVariable String id);
+
+    @PostMapping("/batch")
+    CompletableFuture<ResponseEntity<List<BatchItemResult>>> createEmployees(@RequestBody List<EmployeeInput> employeeInputs);
+
+    @DeleteMapping("/batch")
+    CompletableFuture<ResponseEntity<List<BatchItemResult>>> deleteEmployeesById(@RequestBody List<String> ids) throws IOException;
 
 }
@@ -0,0 +1,18 @@
+package com.example.rqchallenge.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Salary distribution of the employees aged fromAge to toAge, both included.
+ * The last band has no toAge.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AgeBandStats {
+    private int fromAge;
+    private Integer toAge;
+    private DistributionStats salary;
+}
@@ -0,0 +1,26 @@
+package com.example.rqchallenge.entity;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Outcome of a single item of a batch create or delete request.
+ */
+@Getter
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+    private String id;
+    private String name;
+    private ResponseStatus status;
+    private String message;
+
+    public static BatchItemResult success(String id, String name) {
+        return new BatchItemResult(id, name, ResponseStatus.SUCCESS, null);
+    }
+
+    public static BatchItemResult failure(String id, String name, String message) {
+        return new BatchItemResult(id, name, ResponseStatus.FAILURE, message);
+    }
+}
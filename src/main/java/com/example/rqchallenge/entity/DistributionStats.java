@@ -0,0 +1,22 @@
+package com.example.rqchallenge.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Summary of the distribution of one employee field, as returned by the /stats endpoints.
+ * Percentiles are keyed by name, e.g. "p99".
+ */
+@Getter
+@AllArgsConstructor
+public class DistributionStats {
+    private long count;
+    private int min;
+    private int max;
+    private double mean;
+    private Map<String, Integer> percentiles;
+    private List<HistogramBucket> buckets;
+}
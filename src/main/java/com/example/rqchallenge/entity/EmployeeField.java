@@ -0,0 +1,53 @@
+package com.example.rqchallenge.entity;
+
+import com.example.rqchallenge.exceptions.BadRequestException;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields of an Employee as they are named in JSON, in the order they are written.
+ * Used to project list responses on the fields a client asked for.
+ */
+public enum EmployeeField {
+    ID("id"),
+    EMPLOYEE_NAME("employee_name"),
+    EMPLOYEE_SALARY("employee_salary"),
+    EMPLOYEE_AGE("employee_age"),
+    PROFILE_IMAGE("profile_image");
+
+    private final String jsonName;
+
+    EmployeeField(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * This method parses a comma separated list of JSON field names, all fields when it is null or blank.
+     *
+     * @param fields String like "id,employee_name"
+     */
+    public static Set<EmployeeField> parse(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(EmployeeField.class);
+        }
+        Set<EmployeeField> selected = EnumSet.noneOf(EmployeeField.class);
+        for (String name : fields.split(",")) {
+            selected.add(fromJsonName(name.trim()));
+        }
+        return selected;
+    }
+
+    private static EmployeeField fromJsonName(String name) {
+        for (EmployeeField field : values()) {
+            if (field.jsonName.equals(name)) {
+                return field;
+            }
+        }
+        throw new BadRequestException(String.format("Unknown employee field : %s", name));
+    }
+}
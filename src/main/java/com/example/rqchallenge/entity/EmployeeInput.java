@@ -0,0 +1,133 @@
+package com.example.rqchallenge.entity;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+
+import static com.example.rqchallenge.util.Constants.AGE;
+import static com.example.rqchallenge.util.Constants.EMPLOYEE_AGE;
+import static com.example.rqchallenge.util.Constants.EMPLOYEE_NAME;
+import static com.example.rqchallenge.util.Constants.EMPLOYEE_SALARY;
+import static com.example.rqchallenge.util.Constants.NAME;
+import static com.example.rqchallenge.util.Constants.SALARY;
+
+/**
+ * The body of a create request, for a single create or an item of a batch.
+ *
+ * Fields are accepted under the keys of the /create route ("name", "salary", "age") or under
+ * those of the Employee ("employee_name", "employee_salary", "employee_age"), the route keys
+ * winning when both are given. Salary and age are numbers or strings holding an integer;
+ * valid is false when either one is missing or is not an integer.
+ */
+@Getter
+@AllArgsConstructor
+@JsonDeserialize(using = EmployeeInput.Deserializer.class)
+public class EmployeeInput {
+    private String name;
+    private int salary;
+    private int age;
+    private boolean valid;
+
+    /**
+     * Reads the fields straight from the parser tokens: no Map, no boxed numbers, and
+     * integers given as strings are parsed from the parser's character buffer.
+     */
+    public static class Deserializer extends StdDeserializer<EmployeeInput> {
+
+        private static final long serialVersionUID = 1L;
+        private static final long NOT_AN_INT = Long.MIN_VALUE;
+
+        /*
+           Key ranks: a value is kept unless one was read under a higher ranked key,
+           so route keys win over Employee keys whichever comes first.
+        */
+        private static final int NO_KEY = 0;
+        private static final int EMPLOYEE_KEY = 1;
+        private static final int ROUTE_KEY = 2;
+
+        public Deserializer() {
+            super(EmployeeInput.class);
+        }
+
+        @Override
+        public EmployeeInput deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.isExpectedStartObjectToken()) {
+                return (EmployeeInput) context.handleUnexpectedToken(EmployeeInput.class, parser);
+            }
+
+            String name = null;
+            long salary = NOT_AN_INT;
+            long age = NOT_AN_INT;
+            int nameKey = NO_KEY;
+            int salaryKey = NO_KEY;
+            int ageKey = NO_KEY;
+
+            for (String field = parser.nextFieldName(); field != null; field = parser.nextFieldName()) {
+                JsonToken token = parser.nextToken();
+                if (NAME.equals(field) || EMPLOYEE_NAME.equals(field)) {
+                    int key = NAME.equals(field) ? ROUTE_KEY : EMPLOYEE_KEY;
+                    if (key >= nameKey) {
+                        nameKey = key;
+                        name = token.isScalarValue() && token != JsonToken.VALUE_NULL ? parser.getText() : null;
+                    }
+                } else if (SALARY.equals(field) || EMPLOYEE_SALARY.equals(field)) {
+                    int key = SALARY.equals(field) ? ROUTE_KEY : EMPLOYEE_KEY;
+                    if (key >= salaryKey) {
+                        salaryKey = key;
+                        salary = readInt(parser, token);
+                    }
+                } else if (AGE.equals(field) || EMPLOYEE_AGE.equals(field)) {
+                    int key = AGE.equals(field) ? ROUTE_KEY : EMPLOYEE_KEY;
+                    if (key >= ageKey) {
+                        ageKey = key;
+                        age = readInt(parser, token);
+                    }
+                }
+                parser.skipChildren();
+            }
+
+            boolean valid = salary != NOT_AN_INT && age != NOT_AN_INT;
+            return new EmployeeInput(name, valid ? (int) salary : 0, valid ? (int) age : 0, valid);
+        }
+
+        /*
+           The int value of a number token, or of a string token holding an optionally
+           signed integer, NOT_AN_INT for anything else or out of the int range.
+        */
+        private static long readInt(JsonParser parser, JsonToken token) throws IOException {
+            if (token == JsonToken.VALUE_NUMBER_INT) {
+                return parser.getNumberType() == JsonParser.NumberType.INT ? parser.getIntValue() : NOT_AN_INT;
+            }
+            if (token != JsonToken.VALUE_STRING) {
+                return NOT_AN_INT;
+            }
+
+            char[] text = parser.getTextCharacters();
+            int offset = parser.getTextOffset();
+            int end = offset + parser.getTextLength();
+            boolean negative = offset < end && text[offset] == '-';
+            if (offset < end && (text[offset] == '-' || text[offset] == '+')) {
+                offset++;
+            }
+            if (offset == end || end - offset > 10) {
+                return NOT_AN_INT;
+            }
+            long value = 0;
+            for (int i = offset; i < end; i++) {
+                char c = text[i];
+                if (c < '0' || c > '9') {
+                    return NOT_AN_INT;
+                }
+                value = value * 10 + (c - '0');
+            }
+            value = negative ? -value : value;
+            return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? NOT_AN_INT : value;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.rqchallenge.entity;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A page of employees written as a JSON array holding only the selected fields.
+ *
+ * Employees are written straight to the generator, one at a time, so a page taken
+ * as a view over the cached snapshot is never copied into another list or tree.
+ */
+public class EmployeeRows extends JsonSerializable.Base {
+
+    private final List<Employee> employees;
+    private final Set<EmployeeField> fields;
+
+    public EmployeeRows(List<Employee> employees, Set<EmployeeField> fields) {
+        this.employees = employees;
+        this.fields = fields;
+    }
+
+    public List<Employee> getEmployees() {
+        return employees;
+    }
+
+    @Override
+    public void serialize(JsonGenerator generator, SerializerProvider serializers) throws IOException {
+        generator.writeStartArray();
+        for (Employee employee : employees) {
+            write(generator, employee, fields);
+        }
+        generator.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator generator, SerializerProvider serializers, TypeSerializer typeSerializer) throws IOException {
+        WritableTypeId typeId = typeSerializer.writeTypePrefix(generator, typeSerializer.typeId(this, JsonToken.START_ARRAY));
+        serialize(generator, serializers);
+        typeSerializer.writeTypeSuffix(generator, typeId);
+    }
+
+    /**
+     * This method writes the selected fields of one employee as a JSON object.
+     */
+    public static void write(JsonGenerator generator, Employee employee, Set<EmployeeField> fields) throws IOException {
+        generator.writeStartObject();
+        for (EmployeeField field : fields) {
+            generator.writeFieldName(field.getJsonName());
+            switch (field) {
+                case ID:
+                    if (employee.getId() == null) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeNumber(employee.getId());
+                    }
+                    break;
+                case EMPLOYEE_NAME:
+                    generator.writeString(employee.getEmployeeName());
+                    break;
+                case EMPLOYEE_SALARY:
+                    generator.writeNumber(employee.getEmployeeSalary());
+                    break;
+                case EMPLOYEE_AGE:
+                    generator.writeNumber(employee.getEmployeeAge());
+                    break;
+                case PROFILE_IMAGE:
+                    generator.writeString(employee.getProfileImage());
+                    break;
+            }
+        }
+        generator.writeEndObject();
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.rqchallenge.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Number of values between from and to, both included.
+ */
+@Getter
+@AllArgsConstructor
+public class HistogramBucket {
+    private long from;
+    private long to;
+    private long count;
+}
@@ -1,6 +1,8 @@
 package com.example.rqchallenge.error;
 
+import com.example.rqchallenge.exceptions.BadRequestException;
 import com.example.rqchallenge.exceptions.ResourceNotFoundException;
+import com.example.rqchallenge.exceptions.UpstreamUnavailableException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
@@ -31,6 +33,34 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
         return ResponseEntityBuilder.build(apiError);
     }
 
+    @ExceptionHandler(BadRequestException.class)
+    public ResponseEntity<Object> handleBadRequestException(BadRequestException badRequestException){
+        List<String> details = new ArrayList<>();
+        details.add(badRequestException.getMessage());
+
+        ApiError apiError = new ApiError(
+                LocalDateTime.now(),
+                HttpStatus.BAD_REQUEST,
+                "Invalid request parameter.",
+                details);
+
+        return ResponseEntityBuilder.build(apiError);
+    }
+
+    @ExceptionHandler(UpstreamUnavailableException.class)
+    public ResponseEntity<Object> handleUpstreamUnavailableException(UpstreamUnavailableException upstreamUnavailableException){
+        List<String> details = new ArrayList<>();
+        details.add(upstreamUnavailableException.getMessage());
+
+        ApiError apiError = new ApiError(
+                LocalDateTime.now(),
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "Upstream unavailable.",
+                details);
+
+        return ResponseEntityBuilder.build(apiError);
+    }
+
     @ExceptionHandler(IOException.class)
     public ResponseEntity<Object> handleIOException(IOException ioException){
         List<String> details = new ArrayList<>();
@@ -8,7 +8,22 @@ public class ResourceNotFoundException extends RuntimeException {
 
     private static final long serialVersionUID = 1L;
 
+    private final boolean confirmed;
+
     public ResourceNotFoundException(String message) {
+        this(message, true);
+    }
+
+    /**
+     * @param confirmed false when the resource was looked up in fallback data because the
+     *                  upstream did not answer, so it may still exist there
+     */
+    public ResourceNotFoundException(String message, boolean confirmed) {
         super(message);
+        this.confirmed = confirmed;
+    }
+
+    public boolean isConfirmed() {
+        return confirmed;
     }
 }
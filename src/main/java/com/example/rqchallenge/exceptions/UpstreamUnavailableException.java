@@ -0,0 +1,16 @@
+package com.example.rqchallenge.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Thrown without calling the upstream when its circuit breaker is open, or when the
+ * UpstreamScheduler could not give the request a turn (lane full or waited too long).
+ */
+public class UpstreamUnavailableException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,602 @@
+package com.example.rqchallenge.index;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.store.EmployeeStore;
+import com.example.rqchallenge.store.ListEmployeeStore;
+import com.example.rqchallenge.store.LongIntHashMap;
+import com.example.rqchallenge.store.Utf8Column;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The NameSearchIndex answers case-insensitive substring and prefix queries on employee names.
+ *
+ * Names are read as UTF-8 from the name column of the store and lowercased one code point at
+ * a time as they are read, so the index keeps no String per row.
+ *
+ * Substring queries use a trigram inverted index: every lowercased name is split into its
+ * three code point windows and each window maps to the sorted rows containing it. The postings
+ * of all trigrams are packed into one int array, found through a LongIntHashMap. A query
+ * intersects the postings of its own trigrams, starting from the shortest list, and only the
+ * surviving candidates are checked against the name. Queries shorter than three code points
+ * have no trigram and fall back to a scan of the names.
+ *
+ * Prefix queries use a sorted array of (row, byte offset) entries, one for every word start in
+ * every name, so that "byr" and "paul b" both find "Paul Byrd" with a binary search.
+ *
+ * Input is always matched literally, regex metacharacters have no special meaning.
+ *
+ * Employees created or deleted since the build do not touch the built structures: insert and
+ * remove return a new index sharing them, with the created employees kept in a small array
+ * that queries scan, and the deleted rows in a sorted array that queries skip.
+ */
+public class NameSearchIndex {
+
+    private static final int GRAM = 3;
+    private static final int MALFORMED = 0xFFFD;
+    private static final int[] NO_ROWS = new int[0];
+    private static final Employee[] NO_EMPLOYEES = new Employee[0];
+    private static final String[] NO_NAMES = new String[0];
+
+    private final EmployeeStore store;
+    private final Utf8Column names;
+    private final Postings postings;
+    private final int[] prefixRows;
+    private final int[] prefixOffsets;
+    private final int[] removedRows;
+    private final Employee[] added;
+    private final String[] addedLowerNames;
+
+    private NameSearchIndex(EmployeeStore store, Utf8Column names, Postings postings,
+                            int[] prefixRows, int[] prefixOffsets,
+                            int[] removedRows, Employee[] added, String[] addedLowerNames) {
+        this.store = store;
+        this.names = names;
+        this.postings = postings;
+        this.prefixRows = prefixRows;
+        this.prefixOffsets = prefixOffsets;
+        this.removedRows = removedRows;
+        this.added = added;
+        this.addedLowerNames = addedLowerNames;
+    }
+
+    /**
+     * This method builds the index over the given list.
+     *
+     * @param employees List of employees, which must not change after the index is built.
+     */
+    public static NameSearchIndex build(List<Employee> employees) {
+        return build(new ListEmployeeStore(employees));
+    }
+
+    /**
+     * This method builds the index over the given store.
+     */
+    public static NameSearchIndex build(EmployeeStore store) {
+        int size = store.size();
+        Utf8Column names = store.getNameColumn();
+        Map<Long, IntBuffer> buffers = new HashMap<>();
+        List<long[]> wordStarts = new ArrayList<>();
+
+        for (int row = 0; row < size; row++) {
+            int length = names.length(row);
+            int first = 0;
+            int second = 0;
+            boolean inWord = false;
+            int count = 0;
+            for (int offset = 0; offset < length; offset = next(names, row, offset), count++) {
+                int codePoint = foldedAt(names, row, offset);
+                if (count >= GRAM - 1) {
+                    buffers.computeIfAbsent(trigram(first, second, codePoint), key -> new IntBuffer()).addDistinct(row);
+                }
+                boolean letterOrDigit = Character.isLetterOrDigit(codePoint);
+                if (letterOrDigit && !inWord) {
+                    wordStarts.add(new long[]{row, offset});
+                }
+                inWord = letterOrDigit;
+                first = second;
+                second = codePoint;
+            }
+        }
+
+        Comparator<long[]> bySuffix = (a, b) ->
+                compareSuffix(names, (int) a[0], (int) a[1], names, (int) b[0], (int) b[1]);
+        wordStarts.sort(bySuffix.thenComparingLong(entry -> entry[0]));
+        int[] prefixRows = new int[wordStarts.size()];
+        int[] prefixOffsets = new int[wordStarts.size()];
+        for (int i = 0; i < prefixRows.length; i++) {
+            prefixRows[i] = (int) wordStarts.get(i)[0];
+            prefixOffsets[i] = (int) wordStarts.get(i)[1];
+        }
+
+        return new NameSearchIndex(store, names, Postings.of(buffers), prefixRows, prefixOffsets,
+                NO_ROWS, NO_EMPLOYEES, NO_NAMES);
+    }
+
+    /**
+     * This method returns an index that also holds the given employee, after all others.
+     */
+    public NameSearchIndex insert(Employee employee) {
+        Employee[] nextAdded = Arrays.copyOf(added, added.length + 1);
+        String[] nextNames = Arrays.copyOf(addedLowerNames, addedLowerNames.length + 1);
+        nextAdded[added.length] = employee;
+        nextNames[added.length] = normalize(employee.getEmployeeName());
+        return new NameSearchIndex(store, names, postings, prefixRows, prefixOffsets,
+                removedRows, nextAdded, nextNames);
+    }
+
+    /**
+     * This method returns an index without the given row of the store it was built on.
+     */
+    public NameSearchIndex removeRow(int row) {
+        int[] nextRemoved = SortedRows.insert(removedRows, row);
+        return nextRemoved == removedRows ? this : new NameSearchIndex(store, names, postings,
+                prefixRows, prefixOffsets, nextRemoved, added, addedLowerNames);
+    }
+
+    /**
+     * This method returns an index without the given employee, previously passed to insert.
+     */
+    public NameSearchIndex removeInserted(Employee employee) {
+        for (int i = 0; i < added.length; i++) {
+            if (added[i] == employee) {
+                return new NameSearchIndex(store, names, postings, prefixRows, prefixOffsets,
+                        removedRows, without(added, i, new Employee[added.length - 1]),
+                        without(addedLowerNames, i, new String[added.length - 1]));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * This method returns an index without the given rows and the given employees previously passed
+     * to insert, and with the inserted employees added after all others, copying the arrays once
+     * for the whole batch.
+     *
+     * @param deletedRows      rows of the store it was built on
+     * @param removedEmployees employees previously passed to insert, compared by identity
+     * @param inserted         employees to add, in order
+     */
+    public NameSearchIndex apply(int[] deletedRows, Set<Employee> removedEmployees, List<Employee> inserted) {
+        Employee[] nextAdded = new Employee[added.length + inserted.size()];
+        String[] nextNames = new String[nextAdded.length];
+        int size = 0;
+        for (int i = 0; i < added.length; i++) {
+            if (!removedEmployees.contains(added[i])) {
+                nextAdded[size] = added[i];
+                nextNames[size++] = addedLowerNames[i];
+            }
+        }
+        for (Employee employee : inserted) {
+            nextAdded[size] = employee;
+            nextNames[size++] = normalize(employee.getEmployeeName());
+        }
+        return new NameSearchIndex(store, names, postings, prefixRows, prefixOffsets,
+                SortedRows.insertAll(removedRows, deletedRows), Arrays.copyOf(nextAdded, size), Arrays.copyOf(nextNames, size));
+    }
+
+    /**
+     * This method returns the employees whose name contains the query, in list order.
+     *
+     * @param query  String to look for, case-insensitive
+     * @param offset number of matches to skip
+     * @param limit  maximum number of matches to return
+     */
+    public List<Employee> search(String query, int offset, int limit) {
+        String lowerQuery = normalize(query);
+        int[] rows = findRows(lowerQuery);
+        int skip = Math.max(offset, 0);
+        List<Employee> matches = new ArrayList<>(Math.min(Math.max(limit, 0), 16));
+
+        for (int i = 0; i < rows.length && matches.size() < limit; i++) {
+            if (!SortedRows.contains(removedRows, rows[i]) && skip-- <= 0) {
+                matches.add(store.get(rows[i]));
+            }
+        }
+        for (int i = 0; i < added.length && matches.size() < limit; i++) {
+            if (addedLowerNames[i].contains(lowerQuery) && skip-- <= 0) {
+                matches.add(added[i]);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * This method returns the position among the matches of search of the employee with the given id,
+     * or -1 when that employee is gone or its name does not contain the query.
+     *
+     * @param query String searched for, case-insensitive
+     * @param id    id of the employee
+     */
+    public int matchPosition(String query, long id) {
+        String lowerQuery = normalize(query);
+        int[] rows = findRows(lowerQuery);
+        int position = 0;
+        for (int i = 0; i < added.length; i++) {
+            if (addedLowerNames[i].contains(lowerQuery)) {
+                if (added[i].getId() != null && added[i].getId() == id) {
+                    return countLive(rows, rows.length) + position;
+                }
+                position++;
+            }
+        }
+
+        int row = store.findRow(id);
+        int rank = row < 0 || SortedRows.contains(removedRows, row) ? -1 : Arrays.binarySearch(rows, row);
+        return rank < 0 ? -1 : countLive(rows, rank);
+    }
+
+    /**
+     * This method returns the employees having a word in their name that starts with the prefix,
+     * followed by the rest of the prefix if it spans several words. Results are ordered by the
+     * matched part of the name.
+     *
+     * @param prefix String the name should start with at a word boundary, case-insensitive
+     * @param limit  maximum number of employees to return
+     */
+    public List<Employee> autocomplete(String prefix, int limit) {
+        String lowerPrefix = normalize(prefix);
+        List<Employee> matches = new ArrayList<>(Math.min(limit, 16));
+        BitSet seen = new BitSet();
+        int[] insertedMatches = autocompleteInserted(lowerPrefix);
+        int next = 0;
+
+        for (int i = lowerBound(lowerPrefix); i < prefixRows.length && matches.size() < limit; i++) {
+            int row = prefixRows[i];
+            if (!startsWith(row, prefixOffsets[i], lowerPrefix)) {
+                break;
+            }
+            if (seen.get(row) || SortedRows.contains(removedRows, row)) {
+                continue;
+            }
+            seen.set(row);
+            while (next < insertedMatches.length && matches.size() < limit
+                    && compareSuffix(names, row, prefixOffsets[i], addedLowerNames[insertedMatches[next]],
+                    insertedMatches[next + 1]) > 0) {
+                matches.add(added[insertedMatches[next]]);
+                next += 2;
+            }
+            if (matches.size() < limit) {
+                matches.add(store.get(row));
+            }
+        }
+        for (; next < insertedMatches.length && matches.size() < limit; next += 2) {
+            matches.add(added[insertedMatches[next]]);
+        }
+        return matches;
+    }
+
+    /*
+       Returns (position, offset) pairs of the inserted employees matching the prefix,
+       sorted like the built prefix entries, taking the first matching word of each name.
+    */
+    private int[] autocompleteInserted(String lowerPrefix) {
+        List<int[]> entries = new ArrayList<>();
+        for (int i = 0; i < added.length; i++) {
+            String name = addedLowerNames[i];
+            int best = -1;
+            for (int offset = 0; offset < name.length(); offset += Character.charCount(name.codePointAt(offset))) {
+                if (isWordStart(name, offset) && name.startsWith(lowerPrefix, offset)
+                        && (best < 0 || compareSuffix(name, offset, name, best) < 0)) {
+                    best = offset;
+                }
+            }
+            if (best >= 0) {
+                entries.add(new int[]{i, best});
+            }
+        }
+        entries.sort((a, b) -> compareSuffix(addedLowerNames[a[0]], a[1], addedLowerNames[b[0]], b[1]));
+
+        int[] pairs = new int[entries.size() * 2];
+        for (int i = 0; i < entries.size(); i++) {
+            pairs[2 * i] = entries.get(i)[0];
+            pairs[2 * i + 1] = entries.get(i)[1];
+        }
+        return pairs;
+    }
+
+    private int countLive(int[] rows, int end) {
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            if (!SortedRows.contains(removedRows, rows[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private int[] findRows(String lowerQuery) {
+        int[] codePoints = lowerQuery.codePoints().toArray();
+        if (codePoints.length < GRAM) {
+            return scan(lowerQuery);
+        }
+
+        int[] lists = new int[codePoints.length - GRAM + 1];
+        for (int i = 0; i < lists.length; i++) {
+            int list = postings.find(trigram(codePoints[i], codePoints[i + 1], codePoints[i + 2]));
+            if (list < 0) {
+                return NO_ROWS;
+            }
+            lists[i] = list;
+        }
+        for (int i = 1; i < lists.length; i++) {
+            int list = lists[i];
+            int j = i;
+            for (; j > 0 && postings.length(lists[j - 1]) > postings.length(list); j--) {
+                lists[j] = lists[j - 1];
+            }
+            lists[j] = list;
+        }
+
+        int[] candidates = postings.rows(lists[0]);
+        for (int i = 1; i < lists.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, postings.rows, postings.starts[lists[i]], postings.starts[lists[i] + 1]);
+        }
+
+        /*
+           Sharing all trigrams does not guarantee the query appears as a whole
+           ("abcxbcd" has every trigram of "abcd"), so candidates are verified.
+        */
+        int count = 0;
+        int[] rows = new int[candidates.length];
+        for (int row : candidates) {
+            if (contains(row, lowerQuery)) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+
+    private int[] scan(String lowerQuery) {
+        IntBuffer rows = new IntBuffer();
+        for (int row = 0; row < store.size(); row++) {
+            if (contains(row, lowerQuery)) {
+                rows.addDistinct(row);
+            }
+        }
+        return rows.toArray();
+    }
+
+    private boolean contains(int row, String lowerQuery) {
+        if (lowerQuery.isEmpty()) {
+            return true;
+        }
+        int length = names.length(row);
+        for (int offset = 0; offset < length; offset = next(names, row, offset)) {
+            if (startsWith(row, offset, lowerQuery)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean startsWith(int row, int offset, String lowerPrefix) {
+        int length = names.length(row);
+        for (int index = 0; index < lowerPrefix.length(); offset = next(names, row, offset)) {
+            int codePoint = lowerPrefix.codePointAt(index);
+            if (offset >= length || foldedAt(names, row, offset) != codePoint) {
+                return false;
+            }
+            index += Character.charCount(codePoint);
+        }
+        return true;
+    }
+
+    private static <T> T[] without(T[] values, int position, T[] target) {
+        System.arraycopy(values, 0, target, 0, position);
+        System.arraycopy(values, position + 1, target, position, values.length - position - 1);
+        return target;
+    }
+
+    /*
+       Intersects a sorted row list with rows[from, to), binary searching the longer
+       one so that a short list against a long one stays cheap.
+    */
+    private static int[] intersect(int[] shorter, int[] rows, int from, int to) {
+        int[] result = new int[shorter.length];
+        int count = 0;
+        for (int row : shorter) {
+            int position = Arrays.binarySearch(rows, from, to, row);
+            if (position >= 0) {
+                result[count++] = row;
+                from = position + 1;
+            } else {
+                from = -position - 1;
+            }
+            if (from >= to) {
+                break;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private int lowerBound(String lowerPrefix) {
+        int low = 0;
+        int high = prefixRows.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareSuffix(names, prefixRows[mid], prefixOffsets[mid], lowerPrefix, 0) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /*
+       Suffixes are compared by lowercased code point, a proper prefix first,
+       whether they are read from the name column or from a lowercased String.
+    */
+    private static int compareSuffix(Utf8Column a, int aRow, int aOffset, Utf8Column b, int bRow, int bOffset) {
+        int aLength = a.length(aRow);
+        int bLength = b.length(bRow);
+        for (; aOffset < aLength && bOffset < bLength; aOffset = next(a, aRow, aOffset), bOffset = next(b, bRow, bOffset)) {
+            int difference = foldedAt(a, aRow, aOffset) - foldedAt(b, bRow, bOffset);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return Boolean.compare(aOffset < aLength, bOffset < bLength);
+    }
+
+    private static int compareSuffix(Utf8Column a, int aRow, int aOffset, String b, int bOffset) {
+        int aLength = a.length(aRow);
+        for (; aOffset < aLength && bOffset < b.length(); aOffset = next(a, aRow, aOffset)) {
+            int codePoint = b.codePointAt(bOffset);
+            int difference = foldedAt(a, aRow, aOffset) - codePoint;
+            if (difference != 0) {
+                return difference;
+            }
+            bOffset += Character.charCount(codePoint);
+        }
+        return Boolean.compare(aOffset < aLength, bOffset < b.length());
+    }
+
+    private static int compareSuffix(String a, int aOffset, String b, int bOffset) {
+        while (aOffset < a.length() && bOffset < b.length()) {
+            int aCodePoint = a.codePointAt(aOffset);
+            int bCodePoint = b.codePointAt(bOffset);
+            if (aCodePoint != bCodePoint) {
+                return aCodePoint - bCodePoint;
+            }
+            aOffset += Character.charCount(aCodePoint);
+            bOffset += Character.charCount(bCodePoint);
+        }
+        return Boolean.compare(aOffset < a.length(), bOffset < b.length());
+    }
+
+    private static boolean isWordStart(String name, int position) {
+        return Character.isLetterOrDigit(name.codePointAt(position))
+                && (position == 0 || !Character.isLetterOrDigit(name.codePointBefore(position)));
+    }
+
+    /*
+       Malformed UTF-8, only found in a damaged mapped file, reads as one U+FFFD per byte.
+    */
+    private static int foldedAt(Utf8Column names, int row, int offset) {
+        int lead = names.byteAt(row, offset) & 0xFF;
+        int length = sequenceLength(names, row, offset);
+        if (length == 1) {
+            return lead < 0x80 ? Character.toLowerCase(lead) : MALFORMED;
+        }
+        int codePoint = lead & (0xFF >>> (length + 1));
+        for (int i = 1; i < length; i++) {
+            codePoint = (codePoint << 6) | (names.byteAt(row, offset + i) & 0x3F);
+        }
+        return Character.toLowerCase(codePoint);
+    }
+
+    private static int next(Utf8Column names, int row, int offset) {
+        return offset + sequenceLength(names, row, offset);
+    }
+
+    private static int sequenceLength(Utf8Column names, int row, int offset) {
+        int lead = names.byteAt(row, offset) & 0xFF;
+        int length = lead < 0xC2 ? 1 : lead < 0xE0 ? 2 : lead < 0xF0 ? 3 : lead < 0xF5 ? 4 : 1;
+        if (offset + length > names.length(row)) {
+            return 1;
+        }
+        for (int i = 1; i < length; i++) {
+            if ((names.byteAt(row, offset + i) & 0xC0) != 0x80) {
+                return 1;
+            }
+        }
+        return length;
+    }
+
+    /*
+       Code points take 21 bits, three of them fit in a long.
+    */
+    private static long trigram(int first, int second, int third) {
+        return ((long) first << 42) | ((long) second << 21) | third;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        StringBuilder folded = new StringBuilder(value.length());
+        value.codePoints().forEach(codePoint -> folded.appendCodePoint(Character.toLowerCase(codePoint)));
+        return folded.toString();
+    }
+
+    /**
+     * The postings of all trigrams back to back in one array, list i spanning rows[starts[i]] to
+     * rows[starts[i + 1]], and the map from trigram to list.
+     */
+    private static class Postings {
+        private final LongIntHashMap listsByTrigram;
+        private final int[] starts;
+        private final int[] rows;
+
+        private Postings(LongIntHashMap listsByTrigram, int[] starts, int[] rows) {
+            this.listsByTrigram = listsByTrigram;
+            this.starts = starts;
+            this.rows = rows;
+        }
+
+        static Postings of(Map<Long, IntBuffer> buffers) {
+            LongIntHashMap listsByTrigram = new LongIntHashMap(buffers.size());
+            int[] starts = new int[buffers.size() + 1];
+            int total = 0;
+            for (IntBuffer buffer : buffers.values()) {
+                total += buffer.size;
+            }
+            int[] rows = new int[total];
+            int list = 0;
+            for (Map.Entry<Long, IntBuffer> entry : buffers.entrySet()) {
+                IntBuffer buffer = entry.getValue();
+                listsByTrigram.putIfAbsent(entry.getKey(), list);
+                System.arraycopy(buffer.values, 0, rows, starts[list], buffer.size);
+                starts[list + 1] = starts[list] + buffer.size;
+                list++;
+            }
+            return new Postings(listsByTrigram, starts, rows);
+        }
+
+        /**
+         * This method returns the list of the trigram, -1 when no name has it.
+         */
+        int find(long trigram) {
+            return listsByTrigram.get(trigram);
+        }
+
+        int length(int list) {
+            return starts[list + 1] - starts[list];
+        }
+
+        int[] rows(int list) {
+            return Arrays.copyOfRange(rows, starts[list], starts[list + 1]);
+        }
+    }
+
+    /**
+     * Growable int array used while collecting postings.
+     */
+    private static class IntBuffer {
+        private int[] values = new int[4];
+        private int size;
+
+        void addDistinct(int value) {
+            if (size > 0 && values[size - 1] == value) {
+                return;
+            }
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
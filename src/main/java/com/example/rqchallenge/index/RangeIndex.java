@@ -0,0 +1,271 @@
+package com.example.rqchallenge.index;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.store.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The RangeIndex answers salary and age range queries without looking at every row.
+ *
+ * Salary ranges are found by binary search in the arrays of the SalaryIndex, age ranges in
+ * rows sorted by age the same way. Each range is turned into a bitmap of rows with the
+ * RankBitmaps of its field, the two bitmaps are intersected, and the result is read in row
+ * order, so matches come back in list order.
+ *
+ * Employees created or deleted since the build are handled as in the SalaryIndex: insert and
+ * remove return a new index sharing the built arrays, created employees are checked one by one
+ * and listed after the others, deleted rows are cleared from the bitmap.
+ */
+public class RangeIndex {
+
+    private static final long ROW_MASK = 0x7FFFFFFFL;
+    private static final int[] NO_ROWS = new int[0];
+    private static final Employee[] NO_EMPLOYEES = new Employee[0];
+
+    private final EmployeeStore store;
+    private final SalaryIndex salaryIndex;
+    private final int[] ages;
+    private final int[] ageRows;
+    private final RankBitmaps salaryBitmaps;
+    private final RankBitmaps ageBitmaps;
+    private final int[] removedRows;
+    private final Employee[] added;
+
+    private RangeIndex(EmployeeStore store, SalaryIndex salaryIndex, int[] ages, int[] ageRows,
+                       RankBitmaps salaryBitmaps, RankBitmaps ageBitmaps, int[] removedRows, Employee[] added) {
+        this.store = store;
+        this.salaryIndex = salaryIndex;
+        this.ages = ages;
+        this.ageRows = ageRows;
+        this.salaryBitmaps = salaryBitmaps;
+        this.ageBitmaps = ageBitmaps;
+        this.removedRows = removedRows;
+        this.added = added;
+    }
+
+    /**
+     * This method builds the index over the given store, sharing the arrays of its SalaryIndex.
+     *
+     * @param store       EmployeeStore to index
+     * @param salaryIndex SalaryIndex built over the same store
+     */
+    public static RangeIndex build(EmployeeStore store, SalaryIndex salaryIndex) {
+        int size = store.size();
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            long age = (long) store.getAge(row) - Integer.MIN_VALUE;
+            keys[row] = (age << 31) | row;
+        }
+        Arrays.sort(keys);
+
+        int[] ages = new int[size];
+        int[] ageRows = new int[size];
+        for (int i = 0; i < size; i++) {
+            ageRows[i] = (int) (keys[i] & ROW_MASK);
+            ages[i] = (int) ((keys[i] >>> 31) + Integer.MIN_VALUE);
+        }
+        return new RangeIndex(store, salaryIndex, ages, ageRows,
+                RankBitmaps.build(salaryIndex.rowsByRank()), RankBitmaps.build(ageRows), NO_ROWS, NO_EMPLOYEES);
+    }
+
+    /**
+     * This method returns an index that also holds the given employee, after all others.
+     */
+    public RangeIndex insert(Employee employee) {
+        Employee[] nextAdded = Arrays.copyOf(added, added.length + 1);
+        nextAdded[added.length] = employee;
+        return new RangeIndex(store, salaryIndex, ages, ageRows, salaryBitmaps, ageBitmaps, removedRows, nextAdded);
+    }
+
+    /**
+     * This method returns an index without the given row of the store it was built on.
+     */
+    public RangeIndex removeRow(int row) {
+        int[] nextRemoved = SortedRows.insert(removedRows, row);
+        return nextRemoved == removedRows ? this
+                : new RangeIndex(store, salaryIndex, ages, ageRows, salaryBitmaps, ageBitmaps, nextRemoved, added);
+    }
+
+    /**
+     * This method returns an index without the given employee, previously passed to insert.
+     */
+    public RangeIndex removeInserted(Employee employee) {
+        for (int i = 0; i < added.length; i++) {
+            if (added[i] == employee) {
+                Employee[] nextAdded = new Employee[added.length - 1];
+                System.arraycopy(added, 0, nextAdded, 0, i);
+                System.arraycopy(added, i + 1, nextAdded, i, added.length - i - 1);
+                return new RangeIndex(store, salaryIndex, ages, ageRows, salaryBitmaps, ageBitmaps, removedRows, nextAdded);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * This method returns an index without the given rows and the given employees previously passed
+     * to insert, and with the inserted employees added after all others, copying the arrays once
+     * for the whole batch.
+     *
+     * @param deletedRows      rows of the store it was built on
+     * @param removedEmployees employees previously passed to insert, compared by identity
+     * @param inserted         employees to add, in order
+     */
+    public RangeIndex apply(int[] deletedRows, Set<Employee> removedEmployees, List<Employee> inserted) {
+        Employee[] nextAdded = new Employee[added.length + inserted.size()];
+        int size = 0;
+        for (Employee employee : added) {
+            if (!removedEmployees.contains(employee)) {
+                nextAdded[size++] = employee;
+            }
+        }
+        for (Employee employee : inserted) {
+            nextAdded[size++] = employee;
+        }
+        return new RangeIndex(store, salaryIndex, ages, ageRows, salaryBitmaps, ageBitmaps,
+                SortedRows.insertAll(removedRows, deletedRows), Arrays.copyOf(nextAdded, size));
+    }
+
+    /**
+     * This method returns the employees whose salary and age are within the given bounds,
+     * all inclusive, in list order, along with the number of employees matching.
+     *
+     * @param minSalary lowest salary, Integer.MIN_VALUE for no bound
+     * @param maxSalary highest salary, Integer.MAX_VALUE for no bound
+     * @param minAge    lowest age, Integer.MIN_VALUE for no bound
+     * @param maxAge    highest age, Integer.MAX_VALUE for no bound
+     * @param offset    number of matches to skip
+     * @param limit     maximum number of matches returned
+     */
+    public RangeMatches filter(int minSalary, int maxSalary, int minAge, int maxAge, int offset, int limit) {
+        List<Employee> page = new ArrayList<>(Math.min(Math.max(limit, 0), 64));
+        int skip = Math.max(offset, 0);
+        int total = 0;
+
+        if (minSalary <= maxSalary && minAge <= maxAge) {
+            long[] bits = matchingRows(minSalary, maxSalary, minAge, maxAge);
+            for (int word = 0; word < bits.length; word++) {
+                long value = bits[word];
+                total += Long.bitCount(value);
+                while (value != 0 && page.size() < limit) {
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        page.add(store.get((word << 6) + Long.numberOfTrailingZeros(value)));
+                    }
+                    value &= value - 1;
+                }
+            }
+            for (Employee employee : added) {
+                if (inRange(employee.getEmployeeSalary(), minSalary, maxSalary)
+                        && inRange(employee.getEmployeeAge(), minAge, maxAge)) {
+                    total++;
+                    if (skip > 0) {
+                        skip--;
+                    } else if (page.size() < limit) {
+                        page.add(employee);
+                    }
+                }
+            }
+        }
+        return new RangeMatches(page, total);
+    }
+
+    /**
+     * This method returns the position among the matches of filter of the employee with the given id,
+     * or -1 when that employee is gone or out of the bounds.
+     *
+     * @param id id of the employee, the other parameters as for filter
+     */
+    public int matchPosition(int minSalary, int maxSalary, int minAge, int maxAge, long id) {
+        if (minSalary > maxSalary || minAge > maxAge) {
+            return -1;
+        }
+        long[] bits = matchingRows(minSalary, maxSalary, minAge, maxAge);
+        int row = store.findRow(id);
+        if (row >= 0 && (bits[row >>> 6] & (1L << row)) != 0) {
+            int position = Long.bitCount(bits[row >>> 6] & ((1L << row) - 1));
+            for (int word = 0; word < row >>> 6; word++) {
+                position += Long.bitCount(bits[word]);
+            }
+            return position;
+        }
+
+        int position = 0;
+        for (long value : bits) {
+            position += Long.bitCount(value);
+        }
+        for (Employee employee : added) {
+            if (inRange(employee.getEmployeeSalary(), minSalary, maxSalary)
+                    && inRange(employee.getEmployeeAge(), minAge, maxAge)) {
+                if (employee.getId() != null && employee.getId() == id) {
+                    return position;
+                }
+                position++;
+            }
+        }
+        return -1;
+    }
+
+    /*
+       Every row when there is no bound, otherwise the bitmap of the rows in the salary
+       range, of the rows in the age range, or of both intersected.
+    */
+    private long[] matchingRows(int minSalary, int maxSalary, int minAge, int maxAge) {
+        int size = ageRows.length;
+        boolean bySalary = minSalary != Integer.MIN_VALUE || maxSalary != Integer.MAX_VALUE;
+        boolean byAge = minAge != Integer.MIN_VALUE || maxAge != Integer.MAX_VALUE;
+
+        long[] bits;
+        if (!bySalary && !byAge) {
+            bits = new long[RankBitmaps.words(size)];
+            Arrays.fill(bits, -1L);
+            if ((size & 63) != 0) {
+                bits[bits.length - 1] = (1L << size) - 1;
+            }
+        } else {
+            bits = null;
+            if (bySalary) {
+                int salaryTo = minSalary == Integer.MIN_VALUE ? size : salaryIndex.firstRankAtMost(minSalary - 1);
+                bits = salaryBitmaps.rowsBetween(salaryIndex.firstRankAtMost(maxSalary), salaryTo);
+            }
+            if (byAge) {
+                int ageTo = maxAge == Integer.MAX_VALUE ? size : firstAgeRankAtLeast(maxAge + 1);
+                long[] ageBits = ageBitmaps.rowsBetween(firstAgeRankAtLeast(minAge), ageTo);
+                if (bits == null) {
+                    bits = ageBits;
+                } else {
+                    for (int word = 0; word < bits.length; word++) {
+                        bits[word] &= ageBits[word];
+                    }
+                }
+            }
+        }
+
+        for (int row : removedRows) {
+            bits[row >>> 6] &= ~(1L << row);
+        }
+        return bits;
+    }
+
+    private int firstAgeRankAtLeast(int age) {
+        int low = 0;
+        int high = ages.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ages[mid] < age) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean inRange(int value, int min, int max) {
+        return value >= min && value <= max;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.rqchallenge.index;
+
+import com.example.rqchallenge.entity.Employee;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * A page of the employees matching a RangeIndex query, and the number of all matches.
+ */
+@Getter
+@AllArgsConstructor
+public class RangeMatches {
+    private final List<Employee> employees;
+    private final int total;
+}
@@ -0,0 +1,84 @@
+package com.example.rqchallenge.index;
+
+/**
+ * Bitmaps of the rows of a sorted index, used to turn a range of ranks into a bitmap of rows
+ * without setting a bit per rank.
+ *
+ * The ranks are cut into BLOCKS blocks, and a bitmap of the rows ranked before each block
+ * boundary is kept. The rows of a range are then the difference of the bitmaps of the two
+ * boundaries inside it, plus the rows of the partial blocks at its ends, set one by one.
+ * The bitmaps take BLOCKS + 1 bits per row.
+ */
+class RankBitmaps {
+
+    private static final int BLOCKS = 32;
+
+    private final int[] rowsByRank;
+    private final int blockSize;
+    private final long[][] rankedBefore;
+
+    private RankBitmaps(int[] rowsByRank, int blockSize, long[][] rankedBefore) {
+        this.rowsByRank = rowsByRank;
+        this.blockSize = blockSize;
+        this.rankedBefore = rankedBefore;
+    }
+
+    /**
+     * @param rowsByRank row of each rank, the rows being 0 to rowsByRank.length - 1
+     */
+    static RankBitmaps build(int[] rowsByRank) {
+        int size = rowsByRank.length;
+        int blockSize = Math.max(1, (size + BLOCKS - 1) / BLOCKS);
+        long[][] rankedBefore = new long[BLOCKS + 1][];
+
+        long[] bits = new long[words(size)];
+        rankedBefore[0] = bits.clone();
+        for (int block = 1; block <= BLOCKS; block++) {
+            int end = (int) Math.min((long) block * blockSize, size);
+            for (int rank = (block - 1) * blockSize; rank < end; rank++) {
+                set(bits, rowsByRank[rank]);
+            }
+            rankedBefore[block] = bits.clone();
+        }
+        return new RankBitmaps(rowsByRank, blockSize, rankedBefore);
+    }
+
+    /**
+     * This method returns a new bitmap of the rows ranked from rankFrom included to rankTo excluded.
+     */
+    long[] rowsBetween(int rankFrom, int rankTo) {
+        long[] bits = new long[words(rowsByRank.length)];
+        if (rankFrom >= rankTo) {
+            return bits;
+        }
+        int blockFrom = (rankFrom + blockSize - 1) / blockSize;
+        int blockTo = rankTo / blockSize;
+        if (blockFrom >= blockTo) {
+            setRanks(bits, rankFrom, rankTo);
+            return bits;
+        }
+
+        long[] upper = rankedBefore[blockTo];
+        long[] lower = rankedBefore[blockFrom];
+        for (int word = 0; word < bits.length; word++) {
+            bits[word] = upper[word] & ~lower[word];
+        }
+        setRanks(bits, rankFrom, blockFrom * blockSize);
+        setRanks(bits, blockTo * blockSize, rankTo);
+        return bits;
+    }
+
+    static int words(int rows) {
+        return (rows + 63) >>> 6;
+    }
+
+    static void set(long[] bits, int row) {
+        bits[row >>> 6] |= 1L << row;
+    }
+
+    private void setRanks(long[] bits, int rankFrom, int rankTo) {
+        for (int rank = rankFrom; rank < rankTo; rank++) {
+            set(bits, rowsByRank[rank]);
+        }
+    }
+}
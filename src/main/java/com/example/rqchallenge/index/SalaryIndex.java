@@ -0,0 +1,252 @@
+package com.example.rqchallenge.index;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.store.EmployeeStore;
+import com.example.rqchallenge.store.ListEmployeeStore;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The SalaryIndex keeps the rows of an employee store ordered by salary, highest first.
+ *
+ * It is built once per employee list version with a single primitive sort, after which
+ * the highest salary is answered in O(1) and the top n earners in O(n). Employees with
+ * the same salary keep the order they have in the list.
+ *
+ * Employees created or deleted since the build are applied on top of the built arrays
+ * instead of rebuilding them: insert and remove return a new index that shares the built
+ * arrays, with the created employees in a small array kept in salary order by binary search
+ * and the deleted rows in a sorted array that reads skip.
+ */
+public class SalaryIndex {
+
+    private static final long ROW_MASK = 0x7FFFFFFFL;
+    private static final int[] NO_ROWS = new int[0];
+    private static final Employee[] NO_EMPLOYEES = new Employee[0];
+    private static final Comparator<Employee> BY_SALARY_DESCENDING =
+            Comparator.comparingInt(Employee::getEmployeeSalary).reversed();
+
+    private final EmployeeStore store;
+    private final int[] salaries;
+    private final int[] rows;
+    private final int[] removedRows;
+    private final Employee[] added;
+
+    private SalaryIndex(EmployeeStore store, int[] salaries, int[] rows, int[] removedRows, Employee[] added) {
+        this.store = store;
+        this.salaries = salaries;
+        this.rows = rows;
+        this.removedRows = removedRows;
+        this.added = added;
+    }
+
+    /**
+     * This method builds the index over the given list.
+     *
+     * Each row is packed into a single long whose high bits hold the inverted salary and
+     * whose low 31 bits hold the row, so that an ascending sort of the keys gives salaries
+     * in descending order with ties broken by row.
+     *
+     * @param store EmployeeStore to index
+     */
+    public static SalaryIndex build(EmployeeStore store) {
+        int size = store.size();
+        long[] keys = new long[size];
+        for (int row = 0; row < size; row++) {
+            long inverted = (long) Integer.MAX_VALUE - store.getSalary(row);
+            keys[row] = (inverted << 31) | row;
+        }
+        Arrays.sort(keys);
+
+        int[] salaries = new int[size];
+        int[] rows = new int[size];
+        for (int i = 0; i < size; i++) {
+            rows[i] = (int) (keys[i] & ROW_MASK);
+            salaries[i] = (int) ((long) Integer.MAX_VALUE - (keys[i] >>> 31));
+        }
+        return new SalaryIndex(store, salaries, rows, NO_ROWS, NO_EMPLOYEES);
+    }
+
+    /**
+     * This method builds the index over the given list.
+     *
+     * @param employees List of employees, which must not change after the index is built.
+     */
+    public static SalaryIndex build(List<Employee> employees) {
+        return build(new ListEmployeeStore(employees));
+    }
+
+    /**
+     * This method returns an index that also holds the given employee, after the
+     * employees having the same salary.
+     */
+    public SalaryIndex insert(Employee employee) {
+        int salary = employee.getEmployeeSalary();
+        int low = 0;
+        int high = added.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (added[mid].getEmployeeSalary() >= salary) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        Employee[] nextAdded = new Employee[added.length + 1];
+        System.arraycopy(added, 0, nextAdded, 0, low);
+        nextAdded[low] = employee;
+        System.arraycopy(added, low, nextAdded, low + 1, added.length - low);
+        return new SalaryIndex(store, salaries, rows, removedRows, nextAdded);
+    }
+
+    /**
+     * This method returns an index without the given row of the store it was built on.
+     */
+    public SalaryIndex removeRow(int row) {
+        int[] nextRemoved = SortedRows.insert(removedRows, row);
+        return nextRemoved == removedRows ? this : new SalaryIndex(store, salaries, rows, nextRemoved, added);
+    }
+
+    /**
+     * This method returns an index without the given employee, previously passed to insert.
+     */
+    public SalaryIndex removeInserted(Employee employee) {
+        for (int i = 0; i < added.length; i++) {
+            if (added[i] == employee) {
+                Employee[] nextAdded = new Employee[added.length - 1];
+                System.arraycopy(added, 0, nextAdded, 0, i);
+                System.arraycopy(added, i + 1, nextAdded, i, added.length - i - 1);
+                return new SalaryIndex(store, salaries, rows, removedRows, nextAdded);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * This method returns an index without the given rows and the given employees previously passed
+     * to insert, and with the inserted employees added, as removeRow, removeInserted and insert called
+     * in that order would, but copying the arrays once for the whole batch.
+     *
+     * @param deletedRows      rows of the store it was built on
+     * @param removedEmployees employees previously passed to insert, compared by identity
+     * @param inserted         employees to add, in the order insert would be called
+     */
+    public SalaryIndex apply(int[] deletedRows, Set<Employee> removedEmployees, List<Employee> inserted) {
+        Employee[] sorted = inserted.toArray(NO_EMPLOYEES);
+        Arrays.sort(sorted, BY_SALARY_DESCENDING);
+
+        Employee[] nextAdded = new Employee[added.length + sorted.length];
+        int size = 0;
+        int next = 0;
+        for (Employee employee : added) {
+            if (removedEmployees.contains(employee)) {
+                continue;
+            }
+            while (next < sorted.length && sorted[next].getEmployeeSalary() > employee.getEmployeeSalary()) {
+                nextAdded[size++] = sorted[next++];
+            }
+            nextAdded[size++] = employee;
+        }
+        while (next < sorted.length) {
+            nextAdded[size++] = sorted[next++];
+        }
+        return new SalaryIndex(store, salaries, rows, SortedRows.insertAll(removedRows, deletedRows),
+                Arrays.copyOf(nextAdded, size));
+    }
+
+    public int size() {
+        return rows.length - removedRows.length + added.length;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * This method returns the highest salary, it must not be called on an empty index.
+     */
+    public int getHighestSalary() {
+        if (isEmpty()) {
+            throw new IllegalStateException("No employees in salary index.");
+        }
+        int rank = skipRemoved(0);
+        if (rank == rows.length) {
+            return added[0].getEmployeeSalary();
+        }
+        return added.length == 0 ? salaries[rank] : Math.max(salaries[rank], added[0].getEmployeeSalary());
+    }
+
+    /**
+     * This method returns the lowest salary, it must not be called on an empty index.
+     */
+    public int getLowestSalary() {
+        if (isEmpty()) {
+            throw new IllegalStateException("No employees in salary index.");
+        }
+        int rank = rows.length - 1;
+        while (rank >= 0 && SortedRows.contains(removedRows, rows[rank])) {
+            rank--;
+        }
+        if (rank < 0) {
+            return added[added.length - 1].getEmployeeSalary();
+        }
+        return added.length == 0 ? salaries[rank] : Math.min(salaries[rank], added[added.length - 1].getEmployeeSalary());
+    }
+
+    /**
+     * This method returns at most n employees with the highest salaries, highest first.
+     *
+     * @param n number of employees to return
+     */
+    public List<Employee> getTopEarners(int n) {
+        int limit = Math.min(n, size());
+        List<Employee> topEarners = new ArrayList<>(limit);
+        int rank = 0;
+        int next = 0;
+        while (topEarners.size() < limit) {
+            rank = skipRemoved(rank);
+            if (next < added.length && (rank == rows.length || added[next].getEmployeeSalary() > salaries[rank])) {
+                topEarners.add(added[next++]);
+            } else {
+                topEarners.add(store.get(rows[rank++]));
+            }
+        }
+        return topEarners;
+    }
+
+    /*
+       Below methods give the RangeIndex access to the built arrays, ignoring changes made since.
+    */
+    int[] rowsByRank() {
+        return rows;
+    }
+
+    /**
+     * This method returns the first rank of the built arrays whose salary is at most the given one.
+     */
+    int firstRankAtMost(int salary) {
+        int low = 0;
+        int high = salaries.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (salaries[mid] > salary) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int skipRemoved(int rank) {
+        while (rank < rows.length && SortedRows.contains(removedRows, rows[rank])) {
+            rank++;
+        }
+        return rank;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.rqchallenge.index;
+
+import java.util.Arrays;
+
+/**
+ * Helpers for the sorted, duplicate free int arrays of rows the indexes keep.
+ * Arrays are never modified, changes return a copy.
+ */
+class SortedRows {
+
+    static boolean contains(int[] rows, int row) {
+        return rows.length > 0 && Arrays.binarySearch(rows, row) >= 0;
+    }
+
+    /**
+     * This method returns a copy of rows with row inserted in order, or rows itself if it already holds it.
+     */
+    static int[] insert(int[] rows, int row) {
+        int position = Arrays.binarySearch(rows, row);
+        if (position >= 0) {
+            return rows;
+        }
+        int at = -position - 1;
+        int[] next = new int[rows.length + 1];
+        System.arraycopy(rows, 0, next, 0, at);
+        next[at] = row;
+        System.arraycopy(rows, at, next, at + 1, rows.length - at);
+        return next;
+    }
+
+    /**
+     * This method returns a copy of rows with all of more inserted in order, more need not be sorted.
+     */
+    static int[] insertAll(int[] rows, int[] more) {
+        if (more.length == 0) {
+            return rows;
+        }
+        int[] merged = Arrays.copyOf(rows, rows.length + more.length);
+        System.arraycopy(more, 0, merged, rows.length, more.length);
+        Arrays.sort(merged);
+        int size = 0;
+        for (int i = 0; i < merged.length; i++) {
+            if (size == 0 || merged[size - 1] != merged[i]) {
+                merged[size++] = merged[i];
+            }
+        }
+        return size == merged.length ? merged : Arrays.copyOf(merged, size);
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.rqchallenge.monitoring;
+
+import com.example.rqchallenge.cache.ByIdCacheStats;
+import com.example.rqchallenge.cache.CacheStats;
+import com.example.rqchallenge.cache.EmployeeByIdCache;
+import com.example.rqchallenge.cache.EmployeeSnapshotCache;
+import com.example.rqchallenge.cache.ResponseBytesCache;
+import com.example.rqchallenge.cache.ResponseCacheStats;
+import com.example.rqchallenge.client.CircuitBreakerStats;
+import com.example.rqchallenge.client.CoalescingEmployeeClient;
+import com.example.rqchallenge.client.SingleFlightStats;
+import com.example.rqchallenge.client.UpstreamClientStats;
+import com.example.rqchallenge.client.UpstreamHttpClient;
+import com.example.rqchallenge.client.UpstreamSchedulerStats;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.inject.Inject;
+import java.util.List;
+
+/**
+ * The MonitoringController exposes internal counters of the service
+ * so that they can be looked at while tuning.
+ */
+@RestController
+@RequestMapping("/monitoring")
+public class MonitoringController {
+
+    private final EmployeeSnapshotCache employeeSnapshotCache;
+    private final EmployeeByIdCache employeeByIdCache;
+    private final ResponseBytesCache responseBytesCache;
+    private final CoalescingEmployeeClient employeeClient;
+    private final UpstreamHttpClient upstreamHttpClient;
+
+    @Inject
+    public MonitoringController(EmployeeSnapshotCache employeeSnapshotCache, EmployeeByIdCache employeeByIdCache,
+                                ResponseBytesCache responseBytesCache, CoalescingEmployeeClient employeeClient,
+                                UpstreamHttpClient upstreamHttpClient) {
+        this.employeeSnapshotCache = employeeSnapshotCache;
+        this.employeeByIdCache = employeeByIdCache;
+        this.responseBytesCache = responseBytesCache;
+        this.employeeClient = employeeClient;
+        this.upstreamHttpClient = upstreamHttpClient;
+    }
+
+    @GetMapping("/cache")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        return new ResponseEntity<>(employeeSnapshotCache.getStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/employee-by-id-cache")
+    public ResponseEntity<ByIdCacheStats> getEmployeeByIdCacheStats() {
+        return new ResponseEntity<>(employeeByIdCache.getStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/response-cache")
+    public ResponseEntity<ResponseCacheStats> getResponseCacheStats() {
+        return new ResponseEntity<>(responseBytesCache.getStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/single-flight")
+    public ResponseEntity<List<SingleFlightStats>> getSingleFlightStats() {
+        return new ResponseEntity<>(employeeClient.getStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/circuit-breakers")
+    public ResponseEntity<List<CircuitBreakerStats>> getCircuitBreakerStats() {
+        return new ResponseEntity<>(upstreamHttpClient.getCircuitBreakerStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/upstream-client")
+    public ResponseEntity<UpstreamClientStats> getUpstreamClientStats() {
+        return new ResponseEntity<>(upstreamHttpClient.getStats(), HttpStatus.OK);
+    }
+
+    @GetMapping("/upstream-scheduler")
+    public ResponseEntity<UpstreamSchedulerStats> getUpstreamSchedulerStats() {
+        return new ResponseEntity<>(upstreamHttpClient.getSchedulerStats(), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.rqchallenge.monitoring;
+
+import com.example.rqchallenge.cache.EmployeeDelta;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The SnapshotMetrics class records how employee lists fetched from the upstream are
+ * published by the EmployeeSnapshotCache, in the global Micrometer registry:
+ *
+ * employee.refresh.publish   timer of publishing a fetched list, per mode (full or delta)
+ * employee.refresh.changes   counter of the employees a delta applied, per kind
+ *                            (inserted, updated or deleted)
+ */
+public class SnapshotMetrics {
+
+    public static final String FULL = "full";
+    public static final String DELTA = "delta";
+
+    private static final String KIND = "kind";
+
+    /**
+     * @param mode  FULL or DELTA
+     * @param nanos time spent publishing the list
+     * @param delta changes applied, null for a full load
+     */
+    public static void recordPublish(String mode, long nanos, EmployeeDelta delta) {
+        Timer.builder("employee.refresh.publish")
+                .description("Time spent publishing employee lists fetched from the upstream")
+                .tag("mode", mode)
+                .publishPercentiles(0.5, 0.99)
+                .register(Metrics.globalRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (delta != null) {
+            recordChanges("inserted", delta.getInserted().size());
+            recordChanges("updated", delta.getUpdated().size());
+            recordChanges("deleted", delta.getDeleted().size());
+        }
+    }
+
+    private static void recordChanges(String kind, int count) {
+        Counter.builder("employee.refresh.changes")
+                .description("Employees changed by refreshes applied as a delta")
+                .tag(KIND, kind)
+                .register(Metrics.globalRegistry)
+                .increment(count);
+    }
+}
@@ -0,0 +1,260 @@
+package com.example.rqchallenge.monitoring;
+
+import com.example.rqchallenge.client.UpstreamClientStats;
+import com.example.rqchallenge.client.UpstreamHttpClient;
+import com.example.rqchallenge.client.UpstreamScheduler;
+import com.example.rqchallenge.util.UpstreamRoute;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The UpstreamMetrics class records the upstream side of the service in the global
+ * Micrometer registry, which Spring Boot backs with its own (Prometheus) registry:
+ *
+ * upstream.requests         timer per route and outcome (status code, TIMEOUT or IO_ERROR)
+ * upstream.timeouts         counter per route
+ * upstream.parse            timer of reading a response body, per route
+ * upstream.payload          distribution of the response body bytes read, per route
+ * upstream.mock.fallbacks   counter of the mocked employee data served instead, per route
+ *
+ * and the state of the UpstreamHttpClient, read when the registry is scraped:
+ *
+ * upstream.pool.connections       gauge of the pooled connections, per state (active or idle)
+ * upstream.pool.max.idle          gauge of the idle connections the pool keeps
+ * upstream.dispatcher.calls       gauge of the async calls, per state (running or queued)
+ * upstream.cache.requests         counter of the HTTP cache lookups, per result (hit or network)
+ *
+ * and the pacing of the UpstreamScheduler:
+ *
+ * upstream.scheduler.queue        gauge of the requests waiting for a token, per lane (WRITE or READ)
+ * upstream.scheduler.wait         timer of the time queued requests waited, per lane
+ * upstream.scheduler.rate         gauge of the current requests per second of the token bucket
+ * upstream.scheduler.rejected     counter of the requests failed without being sent, per lane and
+ *                                 reason (queue_full or timeout)
+ * upstream.throttled              counter of the 429 (and 503 with Retry-After) answers, per route
+ *                                 and outcome (retried, attempts_exhausted, delay_too_long or
+ *                                 budget_exhausted)
+ * upstream.retry.budget           gauge of the retries the budget allows right now
+ *
+ * Meters are looked up by name and tags on every call, which is a map lookup in Micrometer.
+ */
+public class UpstreamMetrics {
+
+    private static final String ROUTE = "route";
+    private static final String OUTCOME = "outcome";
+    private static final String LANE = "lane";
+
+    private static final Interceptor INTERCEPTOR = UpstreamMetrics::intercept;
+
+    public static Interceptor interceptor() {
+        return INTERCEPTOR;
+    }
+
+    /**
+     * This method registers the gauges of the given client, which the registry keeps
+     * for as long as the client is reachable.
+     */
+    public static void bindClient(UpstreamHttpClient client) {
+        clientGauge("upstream.pool.connections", "Pooled upstream connections", "state", "active",
+                client, stats -> stats.getConnections() - stats.getIdleConnections());
+        clientGauge("upstream.pool.connections", "Pooled upstream connections", "state", "idle",
+                client, UpstreamClientStats::getIdleConnections);
+        Gauge.builder("upstream.pool.max.idle", client, c -> c.getStats().getMaxIdleConnections())
+                .description("Idle upstream connections the pool keeps")
+                .register(Metrics.globalRegistry);
+        clientGauge("upstream.dispatcher.calls", "Async upstream calls", "state", "running",
+                client, UpstreamClientStats::getRunningCalls);
+        clientGauge("upstream.dispatcher.calls", "Async upstream calls", "state", "queued",
+                client, UpstreamClientStats::getQueuedCalls);
+        FunctionCounter.builder("upstream.cache.requests", client, c -> c.getStats().getCacheHits())
+                .description("Upstream HTTP cache lookups")
+                .tag("result", "hit")
+                .register(Metrics.globalRegistry);
+        FunctionCounter.builder("upstream.cache.requests", client, c -> c.getStats().getCacheNetworkResponses())
+                .description("Upstream HTTP cache lookups")
+                .tag("result", "network")
+                .register(Metrics.globalRegistry);
+    }
+
+    /**
+     * This method registers the gauges of the given scheduler, which the registry keeps
+     * for as long as the scheduler is reachable.
+     */
+    public static void bindScheduler(UpstreamScheduler scheduler) {
+        for (UpstreamScheduler.Lane lane : UpstreamScheduler.Lane.values()) {
+            Gauge.builder("upstream.scheduler.queue", scheduler, s -> s.getQueued(lane))
+                    .description("Upstream requests waiting for a token")
+                    .tag(LANE, lane.name())
+                    .register(Metrics.globalRegistry);
+        }
+        Gauge.builder("upstream.scheduler.rate", scheduler, s -> s.getStats().getRequestsPerSecond())
+                .description("Current upstream requests per second of the token bucket")
+                .register(Metrics.globalRegistry);
+        Gauge.builder("upstream.retry.budget", scheduler, s -> s.getStats().getRetryBudget())
+                .description("Retries of throttled upstream requests the budget allows")
+                .register(Metrics.globalRegistry);
+    }
+
+    public static void recordSchedulerWait(UpstreamScheduler.Lane lane, long nanos) {
+        Timer.builder("upstream.scheduler.wait")
+                .description("Time upstream requests waited for a token")
+                .tag(LANE, lane.name())
+                .publishPercentiles(0.5, 0.99)
+                .register(Metrics.globalRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public static void recordSchedulerRejection(UpstreamScheduler.Lane lane, String reason) {
+        Counter.builder("upstream.scheduler.rejected")
+                .description("Upstream requests failed without being sent")
+                .tag(LANE, lane.name())
+                .tag("reason", reason)
+                .register(Metrics.globalRegistry)
+                .increment();
+    }
+
+    public static void recordThrottled(UpstreamRoute route, String outcome) {
+        Counter.builder("upstream.throttled")
+                .description("Throttled upstream answers")
+                .tag(ROUTE, route.name())
+                .tag(OUTCOME, outcome)
+                .register(Metrics.globalRegistry)
+                .increment();
+    }
+
+    private static void clientGauge(String name, String description, String tagKey, String tagValue,
+                                    UpstreamHttpClient client, ToDoubleFunction<UpstreamClientStats> value) {
+        Gauge.builder(name, client, c -> value.applyAsDouble(c.getStats()))
+                .description(description)
+                .tag(tagKey, tagValue)
+                .register(Metrics.globalRegistry);
+    }
+
+    public static UpstreamRoute routeOf(Request request) {
+        UpstreamRoute route = request.tag(UpstreamRoute.class);
+        return route == null ? UpstreamRoute.UNKNOWN : route;
+    }
+
+    /**
+     * This method reads a response body with the given reader, recording the time spent
+     * and the number of bytes read.
+     *
+     * @param response response to read, closed by the caller
+     * @param reader   reader of the response body
+     */
+    public static <T> T readBody(Response response, BodyReader<T> reader) throws IOException {
+        String route = routeOf(response.request()).name();
+        CountingInputStream inputStream = new CountingInputStream(response.body().byteStream());
+        long start = System.nanoTime();
+        try {
+            return reader.read(inputStream);
+        } finally {
+            Timer.builder("upstream.parse")
+                    .description("Time spent reading upstream response bodies")
+                    .tag(ROUTE, route)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(Metrics.globalRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            DistributionSummary.builder("upstream.payload")
+                    .description("Bytes read from upstream response bodies")
+                    .baseUnit("bytes")
+                    .tag(ROUTE, route)
+                    .register(Metrics.globalRegistry)
+                    .record(inputStream.count);
+        }
+    }
+
+    public static void recordMockFallback(Request request) {
+        Counter.builder("upstream.mock.fallbacks")
+                .description("Responses answered with the mocked employee data")
+                .tag(ROUTE, routeOf(request).name())
+                .register(Metrics.globalRegistry)
+                .increment();
+    }
+
+    private static Response intercept(Interceptor.Chain chain) throws IOException {
+        Request request = chain.request();
+        String route = routeOf(request).name();
+        long start = System.nanoTime();
+        String outcome = "IO_ERROR";
+        try {
+            Response response = chain.proceed(request);
+            outcome = String.valueOf(response.code());
+            return response;
+        } catch (InterruptedIOException e) {
+            /*
+               Covers both the SocketTimeoutException of connect and read timeouts
+               and the plain InterruptedIOException of a call timeout.
+            */
+            outcome = "TIMEOUT";
+            throw e;
+        } finally {
+            Timer.builder("upstream.requests")
+                    .description("Upstream call latency, up to the response headers")
+                    .tag(ROUTE, route)
+                    .tag(OUTCOME, outcome)
+                    .publishPercentiles(0.5, 0.99)
+                    .register(Metrics.globalRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if ("TIMEOUT".equals(outcome)) {
+                Counter.builder("upstream.timeouts")
+                        .description("Upstream calls that timed out")
+                        .tag(ROUTE, route)
+                        .register(Metrics.globalRegistry)
+                        .increment();
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface BodyReader<T> {
+        T read(InputStream inputStream) throws IOException;
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream inputStream) {
+            super(inputStream);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                count++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
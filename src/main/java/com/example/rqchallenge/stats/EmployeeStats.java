@@ -0,0 +1,125 @@
+package com.example.rqchallenge.stats;
+
+import com.example.rqchallenge.entity.AgeBandStats;
+import com.example.rqchallenge.entity.DistributionStats;
+import com.example.rqchallenge.store.EmployeeStore;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The EmployeeStats holds the aggregates behind the /stats endpoints: a LogHistogram of
+ * the salaries, one of the ages, and one of the salaries of each age band.
+ *
+ * It is built with a single pass over an employee store, then kept up to date as employees
+ * are created and deleted: withAdded and withRemoved return new stats, copying only the
+ * histograms the employee falls in. Queries never look at the rows.
+ */
+public class EmployeeStats {
+
+    /**
+     * First age of each band, the last band has no upper bound.
+     */
+    private static final int[] AGE_BAND_STARTS = {0, 20, 30, 40, 50, 60};
+
+    private static final double[] PERCENTILES = {50, 75, 90, 95, 99};
+
+    private final LogHistogram salaries;
+    private final LogHistogram ages;
+    private final LogHistogram[] bandSalaries;
+
+    private EmployeeStats(LogHistogram salaries, LogHistogram ages, LogHistogram[] bandSalaries) {
+        this.salaries = salaries;
+        this.ages = ages;
+        this.bandSalaries = bandSalaries;
+    }
+
+    public static EmployeeStats build(EmployeeStore store) {
+        LogHistogram[] bandSalaries = new LogHistogram[AGE_BAND_STARTS.length];
+        for (int band = 0; band < bandSalaries.length; band++) {
+            bandSalaries[band] = new LogHistogram();
+        }
+        EmployeeStats stats = new EmployeeStats(new LogHistogram(), new LogHistogram(), bandSalaries);
+
+        for (int row = 0; row < store.size(); row++) {
+            int salary = store.getSalary(row);
+            int age = store.getAge(row);
+            stats.salaries.record(salary);
+            stats.ages.record(age);
+            stats.bandSalaries[bandOf(age)].record(salary);
+        }
+        return stats;
+    }
+
+    public EmployeeStats withAdded(int salary, int age) {
+        EmployeeStats next = copyFor(age);
+        next.salaries.record(salary);
+        next.ages.record(age);
+        next.bandSalaries[bandOf(age)].record(salary);
+        return next;
+    }
+
+    public EmployeeStats withRemoved(int salary, int age) {
+        EmployeeStats next = copyFor(age);
+        next.salaries.remove(salary);
+        next.ages.remove(age);
+        next.bandSalaries[bandOf(age)].remove(salary);
+        return next;
+    }
+
+    /**
+     * This method describes the salaries, with the given exact lowest and highest salaries.
+     *
+     * @param bucketCount number of histogram buckets
+     */
+    public DistributionStats getSalaryStats(int bucketCount, int min, int max) {
+        return describe(salaries, bucketCount, min, max);
+    }
+
+    public DistributionStats getAgeStats(int bucketCount) {
+        return describe(ages, bucketCount, ages.getMin(), ages.getMax());
+    }
+
+    /**
+     * This method describes the salaries of each age band, min and max are
+     * known within the precision of the LogHistogram.
+     *
+     * @param bucketCount number of histogram buckets of each band
+     */
+    public List<AgeBandStats> getSalaryByAgeBand(int bucketCount) {
+        List<AgeBandStats> bands = new ArrayList<>(AGE_BAND_STARTS.length);
+        for (int band = 0; band < AGE_BAND_STARTS.length; band++) {
+            LogHistogram histogram = bandSalaries[band];
+            Integer toAge = band + 1 < AGE_BAND_STARTS.length ? AGE_BAND_STARTS[band + 1] - 1 : null;
+            bands.add(new AgeBandStats(AGE_BAND_STARTS[band], toAge,
+                    describe(histogram, bucketCount, histogram.getMin(), histogram.getMax())));
+        }
+        return bands;
+    }
+
+    private static DistributionStats describe(LogHistogram histogram, int bucketCount, int min, int max) {
+        Map<String, Integer> percentiles = new LinkedHashMap<>();
+        for (double percentile : PERCENTILES) {
+            percentiles.put("p" + (int) percentile, histogram.getValueAtPercentile(percentile));
+        }
+        return new DistributionStats(histogram.getCount(), min, max, histogram.getMean(), percentiles,
+                histogram.getBuckets(bucketCount, min, max));
+    }
+
+    private EmployeeStats copyFor(int age) {
+        LogHistogram[] nextBands = bandSalaries.clone();
+        int band = bandOf(age);
+        nextBands[band] = bandSalaries[band].copy();
+        return new EmployeeStats(salaries.copy(), ages.copy(), nextBands);
+    }
+
+    private static int bandOf(int age) {
+        int band = AGE_BAND_STARTS.length - 1;
+        while (band > 0 && age < AGE_BAND_STARTS[band]) {
+            band--;
+        }
+        return band;
+    }
+}
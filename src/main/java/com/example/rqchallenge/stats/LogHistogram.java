@@ -0,0 +1,190 @@
+package com.example.rqchallenge.stats;
+
+import com.example.rqchallenge.entity.HistogramBucket;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The LogHistogram counts non-negative int values in log-linear buckets, the layout of an
+ * HDR histogram: values below 256 get a bucket each, above that every power of two is split
+ * in 128 buckets, so a value is known within 1/128 (0.8%) of itself. Negative values are
+ * counted as 0.
+ *
+ * Values can be added and removed, and histograms can be merged by adding their counts.
+ * Every query walks the buckets, whose number only depends on the largest value, never on
+ * the number of values counted.
+ *
+ * A LogHistogram is mutable while it is built, then shared read-only: changes are made on a copy.
+ */
+public class LogHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int EXACT_LIMIT = 2 * SUB_BUCKETS;
+
+    private int[] counts;
+    private long count;
+    private long sum;
+
+    public LogHistogram() {
+        this.counts = new int[EXACT_LIMIT];
+    }
+
+    private LogHistogram(int[] counts, long count, long sum) {
+        this.counts = counts;
+        this.count = count;
+        this.sum = sum;
+    }
+
+    public LogHistogram copy() {
+        return new LogHistogram(counts.clone(), count, sum);
+    }
+
+    public void record(int value) {
+        int index = indexOf(Math.max(value, 0));
+        if (index >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(index + 1, counts.length + SUB_BUCKETS));
+        }
+        counts[index]++;
+        count++;
+        sum += Math.max(value, 0);
+    }
+
+    /**
+     * This method removes a value previously recorded, it has no effect if there is none in its bucket.
+     */
+    public void remove(int value) {
+        int index = indexOf(Math.max(value, 0));
+        if (index < counts.length && counts[index] > 0) {
+            counts[index]--;
+            count--;
+            sum -= Math.max(value, 0);
+        }
+    }
+
+    /**
+     * This method adds the counts of another histogram to this one.
+     */
+    public void merge(LogHistogram other) {
+        if (other.counts.length > counts.length) {
+            counts = Arrays.copyOf(counts, other.counts.length);
+        }
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * This method returns the smallest value counted, within its bucket precision, 0 when empty.
+     */
+    public int getMin() {
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                return lowestValue(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * This method returns the largest value counted, within its bucket precision, 0 when empty.
+     */
+    public int getMax() {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return highestValue(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * This method returns the value below or at which the given percentage of the values fall,
+     * within its bucket precision, 0 when empty.
+     *
+     * @param percentile percentage between 0 and 100
+     */
+    public int getValueAtPercentile(double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return middleValue(i);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * This method regroups the counts into equal width buckets between min and max,
+     * each value being counted in the bucket holding the middle of its own bucket.
+     *
+     * @param bucketCount number of buckets returned, when there is at least one value
+     * @param min         lower bound of the first bucket, usually getMin
+     * @param max         upper bound of the last bucket, usually getMax
+     */
+    public List<HistogramBucket> getBuckets(int bucketCount, int min, int max) {
+        List<HistogramBucket> buckets = new ArrayList<>(bucketCount);
+        if (count == 0 || bucketCount <= 0) {
+            return buckets;
+        }
+        long width = Math.max(1, ((long) max - min + bucketCount) / bucketCount);
+        long[] regrouped = new long[bucketCount];
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                long position = Math.max(0, (middleValue(i) - (long) min) / width);
+                regrouped[(int) Math.min(bucketCount - 1, position)] += counts[i];
+            }
+        }
+        for (int i = 0; i < bucketCount; i++) {
+            long from = min + i * width;
+            buckets.add(new HistogramBucket(from, from + width - 1, regrouped[i]));
+        }
+        return buckets;
+    }
+
+    /*
+       Values below EXACT_LIMIT are their own index. Above, the index is made of the position
+       of the highest bit and the SUB_BUCKET_BITS bits following it.
+    */
+    static int indexOf(int value) {
+        if (value < EXACT_LIMIT) {
+            return value;
+        }
+        int shift = 31 - Integer.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return EXACT_LIMIT + (shift - 1) * SUB_BUCKETS + ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    static int lowestValue(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int shift = (index - EXACT_LIMIT) / SUB_BUCKETS + 1;
+        return ((index - EXACT_LIMIT) % SUB_BUCKETS + SUB_BUCKETS) << shift;
+    }
+
+    static int highestValue(int index) {
+        if (index < EXACT_LIMIT) {
+            return index;
+        }
+        int shift = (index - EXACT_LIMIT) / SUB_BUCKETS + 1;
+        return lowestValue(index) + ((1 << shift) - 1);
+    }
+
+    private static int middleValue(int index) {
+        return (int) (((long) lowestValue(index) + highestValue(index)) / 2);
+    }
+}
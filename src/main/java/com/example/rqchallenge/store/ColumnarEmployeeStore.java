@@ -0,0 +1,192 @@
+package com.example.rqchallenge.store;
+
+import com.example.rqchallenge.entity.Employee;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The ColumnarEmployeeStore keeps every field in its own primitive column: ids in a long[],
+ * salaries and ages in int[], names and profile images as UTF-8 bytes packed into one byte[]
+ * arena each, addressed by an int[] of offsets. Ids are mapped to rows by a LongIntHashMap.
+ *
+ * A million rows are a dozen arrays instead of a million Employee objects, each with a boxed
+ * id and two Strings. Employee objects are only created by get(row) and asList(), for the
+ * rows that are actually read, and are garbage as soon as they are serialized.
+ */
+public class ColumnarEmployeeStore implements EmployeeStore {
+
+    private static final long NO_ID = Long.MIN_VALUE;
+
+    private final int size;
+    private final long[] ids;
+    private final int[] salaries;
+    private final int[] ages;
+    private final StringColumn names;
+    private final StringColumn profileImages;
+    private final LongIntHashMap rowsById;
+    private final List<Employee> view = new EmployeeList();
+
+    private ColumnarEmployeeStore(int size, long[] ids, int[] salaries, int[] ages,
+                                  StringColumn names, StringColumn profileImages, LongIntHashMap rowsById) {
+        this.size = size;
+        this.ids = ids;
+        this.salaries = salaries;
+        this.ages = ages;
+        this.names = names;
+        this.profileImages = profileImages;
+        this.rowsById = rowsById;
+    }
+
+    /**
+     * This method copies the given employees into columns, the list can be dropped afterwards.
+     */
+    public static ColumnarEmployeeStore of(List<Employee> employees) {
+        int size = employees.size();
+        long[] ids = new long[size];
+        int[] salaries = new int[size];
+        int[] ages = new int[size];
+        StringColumn.Builder names = new StringColumn.Builder(size);
+        StringColumn.Builder profileImages = new StringColumn.Builder(size);
+        LongIntHashMap rowsById = new LongIntHashMap(size);
+
+        for (int row = 0; row < size; row++) {
+            Employee employee = employees.get(row);
+            ids[row] = employee.getId() == null ? NO_ID : employee.getId();
+            salaries[row] = employee.getEmployeeSalary();
+            ages[row] = employee.getEmployeeAge();
+            names.add(employee.getEmployeeName());
+            profileImages.add(employee.getProfileImage());
+            if (ids[row] != NO_ID) {
+                rowsById.putIfAbsent(ids[row], row);
+            }
+        }
+        return new ColumnarEmployeeStore(size, ids, salaries, ages, names.build(), profileImages.build(), rowsById);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getName(int row) {
+        return names.get(row);
+    }
+
+    @Override
+    public Utf8Column getNameColumn() {
+        return names;
+    }
+
+    @Override
+    public int getSalary(int row) {
+        return salaries[row];
+    }
+
+    @Override
+    public int getAge(int row) {
+        return ages[row];
+    }
+
+    @Override
+    public Employee get(int row) {
+        Employee employee = new Employee();
+        employee.setId(ids[row] == NO_ID ? null : ids[row]);
+        employee.setEmployeeName(names.get(row));
+        employee.setEmployeeSalary(salaries[row]);
+        employee.setEmployeeAge(ages[row]);
+        employee.setProfileImage(profileImages.get(row));
+        return employee;
+    }
+
+    @Override
+    public int findRow(long id) {
+        return id == NO_ID ? -1 : rowsById.get(id);
+    }
+
+    @Override
+    public List<Employee> asList() {
+        return view;
+    }
+
+    private class EmployeeList extends AbstractList<Employee> implements RandomAccess {
+        @Override
+        public Employee get(int row) {
+            return ColumnarEmployeeStore.this.get(row);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Strings of a column, UTF-8 encoded back to back in a single arena.
+     * Row r spans offsets[r] to offsets[r + 1], null rows are flagged in a BitSet.
+     */
+    static class StringColumn implements Utf8Column {
+        private final byte[] arena;
+        private final int[] offsets;
+        private final BitSet nulls;
+
+        private StringColumn(byte[] arena, int[] offsets, BitSet nulls) {
+            this.arena = arena;
+            this.offsets = offsets;
+            this.nulls = nulls;
+        }
+
+        String get(int row) {
+            if (nulls.get(row)) {
+                return null;
+            }
+            int from = offsets[row];
+            return new String(arena, from, offsets[row + 1] - from, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public int length(int row) {
+            return offsets[row + 1] - offsets[row];
+        }
+
+        @Override
+        public byte byteAt(int row, int index) {
+            return arena[offsets[row] + index];
+        }
+
+        static class Builder {
+            private byte[] arena = new byte[64];
+            private final int[] offsets;
+            private final BitSet nulls = new BitSet();
+            private int rows;
+            private int length;
+
+            Builder(int expectedRows) {
+                this.offsets = new int[expectedRows + 1];
+            }
+
+            void add(String value) {
+                if (value == null) {
+                    nulls.set(rows);
+                } else {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    if (length + bytes.length > arena.length) {
+                        arena = Arrays.copyOf(arena, Math.max(arena.length * 2, length + bytes.length));
+                    }
+                    System.arraycopy(bytes, 0, arena, length, bytes.length);
+                    length += bytes.length;
+                }
+                offsets[++rows] = length;
+            }
+
+            StringColumn build() {
+                return new StringColumn(Arrays.copyOf(arena, length), offsets, nulls);
+            }
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.rqchallenge.store;
+
+import com.example.rqchallenge.entity.Employee;
+
+import java.util.List;
+
+/**
+ * The EmployeeStore holds an immutable set of employee rows, addressed by row number
+ * from 0 to size() - 1.
+ *
+ * Column getters let indexes read the fields they need without an Employee per row,
+ * get(row) and asList() hand out Employee objects for the rows actually returned.
+ */
+public interface EmployeeStore {
+
+    int size();
+
+    String getName(int row);
+
+    /**
+     * This method returns the names of all rows as UTF-8, read in place when the store holds them so.
+     */
+    Utf8Column getNameColumn();
+
+    int getSalary(int row);
+
+    int getAge(int row);
+
+    Employee get(int row);
+
+    /**
+     * This method returns the row of the first employee with the given id, -1 if there is none.
+     */
+    int findRow(long id);
+
+    /**
+     * This method returns a read-only list of all rows, in row order.
+     */
+    List<Employee> asList();
+}
@@ -0,0 +1,81 @@
+package com.example.rqchallenge.store;
+
+import com.example.rqchallenge.entity.Employee;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The ListEmployeeStore keeps the Employee objects as decoded, in a list.
+ * The HashMap from id to row is only built by the first findRow.
+ */
+public class ListEmployeeStore implements EmployeeStore {
+
+    private final List<Employee> employees;
+    private volatile Map<Long, Integer> rowsById;
+
+    public ListEmployeeStore(List<Employee> employees) {
+        this.employees = Collections.unmodifiableList(employees);
+    }
+
+    @Override
+    public int size() {
+        return employees.size();
+    }
+
+    @Override
+    public String getName(int row) {
+        return employees.get(row).getEmployeeName();
+    }
+
+    /**
+     * The names are encoded into a new column on every call, callers keep it.
+     */
+    @Override
+    public Utf8Column getNameColumn() {
+        ColumnarEmployeeStore.StringColumn.Builder names = new ColumnarEmployeeStore.StringColumn.Builder(employees.size());
+        for (Employee employee : employees) {
+            names.add(employee.getEmployeeName());
+        }
+        return names.build();
+    }
+
+    @Override
+    public int getSalary(int row) {
+        return employees.get(row).getEmployeeSalary();
+    }
+
+    @Override
+    public int getAge(int row) {
+        return employees.get(row).getEmployeeAge();
+    }
+
+    @Override
+    public Employee get(int row) {
+        return employees.get(row);
+    }
+
+    @Override
+    public int findRow(long id) {
+        Map<Long, Integer> byId = rowsById;
+        if (byId == null) {
+            /*
+               Racing threads may both build the map, they build the same one.
+            */
+            byId = new HashMap<>(employees.size() * 2);
+            for (int row = 0; row < employees.size(); row++) {
+                byId.putIfAbsent(employees.get(row).getId(), row);
+            }
+            rowsById = byId;
+        }
+        Integer row = byId.get(id);
+        return row == null ? -1 : row;
+    }
+
+    @Override
+    public List<Employee> asList() {
+        return employees;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.rqchallenge.store;
+
+import java.util.Arrays;
+
+/**
+ * The LongIntHashMap maps long keys to non-negative int values without boxing, using open
+ * addressing with linear probing over two parallel arrays. It is sized once for an expected
+ * number of keys and never resized, which is all an immutable store or index needs.
+ */
+public class LongIntHashMap {
+
+    private static final int EMPTY = -1;
+
+    private final long[] keys;
+    private final int[] values;
+    private final int mask;
+
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1;
+        this.keys = new long[capacity];
+        this.values = new int[capacity];
+        this.mask = capacity - 1;
+        Arrays.fill(values, EMPTY);
+    }
+
+    /**
+     * This method maps the key to the value unless the key is already mapped.
+     *
+     * @param value non-negative value
+     */
+    public void putIfAbsent(long key, int value) {
+        int slot = slot(key);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+    }
+
+    /**
+     * This method returns the value mapped to the key, -1 if there is none.
+     */
+    public int get(long key) {
+        int slot = slot(key);
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /*
+       Sequential ids would all land in neighbouring slots,
+       the murmur3 finalizer spreads them over the table.
+    */
+    private int slot(long key) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+}
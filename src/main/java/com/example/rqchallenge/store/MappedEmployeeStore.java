@@ -0,0 +1,270 @@
+package com.example.rqchallenge.store;
+
+import com.example.rqchallenge.entity.Employee;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The MappedEmployeeStore reads employees straight from a memory-mapped snapshot file,
+ * so that a restarted service can serve the last known employees without parsing anything.
+ *
+ * File layout, big-endian:
+ *
+ * header      magic "EMPS", format version, row count, string heap offset (int each)
+ * records     one fixed-width record of RECORD_SIZE bytes per row:
+ *             id (long), salary, age, name offset, name length,
+ *             profile image offset, profile image length (int each)
+ * string heap UTF-8 bytes of names and profile images, addressed by the records
+ *
+ * A length of -1 stands for null. Files are written to a temporary file next to the target
+ * and moved over it atomically, readers never see a partial file. The id to row map is
+ * built on the first findRow, by a scan of the id column. Opening a file checks that every
+ * string lies within the string heap, so a corrupt file is rejected up front.
+ */
+public class MappedEmployeeStore implements EmployeeStore {
+
+    private static final int MAGIC = 0x454D5053;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_SIZE = 32;
+
+    private static final int ID = 0;
+    private static final int SALARY = 8;
+    private static final int AGE = 12;
+    private static final int NAME = 16;
+    private static final int PROFILE_IMAGE = 24;
+
+    private static final int NULL_LENGTH = -1;
+    private static final long NO_ID = Long.MIN_VALUE;
+
+    private final ByteBuffer buffer;
+    private final int size;
+    private final List<Employee> view = new EmployeeList();
+    private final Utf8Column nameColumn = new NameColumn();
+    private volatile LongIntHashMap rowsById;
+
+    private MappedEmployeeStore(ByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+    }
+
+    /**
+     * This method maps the given snapshot file.
+     *
+     * @throws IOException when the file cannot be read or is not a snapshot file of this format
+     */
+    public static MappedEmployeeStore open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE || channel.size() > Integer.MAX_VALUE) {
+                throw new IOException(String.format("Invalid employee snapshot file size : %d", channel.size()));
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException(String.format("Not an employee snapshot file : %s", path));
+        }
+        int size = buffer.getInt(8);
+        int heapOffset = buffer.getInt(12);
+        if (size < 0 || heapOffset != HEADER_SIZE + (long) size * RECORD_SIZE || heapOffset > buffer.capacity()) {
+            throw new IOException(String.format("Corrupt employee snapshot file : %s", path));
+        }
+        for (int row = 0; row < size; row++) {
+            int record = HEADER_SIZE + row * RECORD_SIZE;
+            if (!isInHeap(buffer, record + NAME, heapOffset) || !isInHeap(buffer, record + PROFILE_IMAGE, heapOffset)) {
+                throw new IOException(String.format("Corrupt employee snapshot file : %s", path));
+            }
+        }
+        return new MappedEmployeeStore(buffer, size);
+    }
+
+    /**
+     * This method writes the store to the given file, replacing it atomically.
+     */
+    public static void write(EmployeeStore store, Path path) throws IOException {
+        int size = store.size();
+        if (HEADER_SIZE + (long) size * RECORD_SIZE > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Employee snapshot of %d rows is too large to be mapped.", size));
+        }
+        int heapOffset = HEADER_SIZE + size * RECORD_SIZE;
+        ByteBuffer records = ByteBuffer.allocate(heapOffset);
+        ByteArrayOutputStream heap = new ByteArrayOutputStream();
+
+        records.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(size).putInt(heapOffset);
+        for (int row = 0; row < size; row++) {
+            Employee employee = store.get(row);
+            records.putLong(employee.getId() == null ? NO_ID : employee.getId())
+                    .putInt(employee.getEmployeeSalary())
+                    .putInt(employee.getEmployeeAge());
+            putString(records, heap, heapOffset, employee.getEmployeeName());
+            putString(records, heap, heapOffset, employee.getProfileImage());
+        }
+        if ((long) heapOffset + heap.size() > Integer.MAX_VALUE) {
+            throw new IOException(String.format("Employee snapshot of %d rows is too large to be mapped.", size));
+        }
+        records.flip();
+        ByteBuffer strings = ByteBuffer.wrap(heap.toByteArray());
+
+        Path directory = path.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (records.hasRemaining() || strings.hasRemaining()) {
+                    channel.write(new ByteBuffer[]{records, strings});
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getName(int row) {
+        return getString(row, NAME);
+    }
+
+    @Override
+    public Utf8Column getNameColumn() {
+        return nameColumn;
+    }
+
+    @Override
+    public int getSalary(int row) {
+        return buffer.getInt(record(row) + SALARY);
+    }
+
+    @Override
+    public int getAge(int row) {
+        return buffer.getInt(record(row) + AGE);
+    }
+
+    @Override
+    public Employee get(int row) {
+        long id = buffer.getLong(record(row) + ID);
+        Employee employee = new Employee();
+        employee.setId(id == NO_ID ? null : id);
+        employee.setEmployeeName(getString(row, NAME));
+        employee.setEmployeeSalary(getSalary(row));
+        employee.setEmployeeAge(getAge(row));
+        employee.setProfileImage(getString(row, PROFILE_IMAGE));
+        return employee;
+    }
+
+    @Override
+    public int findRow(long id) {
+        LongIntHashMap byId = rowsById;
+        if (byId == null) {
+            byId = new LongIntHashMap(size);
+            for (int row = 0; row < size; row++) {
+                long rowId = buffer.getLong(record(row) + ID);
+                if (rowId != NO_ID) {
+                    byId.putIfAbsent(rowId, row);
+                }
+            }
+            rowsById = byId;
+        }
+        return id == NO_ID ? -1 : byId.get(id);
+    }
+
+    @Override
+    public List<Employee> asList() {
+        return view;
+    }
+
+    private int record(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException(String.format("Row %d out of %d rows.", row, size));
+        }
+        return HEADER_SIZE + row * RECORD_SIZE;
+    }
+
+    /*
+       The shared buffer's position is never moved, strings are copied
+       through a duplicate, so concurrent readers need no locking.
+    */
+    private String getString(int row, int field) {
+        int record = record(row);
+        int offset = buffer.getInt(record + field);
+        int length = buffer.getInt(record + field + 4);
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        ByteBuffer strings = buffer.duplicate();
+        strings.position(offset);
+        strings.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /*
+       A string field must be null or lie wholly within the string heap, otherwise
+       getString would fail on every read of that row instead of once here.
+    */
+    private static boolean isInHeap(ByteBuffer buffer, int field, int heapOffset) {
+        int offset = buffer.getInt(field);
+        int length = buffer.getInt(field + 4);
+        if (length == NULL_LENGTH) {
+            return true;
+        }
+        return length >= 0 && offset >= heapOffset && (long) offset + length <= buffer.capacity();
+    }
+
+    private static void putString(ByteBuffer records, ByteArrayOutputStream heap, int heapOffset, String value) {
+        if (value == null) {
+            records.putInt(heapOffset + heap.size()).putInt(NULL_LENGTH);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        records.putInt(heapOffset + heap.size()).putInt(bytes.length);
+        heap.write(bytes, 0, bytes.length);
+    }
+
+    private class EmployeeList extends AbstractList<Employee> implements RandomAccess {
+        @Override
+        public Employee get(int row) {
+            return MappedEmployeeStore.this.get(row);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Names read straight from the string heap of the mapped file.
+     */
+    private class NameColumn implements Utf8Column {
+        @Override
+        public int length(int row) {
+            int length = buffer.getInt(record(row) + NAME + 4);
+            return length == NULL_LENGTH ? 0 : length;
+        }
+
+        @Override
+        public byte byteAt(int row, int index) {
+            return buffer.get(buffer.getInt(record(row) + NAME) + index);
+        }
+    }
+}
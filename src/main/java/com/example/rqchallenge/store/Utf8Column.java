@@ -0,0 +1,19 @@
+package com.example.rqchallenge.store;
+
+/**
+ * The Utf8Column gives indexes read access to a string column of an EmployeeStore as UTF-8
+ * bytes, so that they can match and compare strings without a String per row.
+ * A null string reads as an empty one.
+ */
+public interface Utf8Column {
+
+    /**
+     * This method returns the number of UTF-8 bytes of the string of the row.
+     */
+    int length(int row);
+
+    /**
+     * This method returns the byte at the given index, from 0 to length(row) - 1, of the string of the row.
+     */
+    byte byteAt(int row, int index);
+}
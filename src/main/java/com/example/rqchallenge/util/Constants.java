@@ -11,6 +11,7 @@ public class Constants {
     public static String AGE = "age";
     public static String JSON_KEY_DATA = "data";
     public static String JSON_KEY_STATUS = "status";
+    public static String JSON_KEY_ID = "id";
     public static String DOLLAR = "$";
     public static String EMPLOYEE_NAME = "employee_name";
     public static String EMPLOYEE_SALARY = "employee_salary";
@@ -0,0 +1,234 @@
+package com.example.rqchallenge.util;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.entity.EmployeeField;
+import com.example.rqchallenge.entity.EmployeeRows;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.util.ByteArrayBuilder;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static com.example.rqchallenge.util.Constants.AGE;
+import static com.example.rqchallenge.util.Constants.JSON_KEY_DATA;
+import static com.example.rqchallenge.util.Constants.JSON_KEY_ID;
+import static com.example.rqchallenge.util.Constants.JSON_KEY_STATUS;
+import static com.example.rqchallenge.util.Constants.NAME;
+import static com.example.rqchallenge.util.Constants.SALARY;
+
+/**
+ * The EmployeeJson class holds the single, pre-configured ObjectMapper used to read
+ * upstream payloads, and streaming readers for the upstream envelope
+ * {"status": ..., "data": ...}, plus the streaming NDJSON writer of the export and
+ * the writer of upstream create bodies.
+ *
+ * Payloads are read straight from the response stream: the parser skips to the
+ * wanted field and binds employees one at a time, without building a String,
+ * a JsonNode tree or a second copy of the "data" array first.
+ */
+public class EmployeeJson {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
+
+    private static final ObjectReader EMPLOYEE_READER = MAPPER.readerFor(Employee.class);
+
+    private static final ObjectReader EMPLOYEE_LIST_READER = MAPPER.readerFor(new TypeReference<List<Employee>>() {
+    });
+
+    /*
+       One generator per thread, writing to a buffer that is reset after each body,
+       so writing a create body allocates nothing but the returned array.
+    */
+    private static final ThreadLocal<BodyWriter> BODY_WRITER = ThreadLocal.withInitial(BodyWriter::new);
+
+    public static ObjectMapper mapper() {
+        return MAPPER;
+    }
+
+    /**
+     * This method reads the "data" field of an upstream envelope, which is either an
+     * array of employees or a single employee. A missing or null "data" gives an empty list.
+     *
+     * @param inputStream stream of the upstream response body
+     */
+    public static List<Employee> readData(InputStream inputStream) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(inputStream)) {
+            if (!seekField(parser, JSON_KEY_DATA)) {
+                return Collections.emptyList();
+            }
+
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_ARRAY) {
+                List<Employee> employees = new ArrayList<>();
+                while (parser.nextToken() == JsonToken.START_OBJECT) {
+                    employees.add(EMPLOYEE_READER.readValue(parser));
+                }
+                return employees;
+            }
+            if (token == JsonToken.START_OBJECT) {
+                List<Employee> employees = new ArrayList<>(1);
+                employees.add(EMPLOYEE_READER.readValue(parser));
+                return employees;
+            }
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * This method reads the "status" field of an upstream envelope, null if it is missing.
+     *
+     * @param inputStream stream of the upstream response body
+     */
+    public static String readStatus(InputStream inputStream) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(inputStream)) {
+            return seekField(parser, JSON_KEY_STATUS) ? parser.getValueAsString() : null;
+        }
+    }
+
+    /**
+     * This method reads the envelope answering a create: it returns the requested employee
+     * with the id found in "data", or null when the "status" is not a success.
+     * The id stays null when "data" has none.
+     *
+     * @param inputStream stream of the upstream response body
+     * @param requested   employee sent to the upstream
+     */
+    public static Employee readCreated(InputStream inputStream, Employee requested) throws IOException {
+        try (JsonParser parser = MAPPER.getFactory().createParser(inputStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            String status = null;
+            Long id = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken token = parser.nextToken();
+                if (JSON_KEY_STATUS.equals(name)) {
+                    status = parser.getValueAsString();
+                } else if (JSON_KEY_DATA.equals(name) && token == JsonToken.START_OBJECT) {
+                    id = readId(parser);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (!"success".equalsIgnoreCase(status)) {
+                return null;
+            }
+            requested.setId(id);
+            return requested;
+        }
+    }
+
+    /**
+     * This method reads a JSON array (or a single object) of employees from a String.
+     */
+    public static List<Employee> readEmployeeList(String json) throws JsonProcessingException {
+        return EMPLOYEE_LIST_READER.readValue(json);
+    }
+
+    /**
+     * This method writes employees as newline delimited JSON, one object per line holding the
+     * selected fields. Employees are written one at a time through the generator's fixed buffer,
+     * so the memory used does not grow with the number of employees. The stream is flushed, not closed.
+     *
+     * @param employees    employees to write, usually a view over a snapshot
+     * @param fields       fields written for each employee
+     * @param outputStream stream the lines are written to
+     */
+    public static void writeNdjson(Iterable<Employee> employees, Set<EmployeeField> fields, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = MAPPER.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            for (Employee employee : employees) {
+                EmployeeRows.write(generator, employee, fields);
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * This method writes the body of an upstream create, {"name": ..., "salary": ..., "age": ...}.
+     */
+    public static byte[] writeCreateBody(String name, int salary, int age) {
+        BodyWriter writer = BODY_WRITER.get();
+        try {
+            JsonGenerator generator = writer.generator;
+            generator.writeStartObject();
+            generator.writeStringField(NAME, name);
+            generator.writeNumberField(SALARY, salary);
+            generator.writeNumberField(AGE, age);
+            generator.writeEndObject();
+            generator.flush();
+            return writer.buffer.toByteArray();
+        } catch (IOException e) {
+            BODY_WRITER.remove();
+            throw new UncheckedIOException(e);
+        } finally {
+            writer.buffer.reset();
+        }
+    }
+
+    /*
+       Reads the "id" of the object the parser is on, leaving the parser on its end.
+    */
+    private static Long readId(JsonParser parser) throws IOException {
+        Long id = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+            if (JSON_KEY_ID.equals(name) && (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_STRING)) {
+                id = parser.getValueAsLong();
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return id;
+    }
+
+    /*
+       Moves the parser onto the value of the given top level field,
+       skipping every other field (and its children) without binding it.
+    */
+    private static boolean seekField(JsonParser parser, String fieldName) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            if (fieldName.equals(name)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static class BodyWriter {
+        private final ByteArrayBuilder buffer = new ByteArrayBuilder(128);
+        private final JsonGenerator generator;
+
+        BodyWriter() {
+            try {
+                generator = MAPPER.getFactory().createGenerator(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            generator.setRootValueSeparator(null);
+        }
+    }
+}
@@ -1,28 +1,25 @@
 package com.example.rqchallenge.util;
 
+import com.example.rqchallenge.client.UpstreamHttpClient;
 import com.example.rqchallenge.entity.Employee;
 import com.example.rqchallenge.entity.ResponseStatus;
 import com.example.rqchallenge.exceptions.ResourceNotFoundException;
+import com.example.rqchallenge.monitoring.UpstreamMetrics;
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.MediaType;
 import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
-import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.MimeTypeUtils;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 
-import static com.example.rqchallenge.util.Constants.*;
 import static com.example.rqchallenge.util.HttpUtil.*;
 
 
@@ -35,6 +32,8 @@ public class EmployeeUtil {
 
     private static Logger LOGGER = LoggerFactory.getLogger(EmployeeUtil.class);
 
+    private static final MediaType JSON = MediaType.parse(MimeTypeUtils.APPLICATION_JSON_VALUE);
+
 
     /**
      * This method helps us to convert an input string of JSONArray into a List<Employee>.
@@ -42,181 +41,221 @@ public class EmployeeUtil {
      * @param inputString String containing JSONArray data of employee.
      */
     public static List<Employee> getEmployeeListFromString(String inputString) throws JsonProcessingException {
-        ObjectMapper mapper = new ObjectMapper();
-        mapper.configure(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY, true);
-        return mapper.readValue(inputString, new TypeReference<>() {
-        });
+        return EmployeeJson.readEmployeeList(inputString);
     }
 
 
     /**
      * This method helps us make an API call and get data of all employees.
+     *
+     * @param upstream UpstreamHttpClient sending the request
      */
-    public static List<Employee> getAllEmployeesList() throws IOException {
-        Request request = new Request.Builder()
-                .url(BASE_URL + GET_ALL_EMPLOYEES)
-                .get()
-                .build();
-
-        Response response = HttpUtil.execute(request);
-
-        if (response.isSuccessful()) {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(response.body().string());
-
-            List<Employee> employeeList = EmployeeUtil.getEmployeeListFromString(jsonNode.get(JSON_KEY_DATA).toString());
-            response.close();
-            return employeeList;
-        } else {
-            /*
-               Mocking the data in case if we do not get data.
-            */
-            response.close();
-            return EmployeeUtil.getMockedEmployeeData();
-        }
+    public static List<Employee> getAllEmployeesList(UpstreamHttpClient upstream) throws IOException {
+        return readEmployeeList(upstream.execute(getAllEmployeesRequest(upstream.getBaseUrl())));
     }
 
 
     /**
-     * This method helps us to create a new employee.
+     * This method helps us to create a new employee, returning it with the id given
+     * by the upstream, or null when the upstream did not create it.
      *
-     * @param name   String of employee name
-     * @param salary integer value of employee salary
-     * @param age    integer value of employee age
+     * @param upstream UpstreamHttpClient sending the request
+     * @param name     String of employee name
+     * @param salary   integer value of employee salary
+     * @param age      integer value of employee age
      */
-    public static ResponseStatus createEmployee(String name, int salary, int age) throws IOException {
-        JSONObject jsonObject = new JSONObject();
-
-        jsonObject.put(NAME, name);
-        jsonObject.put(SALARY, salary);
-        jsonObject.put(AGE, age);
-
-        RequestBody requestBody = RequestBody.create(MediaType.parse(MimeTypeUtils.APPLICATION_JSON_VALUE), jsonObject.toJSONString());
-
-        Request request = new Request.Builder()
-                .url(BASE_URL + CREATE_EMPLOYEE)
-                .post(requestBody)
-                .build();
-
-        Response response = HttpUtil.execute(request);
-        if (response.isSuccessful()) {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(response.body().string());
+    public static Employee createEmployeeRecord(UpstreamHttpClient upstream, String name, int salary, int age) throws IOException {
+        return readCreatedEmployee(upstream.execute(createEmployeeRequest(upstream.getBaseUrl(), name, salary, age)),
+                name, salary, age);
+    }
 
-            String status = jsonNode.get(JSON_KEY_STATUS)
-                    .textValue()
-                    .toUpperCase();
 
-            return ResponseStatus.valueOf(status);
-        }
-        return ResponseStatus.FAILURE;
+    /**
+     * This method helps us to get an employee with given employee_id.
+     *
+     * @param upstream UpstreamHttpClient sending the request
+     * @param id       String containing an employee_id
+     */
+    public static Employee getEmployeeById(UpstreamHttpClient upstream, String id) throws IOException {
+        return readEmployee(upstream.execute(getEmployeeByIdRequest(upstream.getBaseUrl(), id)), id);
     }
 
+    /**
+     * This method helps us to get delete an existing record of
+     * an employee with given employee_id.
+     *
+     * @param upstream UpstreamHttpClient sending the requests
+     * @param id       String containing an employee_id
+     */
+    public static String deleteEmployee(UpstreamHttpClient upstream, String id) throws IOException {
+        return deleteEmployee(upstream, getEmployeeById(upstream, id));
+    }
 
     /**
-     * This method helps us to get an employee with given employee_id.
+     * This method helps us to delete an employee we already have,
+     * without fetching it again by its employee_id.
      *
-     * @param id String containing an employee_id
+     * @param upstream UpstreamHttpClient sending the request
+     * @param employee Employee to delete
+     */
+    public static String deleteEmployee(UpstreamHttpClient upstream, Employee employee) throws IOException {
+        return readDeletedEmployeeName(upstream.execute(deleteEmployeeRequest(upstream.getBaseUrl(),
+                String.valueOf(employee.getId()))), employee);
+    }
+
+    /**
+     * Below methods build the upstream requests used by the methods above, so that
+     * they can also be sent asynchronously by the EmployeeClient implementations.
+     * baseUrl is the upstream.base-url the paths are relative to.
      */
-    public static Employee getEmployeeById(String id) throws IOException {
-        Request request = new Request.Builder()
-                .url(BASE_URL + GET_EMPLOYEE_BY_ID + id)
+    public static Request getAllEmployeesRequest(String baseUrl) {
+        return new Request.Builder()
+                .url(baseUrl + GET_ALL_EMPLOYEES)
                 .get()
+                .tag(UpstreamRoute.class, UpstreamRoute.GET_ALL_EMPLOYEES)
                 .build();
+    }
 
-        Response response = HttpUtil.execute(request);
-        List<Employee> employeeList;
-
-        if (response.isSuccessful()) {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(response.body().string());
+    public static Request createEmployeeRequest(String baseUrl, String name, int salary, int age) {
+        RequestBody requestBody = RequestBody.create(JSON, EmployeeJson.writeCreateBody(name, salary, age));
 
-            employeeList = EmployeeUtil.getEmployeeListFromString(jsonNode.get(JSON_KEY_DATA).toString());
-            response.close();
+        return new Request.Builder()
+                .url(baseUrl + CREATE_EMPLOYEE)
+                .post(requestBody)
+                .tag(UpstreamRoute.class, UpstreamRoute.CREATE_EMPLOYEE)
+                .build();
+    }
 
+    public static Request getEmployeeByIdRequest(String baseUrl, String id) {
+        return new Request.Builder()
+                .url(baseUrl + GET_EMPLOYEE_BY_ID + id)
+                .get()
+                .tag(UpstreamRoute.class, UpstreamRoute.GET_EMPLOYEE_BY_ID)
+                .build();
+    }
 
-        } else {
-            /*
-               1. Mocking the data in case if we do not get data.
-               2. This will return an employee
-            */
-            response.close();
-            employeeList = EmployeeUtil.getMockedEmployeeData()
-                    .stream()
-                    .filter(employee -> (employee.getId() == Long.parseLong(id)))
-                    .collect(Collectors.toList());
+    public static Request deleteEmployeeRequest(String baseUrl, String id) {
+        return new Request.Builder()
+                .url(baseUrl + DELETE_EMPLOYEE + id)
+                .delete()
+                .tag(UpstreamRoute.class, UpstreamRoute.DELETE_EMPLOYEE)
+                .build();
+    }
 
+    /**
+     * Below methods read the upstream responses to the requests above, closing the response.
+     */
+    public static List<Employee> readEmployeeList(Response response) throws IOException {
+        try (response) {
+            if (response.isSuccessful()) {
+                return UpstreamMetrics.readBody(response, EmployeeJson::readData);
+            } else {
+                /*
+                   Mocking the data in case if we do not get data.
+                */
+                UpstreamMetrics.recordMockFallback(response.request());
+                return EmployeeUtil.getMockedEmployeeData();
+            }
         }
+    }
 
-        if(employeeList == null || employeeList.isEmpty())
-            throw new ResourceNotFoundException(String.format("No entity found with id : %s", id));
-
-        return employeeList.get(0);
+    /**
+     * This method reads the answer to a create, returning the created employee with
+     * the id given by the upstream, or null when the upstream did not create it.
+     */
+    public static Employee readCreatedEmployee(Response response, String name, int salary, int age) throws IOException {
+        Employee requested = new Employee();
+        requested.setEmployeeName(name);
+        requested.setEmployeeSalary(salary);
+        requested.setEmployeeAge(age);
+
+        try (response) {
+            if (response.isSuccessful()) {
+                return UpstreamMetrics.readBody(response, inputStream -> EmployeeJson.readCreated(inputStream, requested));
+            }
+            return null;
+        }
     }
 
     /**
-     * This method helps us to get delete an existing record of
-     * an employee with given employee_id.
-     *
-     * @param id String containing an employee_id
+     * This method reads the answer to a get by id. When the upstream did not answer, the
+     * employee is looked up in the mocked data instead, and a miss there is not confirmed
+     * by the upstream (see ResourceNotFoundException.isConfirmed).
      */
-    public static String deleteEmployee(String id) throws IOException {
-        Employee employee = getEmployeeById(id);
+    public static Employee readEmployee(Response response, String id) throws IOException {
+        List<Employee> employeeList;
 
-        Request request = new Request.Builder()
-                .url(BASE_URL + DELETE_EMPLOYEE + id)
-                .delete()
-                .build();
+        try (response) {
+            if (response.isSuccessful()) {
+                employeeList = UpstreamMetrics.readBody(response, EmployeeJson::readData);
+            } else {
+                /*
+                   Mocking the data in case if we do not get data.
+                */
+                UpstreamMetrics.recordMockFallback(response.request());
+                Employee mocked = MockedEmployees.BY_ID.get(Long.parseLong(id));
+                if (mocked == null) {
+                    throw new ResourceNotFoundException(String.format("No entity found with id : %s", id), false);
+                }
+                return mocked;
+            }
+        }
 
-        Response response = HttpUtil.execute(request);
-        if (response.isSuccessful()) {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode jsonNode = mapper.readTree(response.body().string());
+        if(employeeList == null || employeeList.isEmpty())
+            throw new ResourceNotFoundException(String.format("No entity found with id : %s", id));
 
-            String status = jsonNode.get(JSON_KEY_STATUS)
-                    .textValue()
-                    .toUpperCase();
+        return employeeList.get(0);
+    }
 
-            if (status.equals(ResponseStatus.SUCCESS.name())) {
+    public static String readDeletedEmployeeName(Response response, Employee employee) throws IOException {
+        try (response) {
+            if (response.isSuccessful() && readStatus(response) == ResponseStatus.SUCCESS) {
                 return employee.getEmployeeName();
             }
         }
-        throw new ResourceNotFoundException(String.format("Failed to delete employee with id : %s", id));
+        throw new ResourceNotFoundException(String.format("Failed to delete employee with id : %s", employee.getId()));
+    }
+
+    private static ResponseStatus readStatus(Response response) throws IOException {
+        String status = UpstreamMetrics.readBody(response, EmployeeJson::readStatus);
+
+        return ResponseStatus.SUCCESS.name().equalsIgnoreCase(status) ? ResponseStatus.SUCCESS : ResponseStatus.FAILURE;
     }
 
     /**
-     * Below three methods helps us to extract data from an input Map.
-     *
-     * We are getting data in two ways, for example in case of "name":
-     * 1. /create route, where we are getting the name with Map key as "name"
-     * 2. /create route through tests, where we are using ObjectMapper and getting key as "employee_id"
+     * Keeping backup mock data in memory so that in case API
+     * hits are failing then we are using this mocked data (Ideally should be the part of Tests only).
      *
-     * @param inputMap Map containing input values to create employee.
+     * The data is parsed once, every call returns the same read-only list.
      */
-    public static String extractName(Map<String, Object> inputMap) {
-        return inputMap.containsKey(NAME)
-                ? String.valueOf(inputMap.get(NAME))
-                : String.valueOf(inputMap.get(EMPLOYEE_NAME));
+    public static List<Employee> getMockedEmployeeData() {
+        return MockedEmployees.EMPLOYEES;
     }
 
-    public static int extractAge(Map<String, Object> inputMap) {
-        return Integer.parseInt(inputMap.containsKey(AGE)
-                ? String.valueOf(inputMap.get(AGE))
-                : String.valueOf(inputMap.get(EMPLOYEE_AGE)));
+    /**
+     * This method tells whether the list is the mocked data, as opposed to data fetched from the upstream.
+     */
+    public static boolean isMockedEmployeeData(List<Employee> employees) {
+        return employees == MockedEmployees.EMPLOYEES;
     }
 
-    public static int extractSalary(Map<String, Object> inputMap) {
-        return Integer.parseInt(inputMap.containsKey(SALARY)
-                ? String.valueOf(inputMap.get(SALARY))
-                : String.valueOf(inputMap.get(EMPLOYEE_SALARY)));
+    /**
+     * This method tells whether the employee is one of the mocked data, as opposed to one fetched from the upstream.
+     */
+    public static boolean isMockedEmployee(Employee employee) {
+        return employee != null && employee.getId() != null && MockedEmployees.BY_ID.get(employee.getId()) == employee;
     }
 
-
     /**
-     * Keeping backup mock data in memory so that in case API
-     * hits are failing then we are using this mocked data (Ideally should be the part of Tests only).
+     * Parsed on first use only.
      */
-    public static List<Employee> getMockedEmployeeData() {
+    private static class MockedEmployees {
+        private static final List<Employee> EMPLOYEES = Collections.unmodifiableList(parseMockedEmployeeData());
+        private static final Map<Long, Employee> BY_ID = EMPLOYEES.stream()
+                .collect(Collectors.toUnmodifiableMap(Employee::getId, employee -> employee));
+    }
+
+    private static List<Employee> parseMockedEmployeeData() {
         String jsonStringData = "[\n" +
                 "        {\n" +
                 "            \"id\": 1,\n" +
@@ -0,0 +1,49 @@
+package com.example.rqchallenge.util;
+
+import com.example.rqchallenge.exceptions.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The PageCursor is the opaque token handed to clients to fetch the next page of a list.
+ * It holds the position of the next page and the id of the last employee served, so that
+ * the next page still starts right after that employee when rows were added or removed
+ * before it in between.
+ */
+@Getter
+@AllArgsConstructor
+public class PageCursor {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private final int position;
+    private final Long lastId;
+
+    public String encode() {
+        String value = position + ":" + (lastId == null ? "" : lastId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * This method decodes a token made by encode.
+     *
+     * @param cursor token sent by the client
+     */
+    public static PageCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            int position = Integer.parseInt(value.substring(0, separator));
+            String lastId = value.substring(separator + 1);
+            if (position < 0) {
+                throw new BadRequestException("Invalid cursor.");
+            }
+            return new PageCursor(position, lastId.isEmpty() ? null : Long.parseLong(lastId));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor.", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.rqchallenge.util;
+
+/**
+ * The UpstreamRoute names the upstream endpoints. Every upstream request carries its
+ * route as an OkHttp tag, so that interceptors and response readers can tell the
+ * calls apart without parsing urls that contain ids.
+ */
+public enum UpstreamRoute {
+    GET_ALL_EMPLOYEES,
+    GET_EMPLOYEE_BY_ID,
+    CREATE_EMPLOYEE,
+    DELETE_EMPLOYEE,
+    UNKNOWN
+}
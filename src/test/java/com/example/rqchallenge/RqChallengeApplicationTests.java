@@ -1,28 +1,59 @@
 package com.example.rqchallenge;
 
+import com.example.rqchallenge.cache.CacheStats;
+import com.example.rqchallenge.cache.EmployeeByIdCache;
+import com.example.rqchallenge.cache.EmployeeSnapshotCache;
+import com.example.rqchallenge.cache.EmployeeSnapshotFile;
+import com.example.rqchallenge.cache.ResponseBytesCache;
+import com.example.rqchallenge.client.EmployeeClientConfiguration;
 import com.example.rqchallenge.employees.IEmployeeController;
 import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.upstream.FakeUpstream;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
 import static com.example.rqchallenge.util.Constants.*;
+import static com.example.rqchallenge.util.PageCursor.NEXT_CURSOR_HEADER;
 import static com.example.rqchallenge.util.TestUtil.*;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(IEmployeeController.class)
 @ContextConfiguration(classes = RqChallengeApplication.class)
+@Import({EmployeeSnapshotCache.class, EmployeeByIdCache.class, EmployeeSnapshotFile.class, EmployeeClientConfiguration.class})
+@TestPropertySource(properties = {"employee.snapshot.file=", "upstream.cache.directory="})
 class RqChallengeApplicationTests {
 
     /*
@@ -31,17 +62,43 @@ class RqChallengeApplicationTests {
      * stop printing the output of the tests
      * */
 
+    /*
+     * The upstream is a local FakeUpstream serving the mocked employees, so that
+     * tests neither depend on dummy.restapiexample.com nor on its rate limits.
+     * It does not persist creates and deletes while the service applies them to its
+     * caches, so the tests making them close their context (@DirtiesContext) and
+     * leave the others reading the upstream's employees whatever the order.
+     * */
+    private static final FakeUpstream UPSTREAM = startUpstream();
+
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private EmployeeSnapshotCache employeeSnapshotCache;
+
+    @Autowired
+    private ResponseBytesCache responseBytesCache;
+
+    @DynamicPropertySource
+    static void upstreamProperties(DynamicPropertyRegistry registry) {
+        registry.add("upstream.base-url", UPSTREAM::getBaseUrl);
+    }
+
+    @AfterAll
+    static void stopUpstream() throws IOException {
+        UPSTREAM.close();
+    }
+
     @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
     void testCreateEmployee() throws Exception {
         Employee employee = new Employee();
         employee.setEmployeeName("Test Employee Name");
         employee.setEmployeeAge(23);
         employee.setEmployeeSalary(45000);
 
-        mockMvc.perform(MockMvcRequestBuilders
+        performAsync(MockMvcRequestBuilders
                         .post("/")
                         .content(asJsonString(employee))
                         .contentType(MediaType.APPLICATION_JSON)
@@ -60,6 +117,112 @@ class RqChallengeApplicationTests {
                 .andExpect(jsonPath(DOLLAR, hasSize(allEmployeeSize)));
     }
 
+    @Test
+    void testCachedResponseIsRevalidatedAndGzipped() throws Exception {
+        MvcResult first = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/topTenHighestEarningEmployeeNames")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andReturn();
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/topTenHighestEarningEmployeeNames")
+                        .header(HttpHeaders.IF_NONE_MATCH, etag)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        MvcResult gzipped = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/topTenHighestEarningEmployeeNames")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+            assertEquals(first.getResponse().getContentAsString(), new String(inputStream.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void testCachedResponsesCountSnapshotReadsOnce() throws Exception {
+        long readsBefore = snapshotReads(employeeSnapshotCache.getStats());
+        long missesBefore = responseBytesCache.getStats().getMisses();
+
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(MockMvcRequestBuilders
+                            .get("/highestSalary")
+                            .accept(MediaType.APPLICATION_JSON))
+                    .andExpect(status().isOk());
+        }
+
+        long misses = responseBytesCache.getStats().getMisses() - missesBefore;
+        assertEquals(misses, snapshotReads(employeeSnapshotCache.getStats()) - readsBefore);
+    }
+
+    @Test
+    void testGetEmployeesPageWithCursorAndFields() throws Exception {
+        int limit = 10;
+        MvcResult firstPage = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/")
+                        .param("limit", String.valueOf(limit))
+                        .param("fields", "id,employee_name")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(DOLLAR, hasSize(limit)))
+                .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + EMPLOYEE_NAME, is("Tiger Nixon")))
+                .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + EMPLOYEE_SALARY).doesNotExist())
+                .andReturn();
+        int lastId = JsonPath.read(firstPage.getResponse().getContentAsString(), "$[" + (limit - 1) + "].id");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/")
+                        .param("limit", String.valueOf(limit))
+                        .param("cursor", firstPage.getResponse().getHeader(NEXT_CURSOR_HEADER))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(DOLLAR, hasSize(limit)))
+                .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + "id", is(lastId + 1)));
+    }
+
+    @Test
+    void testGetEmployeesWithUnknownField() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/")
+                        .param("fields", "id,password")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetEmployeesWithInvalidCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/")
+                        .param("limit", "10")
+                        .param("cursor", "not-a-cursor")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testExportEmployeesAsGzippedNdjson() throws Exception {
+        MvcResult result = performAsync(MockMvcRequestBuilders
+                        .get("/export")
+                        .param("fields", "id,employee_name")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        try (GZIPInputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            String[] lines = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+            assertEquals("{\"id\":1,\"employee_name\":\"Tiger Nixon\"}", lines[0]);
+        }
+    }
+
     @Test
     void testGetEmployeeById() throws Exception {
         int employeeId = 4;
@@ -67,7 +230,7 @@ class RqChallengeApplicationTests {
         int expectedSalary = 433060;
         String expectedName = "Cedric Kelly";
 
-        mockMvc.perform(MockMvcRequestBuilders
+        performAsync(MockMvcRequestBuilders
                         .get("/" + employeeId)
                         .accept(MediaType.APPLICATION_JSON))
                 .andDo(print())
@@ -91,6 +254,29 @@ class RqChallengeApplicationTests {
                 .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + EMPLOYEE_SALARY, is(expectedSalary)));
     }
 
+    @Test
+    void testGetTopNHighestSalariedEmployees() throws Exception {
+        int expectedSize = 3;
+        int expectedSalary = 725000;
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/topHighestEarningEmployeeNames")
+                        .param("n", String.valueOf(expectedSize))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(DOLLAR, hasSize(expectedSize)))
+                .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + EMPLOYEE_SALARY, is(expectedSalary)));
+    }
+
+    @Test
+    void testGetTopNHighestSalariedEmployeesWithNegativeN() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/topHighestEarningEmployeeNames")
+                        .param("n", "-1")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetHighestSalariedEmployee() throws Exception {
         int expectedSalary = 725000;
@@ -103,6 +289,43 @@ class RqChallengeApplicationTests {
                 .andExpect(result -> result.equals(expectedSalary));
     }
 
+    @Test
+    void testGetSalaryStats() throws Exception {
+        int expectedSalary = 725000;
+        int buckets = 5;
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/stats/salary")
+                        .param("buckets", String.valueOf(buckets))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(DOLLAR + DOT + "max", is(expectedSalary)))
+                .andExpect(jsonPath(DOLLAR + DOT + "percentiles.p50").isNumber())
+                .andExpect(jsonPath(DOLLAR + DOT + "buckets", hasSize(buckets)));
+    }
+
+    @Test
+    void testGetSalaryByAgeBandStats() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/stats/salary-by-age")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + "fromAge", is(0)))
+                .andExpect(jsonPath(DOLLAR + ".[5].toAge").doesNotExist());
+    }
+
+    @Test
+    void testFilterEmployeesBySalaryAndAge() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/filter")
+                        .param("minSalary", "700000")
+                        .param("maxAge", "64")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Total-Count", "1"))
+                .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + EMPLOYEE_NAME, is("Paul Byrd")));
+    }
+
     @Test
     void testSearchEmployeeByName() throws Exception {
         String searchString = "Paul";
@@ -117,4 +340,90 @@ class RqChallengeApplicationTests {
                 .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + EMPLOYEE_NAME, is(expectedName)))
                 .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + EMPLOYEE_AGE, is(expectedAge)));
     }
+
+    @Test
+    void testSearchEmployeeByNameWithPagination() throws Exception {
+        String searchString = "a";
+        int limit = 2;
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/search/" + searchString)
+                        .param("offset", "1")
+                        .param("limit", String.valueOf(limit))
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(DOLLAR, hasSize(limit)));
+    }
+
+    @Test
+    void testAutocompleteEmployeeByName() throws Exception {
+        String prefix = "byr";
+        String expectedName = "Paul Byrd";
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/autocomplete/" + prefix)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(DOLLAR, hasSize(1)))
+                .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + EMPLOYEE_NAME, is(expectedName)));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void testCreateEmployeesInBatch() throws Exception {
+        String employees = "[{\"name\": \"Batch Employee\", \"salary\": \"45000\", \"age\": \"23\"},"
+                + " {\"name\": \"Invalid Employee\", \"salary\": \"unknown\", \"age\": \"23\"}]";
+
+        performAsync(MockMvcRequestBuilders
+                        .post("/batch")
+                        .content(employees)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath(DOLLAR, hasSize(2)))
+                .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + "name", is("Batch Employee")))
+                .andExpect(jsonPath(DOLLAR + ".[1].status", is("FAILURE")));
+    }
+
+    @Test
+    @DirtiesContext(methodMode = DirtiesContext.MethodMode.AFTER_METHOD)
+    void testDeleteEmployeesInBatch() throws Exception {
+        String ids = "[\"4\", \"not-a-number\", \"999999\"]";
+
+        performAsync(MockMvcRequestBuilders
+                        .delete("/batch")
+                        .content(ids)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath(DOLLAR, hasSize(3)))
+                .andExpect(jsonPath(DOLLAR + ZEROTH_ARRAY_ELEMENT + "name", is("Cedric Kelly")))
+                .andExpect(jsonPath(DOLLAR + ".[1].status", is("FAILURE")))
+                .andExpect(jsonPath(DOLLAR + ".[2].status", is("FAILURE")));
+    }
+
+    private static long snapshotReads(CacheStats stats) {
+        return stats.getHits() + stats.getStaleHits() + stats.getMisses();
+    }
+
+    private static FakeUpstream startUpstream() {
+        try {
+            return new FakeUpstream(FakeUpstream.MOCKED_EMPLOYEES).start();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Endpoints returning a CompletableFuture complete on another thread,
+     * so the response is only available after an async dispatch.
+     * */
+    private ResultActions performAsync(RequestBuilder requestBuilder) throws Exception {
+        MvcResult mvcResult = mockMvc.perform(requestBuilder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        return mockMvc.perform(asyncDispatch(mvcResult));
+    }
 }
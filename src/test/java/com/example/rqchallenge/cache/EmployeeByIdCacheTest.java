@@ -0,0 +1,180 @@
+package com.example.rqchallenge.cache;
+
+import com.example.rqchallenge.client.EmployeeClient;
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.exceptions.ResourceNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeByIdCacheTest {
+
+    private final StubEmployeeClient employeeClient = new StubEmployeeClient();
+    private final EmployeeSnapshotCache employeeSnapshotCache = new EmployeeSnapshotCache(employeeClient,
+            new EmployeeSnapshotFile(""), Duration.ofSeconds(30), Duration.ofMinutes(5), "columnar", 1024);
+
+    @AfterEach
+    void shutdown() {
+        employeeSnapshotCache.shutdown();
+    }
+
+    @Test
+    void testRepeatedLookupsCostOneUpstreamCall() throws Exception {
+        EmployeeByIdCache cache = cache(DataSize.ofMegabytes(1));
+        employeeClient.add(employee(1, "Tiger Nixon"));
+
+        assertEquals("Tiger Nixon", cache.getEmployee("1").get().getEmployeeName());
+        assertEquals("Tiger Nixon", cache.getEmployee("1").get().getEmployeeName());
+
+        assertEquals(1, employeeClient.calls);
+        ByIdCacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEntries());
+    }
+
+    @Test
+    void testMissingIdsAreCached() {
+        EmployeeByIdCache cache = cache(DataSize.ofMegabytes(1));
+
+        assertNotFound(cache.getEmployee("7"));
+        assertNotFound(cache.getEmployee("7"));
+
+        assertEquals(1, employeeClient.calls);
+        assertEquals(1, cache.getStats().getNegativeHits());
+    }
+
+    @Test
+    void testUnconfirmedMissesAreNotCached() {
+        EmployeeByIdCache cache = cache(DataSize.ofMegabytes(1));
+        employeeClient.confirmed = false;
+
+        assertNotFound(cache.getEmployee("7"));
+        assertNotFound(cache.getEmployee("7"));
+
+        assertEquals(2, employeeClient.calls);
+    }
+
+    @Test
+    void testCreatesAndDeletesAreApplied() throws Exception {
+        EmployeeByIdCache cache = cache(DataSize.ofMegabytes(1));
+        cache.applyCreated(employee(5, "Ashton Cox"));
+
+        assertEquals("Ashton Cox", cache.getEmployee("5").get().getEmployeeName());
+        cache.applyDeleted(5);
+        assertNotFound(cache.getEmployee("5"));
+
+        assertEquals(0, employeeClient.calls);
+    }
+
+    @Test
+    void testIdsReadAgainSurviveAScan() throws Exception {
+        EmployeeByIdCache cache = cache(DataSize.ofBytes(10 * 250));
+        for (long id = 1; id <= 100; id++) {
+            employeeClient.add(employee(id, "Employee " + id));
+        }
+
+        cache.getEmployee("1").get();
+        cache.getEmployee("1").get();
+        for (long id = 2; id <= 100; id++) {
+            cache.getEmployee(Long.toString(id)).get();
+        }
+        int calls = employeeClient.calls;
+        cache.getEmployee("1").get();
+
+        assertEquals(calls, employeeClient.calls);
+        ByIdCacheStats stats = cache.getStats();
+        assertTrue(stats.getEstimatedBytes() <= stats.getMaxBytes());
+        assertTrue(stats.getEvictions() > 0);
+    }
+
+    @Test
+    void testPrewarmStopsAtTheBudget() throws Exception {
+        EmployeeByIdCache cache = cache(DataSize.ofBytes(10 * 250));
+        List<Employee> employees = new ArrayList<>();
+        for (long id = 1; id <= 100; id++) {
+            Employee employee = employee(id, "Employee " + id);
+            employees.add(employee);
+            employeeClient.add(employee);
+        }
+
+        cache.prewarm(employees, System.nanoTime());
+        cache.getEmployee("1").get();
+
+        assertEquals(0, employeeClient.calls);
+        assertEquals(0, cache.getStats().getEvictions());
+        assertTrue(cache.getStats().getEntries() < 100);
+    }
+
+    private EmployeeByIdCache cache(DataSize maxSize) {
+        return new EmployeeByIdCache(employeeClient, employeeSnapshotCache, Duration.ofMinutes(1), Duration.ofMinutes(1), maxSize);
+    }
+
+    private static void assertNotFound(CompletableFuture<Employee> future) {
+        assertInstanceOf(ResourceNotFoundException.class, assertThrows(ExecutionException.class, future::get).getCause());
+    }
+
+    private static Employee employee(long id, String name) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setEmployeeName(name);
+        employee.setEmployeeSalary(1000);
+        employee.setEmployeeAge(30);
+        return employee;
+    }
+
+    /**
+     * Answers getEmployeeById from a map, counting the calls.
+     */
+    private static class StubEmployeeClient implements EmployeeClient {
+
+        private final Map<String, Employee> employees = new HashMap<>();
+        private int calls;
+        private boolean confirmed = true;
+
+        void add(Employee employee) {
+            employees.put(employee.getId().toString(), employee);
+        }
+
+        @Override
+        public CompletableFuture<List<Employee>> getAllEmployees() {
+            return CompletableFuture.completedFuture(List.copyOf(employees.values()));
+        }
+
+        @Override
+        public CompletableFuture<Employee> getEmployeeById(String id) {
+            calls++;
+            Employee employee = employees.get(id);
+            return employee != null ? CompletableFuture.completedFuture(employee)
+                    : CompletableFuture.failedFuture(new ResourceNotFoundException("No entity found with id : " + id, confirmed));
+        }
+
+        @Override
+        public CompletableFuture<Employee> createEmployee(String name, int salary, int age) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<String> deleteEmployee(String id) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<String> deleteEmployee(Employee employee) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
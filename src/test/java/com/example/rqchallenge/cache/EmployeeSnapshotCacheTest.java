@@ -0,0 +1,88 @@
+package com.example.rqchallenge.cache;
+
+import com.example.rqchallenge.client.AsyncEmployeeClient;
+import com.example.rqchallenge.client.UpstreamHttpClient;
+import com.example.rqchallenge.client.UpstreamProperties;
+import com.example.rqchallenge.store.ColumnarEmployeeStore;
+import com.example.rqchallenge.store.MappedEmployeeStore;
+import com.example.rqchallenge.upstream.FakeUpstream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class EmployeeSnapshotCacheTest {
+
+    private static final int RESTORED_EMPLOYEES = 100;
+
+    @TempDir
+    Path directory;
+
+    private FakeUpstream upstream;
+    private UpstreamHttpClient upstreamHttpClient;
+    private EmployeeSnapshotCache cache;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path file = directory.resolve("employees.snapshot");
+        MappedEmployeeStore.write(ColumnarEmployeeStore.of(FakeUpstream.generate(RESTORED_EMPLOYEES)), file);
+
+        upstream = new FakeUpstream(1_000).start();
+        UpstreamProperties properties = new UpstreamProperties();
+        properties.setBaseUrl(upstream.getBaseUrl());
+        properties.getRateLimit().setRequestsPerSecond(0);
+        upstreamHttpClient = new UpstreamHttpClient(properties);
+        cache = new EmployeeSnapshotCache(new AsyncEmployeeClient(upstreamHttpClient),
+                new EmployeeSnapshotFile(file.toString()), Duration.ofSeconds(30), Duration.ofMinutes(5), "columnar", 1024);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        cache.shutdown();
+        upstreamHttpClient.shutdown();
+        upstream.close();
+    }
+
+    @Test
+    void testRestoredSnapshotIsKeptWhenTheUpstreamAnswersWithAnError() throws Exception {
+        EmployeeSnapshot restored = cache.getLastSnapshot();
+
+        upstream.setFailures(0, 1, 0);
+        assertThrows(ExecutionException.class, () -> cache.refreshNow().get());
+        upstream.setFailures(1, 0, 0);
+        assertThrows(ExecutionException.class, () -> cache.refreshNow().get());
+
+        assertEquals(restored, cache.getLastSnapshot());
+        assertEquals(RESTORED_EMPLOYEES, cache.getEmployees().size());
+        assertEquals(2, cache.getStats().getRefreshFailures());
+
+        upstream.setFailures(0, 0, 0);
+        assertEquals(1_000, cache.refreshNow().get().getEmployees().size());
+    }
+
+    @Test
+    void testInvalidatedSnapshotStaysInvalidatedUntilALoadSucceeds() throws Exception {
+        cache.refreshNow().get();
+        cache.invalidate();
+
+        upstream.setFailures(1, 0, 0);
+        assertEquals(1_000, cache.getEmployees().size());
+        assertEquals(1_000, cache.getEmployees().size());
+        assertEquals(2, cache.getStats().getMisses());
+        assertEquals(2, cache.getStats().getRefreshFailures());
+
+        upstream.setFailures(0, 0, 0);
+        cache.getEmployees();
+        cache.getEmployees();
+        assertEquals(3, cache.getStats().getMisses());
+        assertEquals(1, cache.getStats().getHits());
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.rqchallenge.cache;
+
+import com.example.rqchallenge.client.AsyncEmployeeClient;
+import com.example.rqchallenge.client.UpstreamHttpClient;
+import com.example.rqchallenge.client.UpstreamProperties;
+import com.example.rqchallenge.upstream.FakeUpstream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeSnapshotRefresherTest {
+
+    private static final int EMPLOYEES = 1_000;
+    private static final int POLLS = 6;
+
+    private FakeUpstream upstream;
+    private UpstreamHttpClient upstreamHttpClient;
+    private EmployeeSnapshotCache cache;
+    private EmployeeSnapshotRefresher refresher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = new FakeUpstream(EMPLOYEES).start();
+        UpstreamProperties properties = new UpstreamProperties();
+        properties.setBaseUrl(upstream.getBaseUrl());
+        properties.getRateLimit().setRequestsPerSecond(0);
+        properties.getRetry().setMaxAttempts(1);
+        upstreamHttpClient = new UpstreamHttpClient(properties);
+        cache = new EmployeeSnapshotCache(new AsyncEmployeeClient(upstreamHttpClient),
+                new EmployeeSnapshotFile(""), Duration.ofSeconds(30), Duration.ofMinutes(5), "columnar", 100);
+        refresher = new EmployeeSnapshotRefresher(cache, Duration.ofMillis(20), Duration.ZERO);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        refresher.shutdown();
+        cache.shutdown();
+        upstreamHttpClient.shutdown();
+        upstream.close();
+    }
+
+    @Test
+    void testThrottledPollsKeepTheSnapshot() throws Exception {
+        long version = cache.refreshNow().get().getVersion();
+        AtomicInteger loads = new AtomicInteger();
+        AtomicInteger deltas = new AtomicInteger();
+        cache.addLoadListener(snapshot -> loads.incrementAndGet());
+        cache.addDeltaListener(delta -> deltas.incrementAndGet());
+
+        upstream.setFailures(0, 0, 0);
+        upstream.setAlternating(true);
+        int requests = upstream.getRequestCount();
+        refresher.start();
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (upstream.getRequestCount() < requests + POLLS && System.nanoTime() < deadline) {
+            assertEquals(EMPLOYEES, cache.getLastSnapshot().getEmployees().size());
+            Thread.sleep(5);
+        }
+        refresher.shutdown();
+
+        assertTrue(upstream.getRequestCount() >= requests + POLLS);
+        assertTrue(cache.getStats().getRefreshFailures() >= POLLS / 2 - 1);
+        assertEquals(EMPLOYEES, cache.getLastSnapshot().getEmployees().size());
+        assertEquals(version, cache.getLastSnapshot().getVersion());
+        assertEquals(0, loads.get());
+        assertEquals(0, deltas.get());
+    }
+}
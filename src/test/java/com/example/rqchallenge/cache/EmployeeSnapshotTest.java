@@ -0,0 +1,180 @@
+package com.example.rqchallenge.cache;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.store.ColumnarEmployeeStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeSnapshotTest {
+
+    private final EmployeeSnapshot snapshot = new EmployeeSnapshot(1, ColumnarEmployeeStore.of(List.of(
+            employee(1, "Tiger Nixon", 320800),
+            employee(2, "Garrett Winters", 170750),
+            employee(3, "Ashton Cox", 86000),
+            employee(4, "Cedric Kelly", 433060))), 0);
+
+    @Test
+    void testCreatedEmployeeIsListedRankedAndSearched() {
+        EmployeeSnapshot created = snapshot.withCreated(employee(9, "Ashton Kutcher", 200000), 2);
+
+        assertEquals(2, created.getVersion());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 9L), ids(created.getEmployees()));
+        assertEquals(List.of(4L, 1L, 9L, 2L), ids(created.getSalaryIndex().getTopEarners(4)));
+        assertEquals(List.of(3L, 9L), ids(created.getNameSearchIndex().search("ashton", 0, 10)));
+        assertEquals("Ashton Kutcher", created.findById(9).getEmployeeName());
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(snapshot.getEmployees()));
+    }
+
+    @Test
+    void testDeletedEmployeeIsGoneEverywhere() {
+        EmployeeSnapshot deleted = snapshot.withDeleted(4, 2).withDeleted(2, 3);
+
+        assertEquals(List.of(1L, 3L), ids(deleted.getEmployees()));
+        assertEquals(320800, deleted.getSalaryIndex().getHighestSalary());
+        assertEquals(List.of(1L, 3L), ids(deleted.getSalaryIndex().getTopEarners(10)));
+        assertNull(deleted.findById(4));
+        assertEquals(2, deleted.getChangeCount());
+    }
+
+    @Test
+    void testDeletingCreatedEmployeeDropsIt() {
+        EmployeeSnapshot changed = snapshot.withCreated(employee(9, "Ashton Kutcher", 500000), 2).withDeleted(9, 3);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(changed.getEmployees()));
+        assertEquals(433060, changed.getSalaryIndex().getHighestSalary());
+        assertEquals(0, changed.getChangeCount());
+    }
+
+    @Test
+    void testChangesAreIdempotent() {
+        assertSame(snapshot, snapshot.withCreated(employee(1, "Tiger Nixon", 320800), 2));
+        assertSame(snapshot, snapshot.withDeleted(42, 2));
+
+        EmployeeSnapshot deleted = snapshot.withDeleted(3, 2);
+        assertSame(deleted, deleted.withDeleted(3, 3));
+    }
+
+    @Test
+    void testDiffFindsInsertedUpdatedAndDeleted() {
+        EmployeeDelta delta = snapshot.diff(List.of(
+                employee(1, "Tiger Nixon", 320800),
+                employee(2, "Garrett Winters", 180000),
+                employee(4, "Cedric Kelly", 433060),
+                employee(5, "Airi Satou", 162700)), Set.of(), 10, 7);
+
+        assertEquals(List.of(5L), ids(delta.getInserted()));
+        assertEquals(List.of(2L), ids(delta.getUpdated()));
+        assertEquals(List.of(3L), delta.getDeleted());
+
+        EmployeeSnapshot next = snapshot.withDelta(delta, 2);
+        assertEquals(2, next.getVersion());
+        assertEquals(7, next.getLoadedAtNanos());
+        assertEquals(List.of(1L, 4L, 2L, 5L), ids(next.getEmployees()));
+        assertEquals(180000, next.findById(2).getEmployeeSalary());
+        assertNull(next.findById(3));
+        assertEquals(List.of(4L, 1L, 2L, 5L), ids(next.getSalaryIndex().getTopEarners(10)));
+        assertEquals(List.of(1L, 2L, 3L, 4L), ids(snapshot.getEmployees()));
+    }
+
+    @Test
+    void testDiffComparesAgainstAppliedChanges() {
+        EmployeeSnapshot changed = snapshot.withCreated(employee(9, "Ashton Kutcher", 200000), 2).withDeleted(3, 3);
+
+        EmployeeDelta unchanged = changed.diff(changed.getEmployees(), Set.of(), 10, 0);
+        assertTrue(unchanged.isEmpty());
+
+        EmployeeDelta delta = changed.diff(List.of(
+                employee(1, "Tiger Nixon", 320800),
+                employee(2, "Garrett Winters", 170750),
+                employee(3, "Ashton Cox", 86000),
+                employee(4, "Cedric Kelly", 433060),
+                employee(9, "Ashton Kutcher", 250000)), Set.of(), 10, 0);
+        assertEquals(List.of(3L), ids(delta.getInserted()));
+        assertEquals(List.of(9L), ids(delta.getUpdated()));
+        assertTrue(delta.getDeleted().isEmpty());
+    }
+
+    @Test
+    void testDiffSkipsIdsAndGivesUpPastMaxChanges() {
+        List<Employee> fetched = List.of(
+                employee(1, "Tiger Nixon", 1),
+                employee(2, "Garrett Winters", 2),
+                employee(7, "Brielle Williamson", 372000));
+
+        EmployeeDelta delta = snapshot.diff(fetched, Set.of(1L, 3L, 7L), 10, 0);
+        assertEquals(List.of(2L), ids(delta.getUpdated()));
+        assertEquals(List.of(4L), delta.getDeleted());
+        assertTrue(delta.getInserted().isEmpty());
+
+        assertNull(snapshot.diff(fetched, Set.of(), 4, 0));
+        assertEquals(5, snapshot.diff(fetched, Set.of(), 5, 0).size());
+        assertNull(snapshot.diff(List.of(employee(1, "Tiger Nixon", 320800), employee(1, "Tiger Nixon", 320800)),
+                Set.of(), 10, 0));
+    }
+
+    @Test
+    void testDeltaMatchesChangesAppliedOneByOne() {
+        EmployeeSnapshot changed = snapshot.withCreated(employee(8, "Airi Satou", 162700), 2)
+                .withCreated(employee(9, "Ashton Kutcher", 320800), 3);
+        EmployeeDelta delta = changed.diff(List.of(
+                employee(1, "Tiger Nixon", 320800),
+                employee(2, "Garrett Winters", 500000),
+                employee(4, "Cedric Kelly", 433060),
+                employee(9, "Ashton Kutcher", 86000),
+                employee(10, "Ashton Cox", 320800)), Set.of(), 10, 7);
+
+        EmployeeSnapshot expected = changed;
+        for (Long id : delta.getDeleted()) {
+            expected = expected.withDeleted(id, 4);
+        }
+        for (Employee employee : delta.getUpdated()) {
+            expected = expected.withDeleted(employee.getId(), 4).withCreated(employee, 4);
+        }
+        for (Employee employee : delta.getInserted()) {
+            expected = expected.withCreated(employee, 4);
+        }
+        EmployeeSnapshot next = changed.withDelta(delta, 4);
+
+        assertEquals(List.of(1L, 4L, 2L, 9L, 10L), ids(next.getEmployees()));
+        assertEquals(ids(expected.getEmployees()), ids(next.getEmployees()));
+        assertEquals(ids(expected.getSalaryIndex().getTopEarners(10)), ids(next.getSalaryIndex().getTopEarners(10)));
+        assertEquals(ids(expected.getNameSearchIndex().search("ashton", 0, 10)),
+                ids(next.getNameSearchIndex().search("ashton", 0, 10)));
+        assertEquals(ids(expected.getRangeIndex().filter(300000, 600000, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 10).getEmployees()),
+                ids(next.getRangeIndex().filter(300000, 600000, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, 10).getEmployees()));
+        assertEquals(expected.getStats().getSalaryStats(4, 86000, 500000).getCount(),
+                next.getStats().getSalaryStats(4, 86000, 500000).getCount());
+        assertEquals(expected.getChangeCount(), next.getChangeCount());
+    }
+
+    @Test
+    void testUnchangedListKeepsVersion() {
+        EmployeeDelta delta = snapshot.diff(snapshot.getEmployees(), Set.of(), 0, 5);
+        EmployeeSnapshot refreshed = snapshot.withLoadedAt(delta.getLoadedAtNanos());
+
+        assertTrue(delta.isEmpty());
+        assertEquals(1, refreshed.getVersion());
+        assertEquals(5, refreshed.getLoadedAtNanos());
+        assertSame(snapshot.getSalaryIndex(), refreshed.getSalaryIndex());
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+
+    private static Employee employee(long id, String name, int salary) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setEmployeeName(name);
+        employee.setEmployeeSalary(salary);
+        return employee;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.exceptions.UpstreamUnavailableException;
+import com.example.rqchallenge.upstream.FakeUpstream;
+import com.example.rqchallenge.util.EmployeeUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncEmployeeClientTest {
+
+    private FakeUpstream upstream;
+    private UpstreamHttpClient upstreamHttpClient;
+    private AsyncEmployeeClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        upstream = new FakeUpstream(1_000).start();
+        upstreamHttpClient = new UpstreamHttpClient(properties());
+        client = new AsyncEmployeeClient(upstreamHttpClient);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        upstreamHttpClient.shutdown();
+        upstream.close();
+    }
+
+    @Test
+    void testReadsAndCreatesAgainstTheFakeUpstream() throws Exception {
+        List<Employee> employees = client.getAllEmployees().get();
+        assertEquals(1_000, employees.size());
+        assertEquals(EmployeeUtil.getMockedEmployeeData().get(0), employees.get(0));
+        assertEquals("Tiger Nixon", client.getEmployeeById("1").get().getEmployeeName());
+
+        Employee created = client.createEmployee("Test Employee", 45_000, 23).get();
+        assertEquals(1_001L, created.getId());
+        assertEquals("Test Employee", created.getEmployeeName());
+        assertEquals(1_000, client.getAllEmployees().get().size());
+    }
+
+    @Test
+    void testThrottledReadsAreRetriedUpToMaxAttempts() throws Exception {
+        upstream.setFailures(0, 1, 0);
+
+        assertEquals(EmployeeUtil.getMockedEmployeeData(), client.getAllEmployees().get());
+        assertEquals(3, upstream.getRequestCount());
+        assertEquals(2, upstreamHttpClient.getSchedulerStats().getRetries());
+        assertEquals(3, upstreamHttpClient.getSchedulerStats().getThrottled());
+    }
+
+    @Test
+    void testRetriedThrottlesLeaveTheCircuitClosed() throws Exception {
+        UpstreamProperties properties = properties();
+        properties.getRateLimit().setRequestsPerSecond(0);
+        upstreamHttpClient.shutdown();
+        upstreamHttpClient = new UpstreamHttpClient(properties);
+        client = new AsyncEmployeeClient(upstreamHttpClient);
+        upstream.setFailures(0, 1, 0);
+        for (int i = 0; i < 5; i++) {
+            client.getAllEmployees().get();
+        }
+        assertEquals(15, upstream.getRequestCount());
+        assertTrue(upstreamHttpClient.getCircuitBreakerStats().stream()
+                .allMatch(stats -> "CLOSED".equals(stats.getState())));
+
+        upstream.setFailures(0, 0, 0);
+        assertEquals(1_000, client.getAllEmployees().get().size());
+    }
+
+    @Test
+    void testServerErrorsOpenTheCircuit() throws Exception {
+        upstream.setFailures(1, 0, 1);
+        for (int i = 0; i < 10; i++) {
+            client.getAllEmployees().get();
+        }
+        int requests = upstream.getRequestCount();
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> client.getAllEmployees().get());
+        assertInstanceOf(UpstreamUnavailableException.class, e.getCause());
+        assertEquals(requests, upstream.getRequestCount());
+        assertTrue(upstreamHttpClient.getCircuitBreakerStats().stream()
+                .anyMatch(stats -> "OPEN".equals(stats.getState())));
+    }
+
+    private UpstreamProperties properties() {
+        UpstreamProperties properties = new UpstreamProperties();
+        properties.setBaseUrl(upstream.getBaseUrl());
+        return properties;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.util.UpstreamRoute;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CircuitBreakerTest {
+
+    @Test
+    void testOpensOnceTheFailureRateIsReached() {
+        CircuitBreaker breaker = breaker(60_000);
+
+        for (int i = 0; i < 5; i++) {
+            call(breaker, true);
+        }
+        for (int i = 0; i < 4; i++) {
+            call(breaker, false);
+        }
+        assertEquals("CLOSED", breaker.getStats().getState());
+
+        call(breaker, false);
+        assertEquals("OPEN", breaker.getStats().getState());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(1, breaker.getStats().getRejectedCalls());
+    }
+
+    @Test
+    void testHalfOpenLetsASingleProbeThrough() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 10; i++) {
+            call(breaker, false);
+        }
+
+        assertTrue(breaker.tryAcquire());
+        assertEquals("HALF_OPEN", breaker.getStats().getState());
+        assertFalse(breaker.tryAcquire());
+
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        assertEquals("CLOSED", breaker.getStats().getState());
+        assertEquals(0, breaker.getStats().getWindowCalls());
+    }
+
+    @Test
+    void testFailedProbeOpensAgain() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 10; i++) {
+            call(breaker, false);
+        }
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals("OPEN", breaker.getStats().getState());
+        assertEquals(2, breaker.getStats().getOpenings());
+    }
+
+    @Test
+    void testIgnoredCallsAreNotRecorded() {
+        CircuitBreaker breaker = breaker(0);
+        for (int i = 0; i < 10; i++) {
+            call(breaker, false);
+        }
+
+        assertTrue(breaker.tryAcquire());
+        breaker.onIgnored();
+        assertEquals("HALF_OPEN", breaker.getStats().getState());
+        assertTrue(breaker.tryAcquire(), "the next call probes");
+        breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+
+        for (int i = 0; i < 20; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onIgnored();
+        }
+        assertEquals("CLOSED", breaker.getStats().getState());
+        assertEquals(0, breaker.getStats().getWindowCalls());
+    }
+
+    @Test
+    void testTimeoutFollowsTheLatencyPercentile() {
+        CircuitBreaker breaker = breaker(60_000);
+        assertEquals(15_000, breaker.getTimeoutMillis());
+
+        for (int i = 0; i < 32; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(500));
+        }
+        assertEquals(1_500, breaker.getTimeoutMillis());
+
+        for (int i = 0; i < 32; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        assertEquals(1_500, breaker.getTimeoutMillis(), "the p99 still sees the slow calls");
+    }
+
+    private static CircuitBreaker breaker(long openDurationMillis) {
+        return new CircuitBreaker(UpstreamRoute.GET_ALL_EMPLOYEES, 20, 10, 0.5,
+                openDurationMillis, 3, 1_000, 15_000);
+    }
+
+    private static void call(CircuitBreaker breaker, boolean success) {
+        assertTrue(breaker.tryAcquire());
+        if (success) {
+            breaker.onSuccess(TimeUnit.MILLISECONDS.toNanos(10));
+        } else {
+            breaker.onFailure();
+        }
+    }
+}
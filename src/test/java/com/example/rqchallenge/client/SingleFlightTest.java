@@ -0,0 +1,78 @@
+package com.example.rqchallenge.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>("test");
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    void testConcurrentCallersShareOneCall() throws Exception {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("a", () -> count(upstream));
+        CompletableFuture<String> second = singleFlight.execute("a", () -> count(upstream));
+        CompletableFuture<String> other = singleFlight.execute("b", () -> count(CompletableFuture.completedFuture("b")));
+        upstream.complete("a");
+
+        assertEquals("a", first.get());
+        assertEquals("a", second.get());
+        assertEquals("b", other.get());
+        assertEquals(2, calls.get());
+
+        SingleFlightStats stats = singleFlight.getStats();
+        assertEquals(3, stats.getRequests());
+        assertEquals(2, stats.getUpstreamCalls());
+        assertEquals(1, stats.getCoalescedRequests());
+        assertEquals(2, stats.getMaxFanIn());
+        assertEquals(0, stats.getInFlight());
+    }
+
+    @Test
+    void testKeyIsReleasedOnceTheCallCompletes() throws Exception {
+        singleFlight.execute("a", () -> count(CompletableFuture.completedFuture("first"))).get();
+
+        assertEquals("second", singleFlight.execute("a", () -> count(CompletableFuture.completedFuture("second"))).get());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void testFailuresReachEveryCaller() {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("a", () -> count(upstream));
+        CompletableFuture<String> second = singleFlight.execute("a", () -> count(upstream));
+        upstream.completeExceptionally(new IOException("down"));
+
+        assertInstanceOf(IOException.class, assertThrows(ExecutionException.class, first::get).getCause());
+        assertInstanceOf(IOException.class, assertThrows(ExecutionException.class, second::get).getCause());
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void testCancellingOneCallerDoesNotCancelTheOthers() throws Exception {
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.execute("a", () -> count(upstream));
+        CompletableFuture<String> second = singleFlight.execute("a", () -> count(upstream));
+        first.cancel(true);
+        upstream.complete("a");
+
+        assertEquals("a", second.get());
+    }
+
+    private CompletableFuture<String> count(CompletableFuture<String> result) {
+        calls.incrementAndGet();
+        return result;
+    }
+}
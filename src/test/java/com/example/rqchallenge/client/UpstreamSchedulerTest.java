@@ -0,0 +1,138 @@
+package com.example.rqchallenge.client;
+
+import com.example.rqchallenge.exceptions.UpstreamUnavailableException;
+import com.example.rqchallenge.util.UpstreamRoute;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UpstreamSchedulerTest {
+
+    private UpstreamScheduler scheduler;
+
+    @AfterEach
+    void tearDown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testBucketPacesRequestsPastTheBurst() throws Exception {
+        scheduler = scheduler(20, 2, 100, Duration.ofSeconds(5), new UpstreamProperties.Retry());
+
+        assertTrue(scheduler.acquire(UpstreamRoute.GET_ALL_EMPLOYEES, false).isDone());
+        assertTrue(scheduler.acquire(UpstreamRoute.GET_ALL_EMPLOYEES, false).isDone());
+        CompletableFuture<Void> third = scheduler.acquire(UpstreamRoute.GET_ALL_EMPLOYEES, false);
+        assertFalse(third.isDone());
+        assertEquals(1, scheduler.getQueued(UpstreamScheduler.Lane.READ));
+
+        third.get(1, TimeUnit.SECONDS);
+        assertEquals(3, scheduler.getStats().getGranted());
+        assertEquals(1, scheduler.getStats().getWaited());
+    }
+
+    @Test
+    void testWritesGoAheadOfQueuedReads() throws Exception {
+        scheduler = scheduler(10, 1, 100, Duration.ofSeconds(5), new UpstreamProperties.Retry());
+        scheduler.acquire(UpstreamRoute.GET_EMPLOYEE_BY_ID, false);
+
+        CompletableFuture<Void> read = scheduler.acquire(UpstreamRoute.GET_EMPLOYEE_BY_ID, false);
+        CompletableFuture<Void> write = scheduler.acquire(UpstreamRoute.CREATE_EMPLOYEE, false);
+        write.get(1, TimeUnit.SECONDS);
+        assertFalse(read.isDone());
+
+        read.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void testFullLanesAndLongWaitsFail() throws Exception {
+        scheduler = scheduler(0.5, 1, 1, Duration.ofMillis(50), new UpstreamProperties.Retry());
+        scheduler.acquire(UpstreamRoute.DELETE_EMPLOYEE, false);
+
+        CompletableFuture<Void> queued = scheduler.acquire(UpstreamRoute.DELETE_EMPLOYEE, false);
+        CompletableFuture<Void> rejected = scheduler.acquire(UpstreamRoute.DELETE_EMPLOYEE, false);
+        assertTrue(rejected.isCompletedExceptionally());
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(UpstreamUnavailableException.class, e.getCause());
+        assertEquals(2, scheduler.getStats().getRejected());
+    }
+
+    @Test
+    void testThrottledRequestsAreRetriedWithinTheBudget() {
+        UpstreamProperties.Retry retry = new UpstreamProperties.Retry();
+        retry.setMaxAttempts(10);
+        retry.setBudgetRatio(0);
+        retry.setBudgetPerSecond(0);
+        scheduler = scheduler(8, 8, 100, Duration.ofSeconds(5), retry);
+
+        assertTrue(scheduler.shouldRetry(response(429, "0", "POST"), 1));
+        assertEquals(4, scheduler.getStats().getRequestsPerSecond(), 0.1);
+        assertFalse(scheduler.shouldRetry(response(429, "0", "POST"), 2));
+        assertFalse(scheduler.shouldRetry(response(500, null, "GET"), 1));
+        assertFalse(scheduler.shouldRetry(response(503, "0", "POST"), 1));
+
+        UpstreamSchedulerStats stats = scheduler.getStats();
+        assertEquals(2, stats.getThrottled());
+        assertEquals(1, stats.getRetries());
+        assertEquals(1, stats.getRetriesDenied());
+    }
+
+    @Test
+    void testRetryAfterAsSecondsOrDate() {
+        long now = System.currentTimeMillis();
+        String inFiveSeconds = DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                ZonedDateTime.now(ZoneOffset.UTC).plusSeconds(5));
+
+        assertEquals(TimeUnit.SECONDS.toNanos(3), UpstreamScheduler.parseRetryAfterNanos(" 3 ", now));
+        long dateNanos = UpstreamScheduler.parseRetryAfterNanos(inFiveSeconds, now);
+        assertTrue(dateNanos > TimeUnit.SECONDS.toNanos(3) && dateNanos <= TimeUnit.SECONDS.toNanos(5), String.valueOf(dateNanos));
+        assertEquals(-1, UpstreamScheduler.parseRetryAfterNanos("soon", now));
+        assertEquals(-1, UpstreamScheduler.parseRetryAfterNanos(null, now));
+    }
+
+    private static UpstreamScheduler scheduler(double rate, double burst, int maxQueue, Duration maxWait,
+                                               UpstreamProperties.Retry retry) {
+        UpstreamProperties.RateLimit rateLimit = new UpstreamProperties.RateLimit();
+        rateLimit.setRequestsPerSecond(rate);
+        rateLimit.setBurst(burst);
+        rateLimit.setMinRequestsPerSecond(Math.min(1, rate));
+        rateLimit.setMaxQueue(maxQueue);
+        rateLimit.setMaxWait(maxWait);
+        return new UpstreamScheduler(rateLimit, retry);
+    }
+
+    private static Response response(int code, String retryAfter, String method) {
+        Request request = new Request.Builder()
+                .url("http://localhost/employees")
+                .method(method, "POST".equals(method) ? RequestBody.create(null, new byte[0]) : null)
+                .build();
+        Response.Builder builder = new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(code)
+                .message("");
+        if (retryAfter != null) {
+            builder.header("Retry-After", retryAfter);
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.rqchallenge.entity;
+
+import com.example.rqchallenge.util.EmployeeJson;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmployeeInputTest {
+
+    @Test
+    void testRouteKeysWithStringNumbers() throws IOException {
+        EmployeeInput input = read("{\"name\": \"Tiger Nixon\", \"salary\": \"320800\", \"age\": \"61\"}");
+
+        assertTrue(input.isValid());
+        assertEquals("Tiger Nixon", input.getName());
+        assertEquals(320800, input.getSalary());
+        assertEquals(61, input.getAge());
+    }
+
+    @Test
+    void testEmployeeKeysWithNumbers() throws IOException {
+        EmployeeInput input = read("{\"id\": null, \"employee_name\": \"Ashton Cox\", \"employee_salary\": 86000,"
+                + " \"employee_age\": 66, \"profile_image\": {\"url\": \"\"}}");
+
+        assertTrue(input.isValid());
+        assertEquals("Ashton Cox", input.getName());
+        assertEquals(86000, input.getSalary());
+        assertEquals(66, input.getAge());
+    }
+
+    @Test
+    void testRouteKeysWin() throws IOException {
+        EmployeeInput input = read("{\"name\": \"Route\", \"employee_name\": \"Employee\", \"employee_salary\": 1,"
+                + " \"salary\": -2, \"age\": \"+3\"}");
+
+        assertEquals("Route", input.getName());
+        assertEquals(-2, input.getSalary());
+        assertEquals(3, input.getAge());
+    }
+
+    @Test
+    void testNumbersThatAreNotIntsAreInvalid() throws IOException {
+        assertFalse(read("{\"name\": \"A\", \"salary\": \"unknown\", \"age\": 23}").isValid());
+        assertFalse(read("{\"name\": \"A\", \"salary\": 45000.5, \"age\": 23}").isValid());
+        assertFalse(read("{\"name\": \"A\", \"salary\": \"2147483648\", \"age\": 23}").isValid());
+        assertFalse(read("{\"name\": \"A\", \"salary\": \"\", \"age\": 23}").isValid());
+        assertFalse(read("{\"name\": \"A\", \"salary\": 45000}").isValid());
+        assertTrue(read("{\"name\": \"A\", \"salary\": \"-2147483648\", \"age\": 23}").isValid());
+        assertNull(read("{\"salary\": 1, \"age\": 2}").getName());
+    }
+
+    private static EmployeeInput read(String json) throws IOException {
+        return EmployeeJson.mapper().readValue(json, EmployeeInput.class);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.rqchallenge.index;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.store.ColumnarEmployeeStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameSearchIndexTest {
+
+    private final NameSearchIndex index = NameSearchIndex.build(List.of(
+            employee(1, "Tiger Nixon"),
+            employee(2, "Paul Byrd"),
+            employee(3, "Rhona Davidson"),
+            employee(4, "Abcxbcd (Temp)"),
+            employee(5, "paula byrne")));
+
+    @Test
+    void testSubstringSearchIsCaseInsensitiveAndInListOrder() {
+        assertEquals(List.of(2L, 5L), ids(index.search("PAUL", 0, Integer.MAX_VALUE)));
+        assertEquals(List.of(2L, 5L), ids(index.search("byr", 0, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void testCandidatesSharingTrigramsAreVerified() {
+        assertTrue(index.search("abcd", 0, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void testRegexMetacharactersAreMatchedLiterally() {
+        assertEquals(List.of(4L), ids(index.search("(temp)", 0, Integer.MAX_VALUE)));
+        assertTrue(index.search(".*", 0, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void testShortQueriesFallBackToScan() {
+        assertEquals(List.of(1L, 3L), ids(index.search("on", 0, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void testSearchPagination() {
+        assertEquals(List.of(5L), ids(index.search("paul", 1, 5)));
+        assertTrue(index.search("paul", 2, 5).isEmpty());
+    }
+
+    @Test
+    void testMatchPositionSkipsRemovedRowsAndCountsInserted() {
+        NameSearchIndex changed = index.removeRow(1).insert(employee(6, "Paul Anka")).insert(employee(7, "Paula Abdul"));
+
+        assertEquals(0, changed.matchPosition("paul", 5));
+        assertEquals(2, changed.matchPosition("paul", 7));
+        assertEquals(-1, changed.matchPosition("paul", 2));
+        assertEquals(-1, changed.matchPosition("paul", 3));
+        assertEquals(-1, changed.matchPosition("paul", 42));
+    }
+
+    @Test
+    void testAutocompleteMatchesAnyWordStart() {
+        assertEquals(List.of(2L, 5L), ids(index.autocomplete("byr", 10)));
+        assertEquals(List.of(2L), ids(index.autocomplete("paul b", 10)));
+        assertEquals(List.of(2L), ids(index.autocomplete("pa", 1)));
+        assertTrue(index.autocomplete("yrd", 10).isEmpty());
+    }
+
+    @Test
+    void testInsertedAndRemovedEmployeesAreSearched() {
+        NameSearchIndex changed = index.removeRow(1).insert(employee(6, "Paul Anka"));
+
+        assertEquals(List.of(5L, 6L), ids(changed.search("paul", 0, Integer.MAX_VALUE)));
+        assertEquals(List.of(6L), ids(changed.search("paul", 1, 5)));
+        assertEquals(List.of(2L, 5L), ids(index.search("paul", 0, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void testAutocompleteMergesInsertedEmployeesInOrder() {
+        Employee anka = employee(6, "Paul Anka");
+        NameSearchIndex changed = index.insert(anka).insert(employee(7, "Zed Byram"));
+
+        assertEquals(List.of(6L, 2L, 5L), ids(changed.autocomplete("pa", 10)));
+        assertEquals(List.of(7L, 2L, 5L), ids(changed.autocomplete("byr", 10)));
+        assertEquals(List.of(2L, 5L), ids(changed.removeInserted(anka).autocomplete("pa", 10)));
+    }
+
+    @Test
+    void testColumnarNamesAreLowercasedWhileRead() {
+        NameSearchIndex columnar = NameSearchIndex.build(ColumnarEmployeeStore.of(List.of(
+                employee(1, "ÉMILE ZOLA"),
+                employee(2, "Ștefan Ölund"),
+                employee(3, "Paul Byrd"),
+                employee(4, null))));
+
+        assertEquals(List.of(1L), ids(columnar.search("émile", 0, Integer.MAX_VALUE)));
+        assertEquals(List.of(2L), ids(columnar.search("FAN ÖL", 0, Integer.MAX_VALUE)));
+        assertEquals(List.of(2L), ids(columnar.autocomplete("öl", 10)));
+        assertEquals(List.of(3L, 1L), ids(columnar.autocomplete("", 2)));
+        assertEquals(4, columnar.search("", 0, Integer.MAX_VALUE).size());
+    }
+
+    private static Employee employee(long id, String name) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setEmployeeName(name);
+        return employee;
+    }
+
+    private static List<Long> ids(List<Employee> employees) {
+        return employees.stream().map(Employee::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.rqchallenge.index;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.store.ColumnarEmployeeStore;
+import com.example.rqchallenge.store.EmployeeStore;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RangeIndexTest {
+
+    private static final int ANY_MIN = Integer.MIN_VALUE;
+    private static final int ANY_MAX = Integer.MAX_VALUE;
+
+    private final EmployeeStore store = ColumnarEmployeeStore.of(List.of(
+            employee(1, 320800, 61),
+            employee(2, 170750, 63),
+            employee(3, 86000, 66),
+            employee(4, 433060, 22),
+            employee(5, 162700, 33),
+            employee(6, 372000, 61)));
+    private final RangeIndex index = RangeIndex.build(store, SalaryIndex.build(store));
+
+    @Test
+    void testSalaryRangeIsInclusiveAndInListOrder() {
+        RangeMatches matches = index.filter(162700, 372000, ANY_MIN, ANY_MAX, 0, 10);
+
+        assertEquals(List.of(1L, 2L, 5L, 6L), ids(matches));
+        assertEquals(4, matches.getTotal());
+    }
+
+    @Test
+    void testSalaryAndAgeRangesAreIntersected() {
+        assertEquals(List.of(1L, 6L), ids(index.filter(300000, ANY_MAX, 60, ANY_MAX, 0, 10)));
+        assertEquals(List.of(4L, 5L), ids(index.filter(ANY_MIN, ANY_MAX, ANY_MIN, 40, 0, 10)));
+        assertEquals(List.of(), ids(index.filter(400000, 300000, ANY_MIN, ANY_MAX, 0, 10)));
+    }
+
+    @Test
+    void testMatchPositionSkipsRemovedRowsAndCountsInserted() {
+        RangeIndex changed = index.removeRow(0).insert(employee(7, 200000, 40)).insert(employee(8, 50000, 40));
+
+        assertEquals(0, changed.matchPosition(162700, 372000, ANY_MIN, ANY_MAX, 2));
+        assertEquals(2, changed.matchPosition(162700, 372000, ANY_MIN, ANY_MAX, 6));
+        assertEquals(3, changed.matchPosition(162700, 372000, ANY_MIN, ANY_MAX, 7));
+        assertEquals(-1, changed.matchPosition(162700, 372000, ANY_MIN, ANY_MAX, 1));
+        assertEquals(-1, changed.matchPosition(162700, 372000, ANY_MIN, ANY_MAX, 8));
+        assertEquals(-1, changed.matchPosition(162700, 372000, ANY_MIN, ANY_MAX, 4));
+    }
+
+    @Test
+    void testPaginationKeepsTheTotal() {
+        RangeMatches matches = index.filter(ANY_MIN, ANY_MAX, ANY_MIN, ANY_MAX, 2, 3);
+
+        assertEquals(List.of(3L, 4L, 5L), ids(matches));
+        assertEquals(6, matches.getTotal());
+    }
+
+    @Test
+    void testInsertedAndRemovedEmployeesAreFiltered() {
+        RangeIndex changed = index.removeRow(0).insert(employee(7, 350000, 45));
+
+        RangeMatches matches = changed.filter(300000, ANY_MAX, ANY_MIN, ANY_MAX, 0, 10);
+
+        assertEquals(List.of(4L, 6L, 7L), ids(matches));
+        assertEquals(3, matches.getTotal());
+    }
+
+    private static List<Long> ids(RangeMatches matches) {
+        return matches.getEmployees().stream().map(Employee::getId).collect(Collectors.toList());
+    }
+
+    private static Employee employee(long id, int salary, int age) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setEmployeeName("Employee " + id);
+        employee.setEmployeeSalary(salary);
+        employee.setEmployeeAge(age);
+        return employee;
+    }
+}
@@ -0,0 +1,354 @@
+package com.example.rqchallenge.loadtest;
+
+import com.example.rqchallenge.RqChallengeApplication;
+import com.example.rqchallenge.stats.LogHistogram;
+import com.example.rqchallenge.upstream.FakeUpstream;
+import com.example.rqchallenge.util.EmployeeJson;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * The LoadTest drives the service end to end at a fixed request rate: it starts a FakeUpstream,
+ * starts the application on a free port pointed at it, then sends a weighted mix of requests
+ * to the IEmployeeController endpoints over HTTP for the given duration.
+ *
+ * The load is open loop. Request i is due at start + i / rps and its latency is measured from
+ * that time, so a slow service shows up as higher latencies instead of a lower sent rate.
+ * Requests sent during the warmup are not reported.
+ *
+ * Prints one line per endpoint and a total line with throughput and latency percentiles, and
+ * writes them as JSON to --report when given. Exits with 1 when the total error rate or p99 is
+ * above --max-error-rate or --max-p99, so it can gate a CI job:
+ *
+ * ./gradlew loadTest -PloadTestArgs="--rps=500 --duration=60s --employees=10000 --latency=20ms --jitter=10ms"
+ *
+ * Options, with their defaults: --rps=200 --duration=30s --warmup=5s --employees=10000
+ * --latency=0ms --jitter=0ms --error-rate=0 --429-rate=0 --upstream-rps=0 --report= --max-error-rate=
+ * --max-p99=. --upstream-rps is the upstream.rate-limit.requests-per-second of the service, 0 (no
+ * token bucket) by default so that the service itself is measured rather than the pacing.
+ */
+public class LoadTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        int rps = Integer.parseInt(options.getOrDefault("rps", "200"));
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "5s"));
+        int employeeCount = Integer.parseInt(options.getOrDefault("employees", "10000"));
+
+        try (FakeUpstream upstream = new FakeUpstream(employeeCount).start()) {
+            upstream.setLatency(DurationStyle.detectAndParse(options.getOrDefault("latency", "0ms")),
+                    DurationStyle.detectAndParse(options.getOrDefault("jitter", "0ms")));
+            upstream.setFailures(Double.parseDouble(options.getOrDefault("error-rate", "0")),
+                    Double.parseDouble(options.getOrDefault("429-rate", "0")), 1);
+
+            ConfigurableApplicationContext context = new SpringApplicationBuilder(RqChallengeApplication.class)
+                    .run("--server.port=0",
+                            "--upstream.base-url=" + upstream.getBaseUrl(),
+                            "--upstream.cache.directory=",
+                            "--upstream.rate-limit.requests-per-second=" + options.getOrDefault("upstream-rps", "0"),
+                            "--employee.snapshot.file=",
+                            "--logging.level.root=WARN");
+            try {
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                LoadTest loadTest = new LoadTest("http://127.0.0.1:" + port, employeeCount);
+                List<EndpointResult> results = loadTest.run(rps, warmup, duration);
+                boolean passed = report(results, rps, duration, options);
+                if (!passed) {
+                    System.exit(1);
+                }
+            } finally {
+                context.close();
+            }
+        }
+    }
+
+    private final String baseUrl;
+    private final int employeeCount;
+    private final OkHttpClient client;
+    private final List<Endpoint> endpoints = new ArrayList<>();
+    private final Random random = new Random(42);
+    private int totalWeight;
+
+    LoadTest(String baseUrl, int employeeCount) {
+        this.baseUrl = baseUrl;
+        this.employeeCount = employeeCount;
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(10_000);
+        dispatcher.setMaxRequestsPerHost(10_000);
+        this.client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(256, 1, TimeUnit.MINUTES))
+                .readTimeout(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+
+        endpoint("GET /?limit=100", 25, r -> get("/?limit=100"));
+        endpoint("GET /{id}", 25, r -> get("/" + (1 + r.nextInt(employeeCount))));
+        endpoint("GET /search/{name}", 15, r -> get("/search/" + (r.nextBoolean() ? "ni" : "son")));
+        endpoint("GET /highestSalary", 10, r -> get("/highestSalary"));
+        endpoint("GET /topTenHighestEarningEmployeeNames", 10, r -> get("/topTenHighestEarningEmployeeNames"));
+        endpoint("GET /filter", 10, r -> get("/filter?minSalary=" + r.nextInt(700_000) + "&maxAge=" + (30 + r.nextInt(30))
+                + "&limit=50"));
+        endpoint("POST /", 3, r -> new Request.Builder().url(baseUrl + "/").post(RequestBody.create(JSON,
+                "{\"name\":\"Load Test " + r.nextInt(1_000_000) + "\",\"salary\":\"" + (20_000 + r.nextInt(780_000))
+                        + "\",\"age\":\"" + (19 + r.nextInt(48)) + "\"}")).build());
+        endpoint("DELETE /{id}", 2, r -> new Request.Builder().url(baseUrl + "/" + (1 + r.nextInt(employeeCount)))
+                .delete().build());
+    }
+
+    /**
+     * This method sends rps requests per second for warmup then duration, and returns
+     * what was recorded after the warmup, per endpoint.
+     */
+    List<EndpointResult> run(int rps, Duration warmup, Duration duration) throws InterruptedException {
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rps;
+        long total = (warmup.toNanos() + duration.toNanos()) / periodNanos;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        CountDownLatch pending = new CountDownLatch((int) total);
+
+        for (long i = 0; i < total; i++) {
+            long due = start + i * periodNanos;
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Endpoint endpoint = pick();
+            send(endpoint, endpoint.request.apply(random), due, due >= measureFrom, pending);
+        }
+        long sendingEnd = System.nanoTime();
+        if (!pending.await(DRAIN_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)) {
+            System.err.printf("%d requests still running after %s%n", pending.getCount(), DRAIN_TIMEOUT);
+        }
+        client.dispatcher().executorService().shutdown();
+
+        double seconds = (sendingEnd - measureFrom) / 1e9;
+        List<EndpointResult> results = new ArrayList<>();
+        for (Endpoint endpoint : endpoints) {
+            synchronized (endpoint) {
+                results.add(new EndpointResult(endpoint.name, endpoint.latencies.copy(), endpoint.serverErrors.get(),
+                        endpoint.clientErrors.get(), endpoint.failures.get(), seconds));
+            }
+        }
+        return results;
+    }
+
+    private void send(Endpoint endpoint, Request request, long due, boolean measured, CountDownLatch pending) {
+        client.newCall(request).enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (measured) {
+                    endpoint.record(System.nanoTime() - due);
+                    endpoint.failures.incrementAndGet();
+                }
+                pending.countDown();
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) throws IOException {
+                try (response) {
+                    response.body().source().skip(Long.MAX_VALUE);
+                } catch (IOException | RuntimeException e) {
+                    // the body was cut short, the status line still counts
+                }
+                if (measured) {
+                    endpoint.record(System.nanoTime() - due);
+                    if (response.code() >= 500) {
+                        endpoint.serverErrors.incrementAndGet();
+                    } else if (response.code() >= 400) {
+                        endpoint.clientErrors.incrementAndGet();
+                    }
+                }
+                pending.countDown();
+            }
+        });
+    }
+
+    private Request get(String path) {
+        return new Request.Builder().url(baseUrl + path).get().build();
+    }
+
+    private void endpoint(String name, int weight, Function<Random, Request> request) {
+        endpoints.add(new Endpoint(name, weight, request));
+        totalWeight += weight;
+    }
+
+    private Endpoint pick() {
+        int draw = random.nextInt(totalWeight);
+        for (Endpoint endpoint : endpoints) {
+            draw -= endpoint.weight;
+            if (draw < 0) {
+                return endpoint;
+            }
+        }
+        return endpoints.get(endpoints.size() - 1);
+    }
+
+    private static boolean report(List<EndpointResult> results, int rps, Duration duration,
+                                  Map<String, String> options) throws IOException {
+        LogHistogram all = new LogHistogram();
+        long serverErrors = 0;
+        long clientErrors = 0;
+        long failures = 0;
+        double seconds = 0;
+        for (EndpointResult result : results) {
+            all.merge(result.latencies);
+            serverErrors += result.serverErrors;
+            clientErrors += result.clientErrors;
+            failures += result.failures;
+            seconds = result.seconds;
+        }
+        EndpointResult total = new EndpointResult("TOTAL", all, serverErrors, clientErrors, failures, seconds);
+        long errors = serverErrors + failures;
+
+        PrintStream out = System.out;
+        out.printf("load test: %d rps for %s%n", rps, duration);
+        out.printf("%-40s %9s %10s %8s %8s %10s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "rps", "4xx", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        List<Map<String, Object>> json = new ArrayList<>();
+        for (EndpointResult result : results) {
+            print(out, result);
+            json.add(result.toMap());
+        }
+        print(out, total);
+        json.add(total.toMap());
+
+        String reportFile = options.get("report");
+        if (reportFile != null && !reportFile.isBlank()) {
+            Files.write(Path.of(reportFile), EmployeeJson.mapper().writerWithDefaultPrettyPrinter()
+                    .writeValueAsString(json).getBytes(StandardCharsets.UTF_8));
+        }
+
+        boolean passed = true;
+        double errorRate = total.getRequests() == 0 ? 0 : (double) errors / total.getRequests();
+        if (options.containsKey("max-error-rate") && errorRate > Double.parseDouble(options.get("max-error-rate"))) {
+            out.printf("FAILED: error rate %.4f is above %s%n", errorRate, options.get("max-error-rate"));
+            passed = false;
+        }
+        if (options.containsKey("max-p99")) {
+            Duration maxP99 = DurationStyle.detectAndParse(options.get("max-p99"));
+            if (total.percentileMillis(99) > maxP99.toNanos() / 1e6) {
+                out.printf("FAILED: p99 of %.2f ms is above %s%n", total.percentileMillis(99), maxP99);
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    private static void print(PrintStream out, EndpointResult result) {
+        out.printf("%-40s %9d %10.1f %8d %8d %10.2f %10.2f %10.2f %10.2f %10.2f%n", result.name, result.getRequests(),
+                result.getRequests() / result.seconds, result.clientErrors, result.serverErrors + result.failures,
+                result.percentileMillis(50), result.percentileMillis(90), result.percentileMillis(99),
+                result.percentileMillis(99.9), result.latencies.getMax() / 1000.0);
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int equals = arg.indexOf('=');
+            options.put(arg.substring(2, equals), arg.substring(equals + 1));
+        }
+        return options;
+    }
+
+    /**
+     * Latencies in microseconds and outcome counts of one endpoint.
+     */
+    private static class Endpoint {
+        private final String name;
+        private final int weight;
+        private final Function<Random, Request> request;
+        private final LogHistogram latencies = new LogHistogram();
+        private final AtomicInteger serverErrors = new AtomicInteger();
+        private final AtomicInteger clientErrors = new AtomicInteger();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        Endpoint(String name, int weight, Function<Random, Request> request) {
+            this.name = name;
+            this.weight = weight;
+            this.request = request;
+        }
+
+        synchronized void record(long nanos) {
+            latencies.record((int) Math.min(Integer.MAX_VALUE, TimeUnit.NANOSECONDS.toMicros(nanos)));
+        }
+    }
+
+    private static class EndpointResult {
+        private final String name;
+        private final LogHistogram latencies;
+        private final long serverErrors;
+        private final long clientErrors;
+        private final long failures;
+        private final double seconds;
+
+        EndpointResult(String name, LogHistogram latencies, long serverErrors, long clientErrors, long failures,
+                       double seconds) {
+            this.name = name;
+            this.latencies = latencies;
+            this.serverErrors = serverErrors;
+            this.clientErrors = clientErrors;
+            this.failures = failures;
+            this.seconds = seconds;
+        }
+
+        long getRequests() {
+            return latencies.getCount();
+        }
+
+        double percentileMillis(double percentile) {
+            return latencies.getCount() == 0 ? 0 : latencies.getValueAtPercentile(percentile) / 1000.0;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("endpoint", name);
+            map.put("requests", getRequests());
+            map.put("throughput", getRequests() / seconds);
+            map.put("clientErrors", clientErrors);
+            map.put("errors", serverErrors + failures);
+            map.put("p50Millis", percentileMillis(50));
+            map.put("p90Millis", percentileMillis(90));
+            map.put("p99Millis", percentileMillis(99));
+            map.put("p999Millis", percentileMillis(99.9));
+            map.put("maxMillis", latencies.getMax() / 1000.0);
+            return map;
+        }
+    }
+}
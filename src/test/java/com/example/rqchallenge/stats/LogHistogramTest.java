@@ -0,0 +1,69 @@
+package com.example.rqchallenge.stats;
+
+import com.example.rqchallenge.entity.HistogramBucket;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogHistogramTest {
+
+    @Test
+    void testBucketsCoverEveryValueWithinPrecision() {
+        for (int value : new int[]{0, 1, 255, 256, 257, 511, 512, 86_000, 725_000, Integer.MAX_VALUE}) {
+            int index = LogHistogram.indexOf(value);
+            assertTrue(LogHistogram.lowestValue(index) <= value && value <= LogHistogram.highestValue(index));
+            assertTrue(LogHistogram.highestValue(index) - LogHistogram.lowestValue(index) <= value / 128);
+        }
+        assertEquals(LogHistogram.indexOf(511) + 1, LogHistogram.indexOf(512));
+    }
+
+    @Test
+    void testSmallValuesAreExact() {
+        LogHistogram histogram = new LogHistogram();
+        for (int age = 20; age <= 60; age++) {
+            histogram.record(age);
+        }
+
+        assertEquals(41, histogram.getCount());
+        assertEquals(20, histogram.getMin());
+        assertEquals(60, histogram.getMax());
+        assertEquals(40.0, histogram.getMean());
+        assertEquals(40, histogram.getValueAtPercentile(50));
+        assertEquals(60, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testRemoveAndMerge() {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(100_000);
+        histogram.record(200_000);
+        LogHistogram other = new LogHistogram();
+        other.record(300_000);
+
+        histogram.merge(other);
+        histogram.remove(100_000);
+        histogram.remove(5);
+
+        assertEquals(2, histogram.getCount());
+        assertEquals(250_000.0, histogram.getMean());
+        assertTrue(Math.abs(histogram.getMin() - 200_000) <= 200_000 / 128);
+    }
+
+    @Test
+    void testBucketsSplitTheRangeEvenly() {
+        LogHistogram histogram = new LogHistogram();
+        for (int value = 0; value < 100; value++) {
+            histogram.record(value);
+        }
+
+        List<HistogramBucket> buckets = histogram.getBuckets(4, 0, 99);
+
+        assertEquals(4, buckets.size());
+        assertEquals(0, buckets.get(0).getFrom());
+        assertEquals(99, buckets.get(3).getTo());
+        buckets.forEach(bucket -> assertEquals(25, bucket.getCount()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.rqchallenge.store;
+
+import com.example.rqchallenge.entity.Employee;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ColumnarEmployeeStoreTest {
+
+    private final List<Employee> employees = List.of(
+            employee(7L, "Tiger Nixon", 320800, 61, ""),
+            employee(3L, "Zoë Ünal 名前", 170750, 63, "img/3.png"),
+            employee(null, null, 86000, 22, null),
+            employee(7L, "Duplicate Id", 1, 1, ""));
+
+    private final ColumnarEmployeeStore store = ColumnarEmployeeStore.of(employees);
+
+    @Test
+    void testRowsReadBackAsDecoded() {
+        assertEquals(employees, store.asList());
+        assertEquals("Zoë Ünal 名前", store.getName(1));
+        assertEquals(170750, store.getSalary(1));
+        assertEquals(63, store.getAge(1));
+    }
+
+    @Test
+    void testNullFieldsStayNull() {
+        Employee employee = store.get(2);
+        assertNull(employee.getId());
+        assertNull(employee.getEmployeeName());
+        assertNull(employee.getProfileImage());
+    }
+
+    @Test
+    void testFindRowReturnsTheFirstRowOfAnId() {
+        assertEquals(0, store.findRow(7));
+        assertEquals(1, store.findRow(3));
+        assertEquals(-1, store.findRow(42));
+        assertEquals(-1, store.findRow(Long.MIN_VALUE));
+    }
+
+    @Test
+    void testFindRowOverManyRows() {
+        int count = 100_000;
+        Employee[] rows = new Employee[count];
+        for (int i = 0; i < count; i++) {
+            rows[i] = employee((long) i * 1024, "Employee " + i, i, 30, "");
+        }
+        ColumnarEmployeeStore large = ColumnarEmployeeStore.of(List.of(rows));
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(i, large.findRow((long) i * 1024));
+        }
+        assertEquals(-1, large.findRow(1));
+    }
+
+    private static Employee employee(Long id, String name, int salary, int age, String profileImage) {
+        Employee employee = new Employee();
+        employee.setId(id);
+        employee.setEmployeeName(name);
+        employee.setEmployeeSalary(salary);
+        employee.setEmployeeAge(age);
+        employee.setProfileImage(profileImage);
+        return employee;
+    }
+}
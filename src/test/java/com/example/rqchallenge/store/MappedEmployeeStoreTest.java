@@ -0,0 +1,90 @@
+package com.example.rqchallenge.store;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.util.EmployeeUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MappedEmployeeStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWrittenRowsAreMappedBack() throws IOException {
+        Path file = directory.resolve("employees.snapshot");
+        List<Employee> employees = EmployeeUtil.getMockedEmployeeData();
+
+        MappedEmployeeStore.write(ColumnarEmployeeStore.of(employees), file);
+        MappedEmployeeStore store = MappedEmployeeStore.open(file);
+
+        assertEquals(employees, store.asList());
+        assertEquals(3, store.findRow(4));
+        assertEquals("Cedric Kelly", store.getName(3));
+        assertEquals(433060, store.getSalary(3));
+        assertEquals(22, store.getAge(3));
+        assertEquals(-1, store.findRow(999));
+    }
+
+    @Test
+    void testNullsAndNonAsciiStrings() throws IOException {
+        Path file = directory.resolve("employees.snapshot");
+        Employee employee = new Employee();
+        employee.setEmployeeName("Zoë Ünal 名前");
+
+        MappedEmployeeStore.write(new ListEmployeeStore(List.of(employee)), file);
+        MappedEmployeeStore store = MappedEmployeeStore.open(file);
+
+        assertEquals("Zoë Ünal 名前", store.getName(0));
+        assertNull(store.get(0).getId());
+        assertNull(store.get(0).getProfileImage());
+    }
+
+    @Test
+    void testRewriteReplacesTheFile() throws IOException {
+        Path file = directory.resolve("employees.snapshot");
+        MappedEmployeeStore.write(ColumnarEmployeeStore.of(EmployeeUtil.getMockedEmployeeData()), file);
+        MappedEmployeeStore previous = MappedEmployeeStore.open(file);
+
+        MappedEmployeeStore.write(new ListEmployeeStore(List.of()), file);
+
+        assertEquals(0, MappedEmployeeStore.open(file).size());
+        assertEquals(24, previous.size());
+        assertEquals("Tiger Nixon", previous.getName(0));
+        try (var files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testOtherFilesAreRejected() throws IOException {
+        Path file = Files.writeString(directory.resolve("employees.json"), "[{\"id\": 1}, {\"id\": 2}]");
+
+        assertThrows(IOException.class, () -> MappedEmployeeStore.open(file));
+    }
+
+    @Test
+    void testStringsOutsideTheFileAreRejected() throws IOException {
+        Path file = directory.resolve("employees.snapshot");
+        MappedEmployeeStore.write(ColumnarEmployeeStore.of(EmployeeUtil.getMockedEmployeeData()), file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // The name length of the first record.
+            channel.write(ByteBuffer.allocate(4).putInt(0, Integer.MAX_VALUE), 36);
+        }
+
+        assertThrows(IOException.class, () -> MappedEmployeeStore.open(file));
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.rqchallenge.upstream;
+
+import com.example.rqchallenge.entity.Employee;
+import com.example.rqchallenge.util.EmployeeJson;
+import com.example.rqchallenge.util.EmployeeUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.example.rqchallenge.util.HttpUtil.*;
+
+/**
+ * The FakeUpstream is a local stand-in for dummy.restapiexample.com, served by an OkHttp
+ * MockWebServer on a free port: point upstream.base-url at getBaseUrl().
+ *
+ * It serves GET /employees, GET /employee/{id}, POST /create and DELETE /delete/{id} with
+ * the same bodies as the real upstream. Like the real one it does not keep what is created
+ * or deleted: creates get a new id, deletes succeed, the employee list never changes.
+ * The first 24 employees are the mocked ones of EmployeeUtil, the rest are generated from
+ * a fixed seed, so runs are repeatable.
+ *
+ * Latency, jitter and the share of 500 and 429 (with Retry-After) answers can be changed
+ * while it runs, they apply to the requests received afterwards. It can also alternate
+ * 429 and regular answers.
+ */
+public class FakeUpstream implements Closeable {
+
+    public static final String BASE_PATH = "/api/v1";
+    public static final int MOCKED_EMPLOYEES = 24;
+
+    private static final Pattern EMPLOYEE_BY_ID = Pattern.compile(Pattern.quote(BASE_PATH + GET_EMPLOYEE_BY_ID) + "(\\d+)");
+    private static final Pattern DELETE_BY_ID = Pattern.compile(Pattern.quote(BASE_PATH + DELETE_EMPLOYEE) + "(\\d+)");
+    private static final String JSON = "application/json";
+    private static final long SEED = 42;
+
+    private final MockWebServer server = new MockWebServer();
+    private final Map<Long, Employee> employeesById;
+    private final String allEmployeesBody;
+    private final AtomicLong nextId;
+
+    private volatile long latencyMillis;
+    private volatile long jitterMillis;
+    private volatile double errorRate;
+    private volatile double tooManyRequestsRate;
+    private volatile int retryAfterSeconds = 1;
+    private volatile boolean alternating;
+    private final AtomicLong answered = new AtomicLong();
+
+    public FakeUpstream(int employeeCount) throws JsonProcessingException {
+        List<Employee> employees = generate(employeeCount);
+        this.employeesById = new LinkedHashMap<>();
+        for (Employee employee : employees) {
+            employeesById.put(employee.getId(), employee);
+        }
+        this.allEmployeesBody = success(employees);
+        this.nextId = new AtomicLong(employeeCount + 1L);
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return FakeUpstream.this.dispatch(request);
+            }
+        });
+    }
+
+    public FakeUpstream start() throws IOException {
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        String url = server.url(BASE_PATH).toString();
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * This method delays every answer by latency plus a uniform random share of jitter.
+     */
+    public void setLatency(Duration latency, Duration jitter) {
+        this.latencyMillis = latency.toMillis();
+        this.jitterMillis = jitter.toMillis();
+    }
+
+    /**
+     * @param errorRate           share of requests answered with a 500
+     * @param tooManyRequestsRate share of requests answered with a 429
+     * @param retryAfterSeconds   Retry-After of the 429 answers
+     */
+    public void setFailures(double errorRate, double tooManyRequestsRate, int retryAfterSeconds) {
+        this.errorRate = errorRate;
+        this.tooManyRequestsRate = tooManyRequestsRate;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * This method answers every other request received afterwards with a 429, starting with the first.
+     */
+    public void setAlternating(boolean alternating) {
+        answered.set(0);
+        this.alternating = alternating;
+    }
+
+    public int getRequestCount() {
+        return server.getRequestCount();
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.shutdown();
+    }
+
+    /**
+     * This method returns employeeCount employees, the mocked ones first.
+     */
+    public static List<Employee> generate(int employeeCount) {
+        List<Employee> mocked = EmployeeUtil.getMockedEmployeeData();
+        List<Employee> employees = new ArrayList<>(employeeCount);
+        Random random = new Random(SEED);
+        for (int i = 0; i < employeeCount; i++) {
+            if (i < mocked.size()) {
+                employees.add(mocked.get(i));
+                continue;
+            }
+            Employee employee = new Employee();
+            employee.setId(i + 1L);
+            employee.setEmployeeName(mocked.get(i % mocked.size()).getEmployeeName() + " " + (i + 1));
+            employee.setEmployeeSalary(20_000 + random.nextInt(780_000));
+            employee.setEmployeeAge(19 + random.nextInt(48));
+            employee.setProfileImage(EMPTY_STRING);
+            employees.add(employee);
+        }
+        return employees;
+    }
+
+    private MockResponse dispatch(RecordedRequest request) {
+        MockResponse response = answer(request);
+        long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+        return delay > 0 ? response.setHeadersDelay(delay, TimeUnit.MILLISECONDS) : response;
+    }
+
+    private MockResponse answer(RecordedRequest request) {
+        double draw = ThreadLocalRandom.current().nextDouble();
+        if (draw < errorRate) {
+            return json(500, "{\"status\":\"error\",\"message\":\"Internal Server Error\"}");
+        }
+        if (draw < errorRate + tooManyRequestsRate || (alternating && answered.getAndIncrement() % 2 == 0)) {
+            return json(429, "{\"message\":\"Too Many Attempts.\"}")
+                    .addHeader("Retry-After", retryAfterSeconds);
+        }
+
+        try {
+            String path = request.getPath();
+            String method = request.getMethod();
+            Matcher matcher;
+            if ("GET".equals(method) && path.equals(BASE_PATH + GET_ALL_EMPLOYEES)) {
+                return json(200, allEmployeesBody);
+            }
+            if ("GET".equals(method) && (matcher = EMPLOYEE_BY_ID.matcher(path)).matches()) {
+                return json(200, success(employeesById.get(Long.parseLong(matcher.group(1)))));
+            }
+            if ("POST".equals(method) && path.equals(BASE_PATH + CREATE_EMPLOYEE)) {
+                ObjectNode created = (ObjectNode) EmployeeJson.mapper().readTree(request.getBody().readUtf8());
+                created.put("id", nextId.getAndIncrement());
+                return json(200, success(created));
+            }
+            if ("DELETE".equals(method) && (matcher = DELETE_BY_ID.matcher(path)).matches()) {
+                return json(200, EmployeeJson.mapper().writeValueAsString(Map.of(
+                        "status", "success", "data", matcher.group(1), "message", "Successfully! Record has been deleted")));
+            }
+            return json(404, "{\"message\":\"Not Found\"}");
+        } catch (IOException | RuntimeException e) {
+            return json(400, "{\"status\":\"error\",\"message\":\"Bad Request\"}");
+        }
+    }
+
+    private static String success(Object data) throws JsonProcessingException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "success");
+        body.put("data", data);
+        return EmployeeJson.mapper().writeValueAsString(body);
+    }
+
+    private static MockResponse json(int code, String body) {
+        return new MockResponse()
+                .setResponseCode(code)
+                .addHeader("Content-Type", JSON)
+                .setBody(body);
+    }
+}